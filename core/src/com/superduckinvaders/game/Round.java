@@ -1,17 +1,29 @@
 package com.superduckinvaders.game;
 
+import com.badlogic.ashley.core.PooledEngine;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
 import com.badlogic.gdx.Input.Keys;
 import com.badlogic.gdx.InputMultiplexer;
 import com.badlogic.gdx.graphics.g2d.Animation;
 import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTile;
 import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.TiledMapTileSet;
+import com.badlogic.gdx.maps.tiled.tiles.AnimatedTiledMapTile;
+import com.badlogic.gdx.maps.tiled.tiles.StaticTiledMapTile;
 import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
+import com.superduckinvaders.game.ai.ChunkGraph;
+import com.superduckinvaders.game.ai.FlowField;
+import com.superduckinvaders.game.ai.PathScheduler;
+import com.superduckinvaders.game.ai.PathfindingAI;
 import com.superduckinvaders.game.assets.Assets;
+import com.superduckinvaders.game.ecs.*;
 import com.superduckinvaders.game.entity.*;
 import com.superduckinvaders.game.entity.item.*;
 import com.superduckinvaders.game.entity.mob.*;
@@ -21,9 +33,14 @@ import com.superduckinvaders.game.objective.KillObjective;
 import com.superduckinvaders.game.objective.Objective;
 import com.superduckinvaders.game.ui.FloatyNumbersManager;
 import com.superduckinvaders.game.util.KeySequenceListener;
+import com.superduckinvaders.game.util.LineOfSight;
+import com.superduckinvaders.game.util.OccupancyGrid;
 import com.superduckinvaders.game.util.Collision;
 import com.superduckinvaders.game.util.CustomContactListener;
 import com.superduckinvaders.game.util.RayCast;
+import com.superduckinvaders.game.util.SpatialHash;
+import com.superduckinvaders.game.util.TileGrid;
+import com.superduckinvaders.game.util.TrackedPool;
 
 import java.util.*;
 
@@ -32,16 +49,6 @@ import java.util.*;
  */
 public class Round {
 
-    private Constructor createObstacle = (TiledMapTileLayer.Cell cell, float x, float y, float w, float h) -> (new Obstacle(this, x, y, w, h));
-    private Constructor createWater = (TiledMapTileLayer.Cell cell, float x, float y, float w, float h) -> {
-        if (cell.getTile().getProperties().get("water") != null) {
-            return new WaterEntity(this, x, y, w, h);
-        }
-        else {
-            return null;
-        }
-    };
-
     /**
      * How near entities must be to the player to get updated in the game loop.
      */
@@ -51,6 +58,22 @@ public class Round {
      */
     public static final int UPDATE_DISTANCE_Y = DuckGame.GAME_HEIGHT*2;
 
+    /**
+     * How long one simulation step is, in seconds. Physics and entities always move on by this much at a time.
+     */
+    public static final float STEP_TIME = 1/60f;
+
+    /**
+     * The most simulation steps to run in one frame. After a longer hitch the game slows down for a moment rather than
+     * running a burst of steps to catch up.
+     */
+    public static final int MAX_STEPS_PER_FRAME = 5;
+
+    /**
+     * How long each frame of the water animation is shown, in seconds.
+     */
+    public static final float WATER_FRAME_TIME = 0.5f;
+
     /**
      * The GameTest instance this Round belongs to.
      */
@@ -67,6 +90,119 @@ public class Round {
     private TiledMapTileLayer obstaclesLayer;
     private TiledMapTileLayer collisionLayer;
 
+    /**
+     * Which tiles are solid, from the Collision layer and the chosen obstacles layer.
+     */
+    private TileGrid solidGrid;
+
+    /**
+     * Which tiles of the base layer are water.
+     */
+    private TileGrid waterGrid;
+
+    /**
+     * Answers collision queries against the static map without Box2D.
+     */
+    private OccupancyGrid occupancyGrid;
+
+    /**
+     * Answers line of sight queries against the static map without Box2D.
+     */
+    private LineOfSight lineOfSight;
+
+    /**
+     * Flow fields toward the player, one for each size of mob that has asked for one.
+     */
+    private Map<OccupancyGrid.Clearance, FlowField> flowFields = new HashMap<>();
+
+    /**
+     * Chunk graphs for hierarchical pathfinding, one for each size of mob that has asked for one.
+     */
+    private Map<OccupancyGrid.Clearance, ChunkGraph> chunkGraphs = new HashMap<>();
+
+    /**
+     * Spreads the mobs' path searches over frames and worker threads.
+     */
+    private PathScheduler pathScheduler = new PathScheduler(PathScheduler.DEFAULT_BUDGET, true);
+
+    /**
+     * Projectiles that have hit something, with their bodies kept but inactive, ready to be fired again.
+     */
+    private TrackedPool<Projectile> projectilePool = new TrackedPool<Projectile>() {
+        @Override
+        protected Projectile newObject() {
+            return new Projectile(Round.this);
+        }
+    };
+
+    /**
+     * Particles that have finished, ready to be started again.
+     */
+    private TrackedPool<Particle> particlePool = new TrackedPool<Particle>() {
+        @Override
+        protected Particle newObject() {
+            return new Particle(Round.this);
+        }
+    };
+
+    /**
+     * Every entity, by where it was after the last simulation step, for finding entities near a point.
+     */
+    private SpatialHash<Entity> spatialHash;
+
+    /**
+     * Holds an Ashley entity for every entity in the Round, with the components the systems below run over.
+     * Round runs the systems itself, in order, as other work falls between them, rather than calling engine.update.
+     */
+    private PooledEngine engine = new PooledEngine();
+
+    /**
+     * Puts entities into the engine as they are added to the Round.
+     */
+    private EntityAdapter entityAdapter;
+
+    /**
+     * The systems run on each simulation step, in the order they run.
+     */
+    private PhysicsSystem physicsSystem;
+    private TransformSystem transformSystem;
+    private SpatialHashSystem spatialHashSystem;
+    private WaterSystem waterSystem;
+    private ActivitySystem activitySystem;
+    private AISystem aiSystem;
+    private UpdateSystem updateSystem;
+    private RemovalSystem removalSystem;
+
+    /**
+     * Keeps entities in render order and draws them, once a frame.
+     */
+    private RenderSystem renderSystem;
+
+    /**
+     * The health, speed, timers and facing of every mob, in parallel arrays.
+     */
+    private MobStore mobStore = new MobStore();
+
+    /**
+     * Projectiles without bodies, for fast bullets such as the boss's burst.
+     */
+    private RaycastProjectiles raycastProjectiles;
+
+    /**
+     * Frame time not yet simulated, in seconds.
+     */
+    private float accumulator = 0;
+
+    /**
+     * How far the frame is between the last two simulation steps, from 0 to 1.
+     */
+    private float interpolationAlpha = 1;
+
+    /**
+     * How many simulation steps the last frame ran.
+     */
+    private int stepsLastFrame = 0;
+
     /**
      * The player.
      */
@@ -78,8 +214,6 @@ public class Round {
     private List<Entity> entities;
     private List<Entity> newEntities;
 
-    private Comparator<Entity> entityComparator = new Entity.EntityComparator();
-
     /**
      * The current objective.
      */
@@ -97,6 +231,11 @@ public class Round {
 
     public World world;
 
+    /**
+     * Routes contacts in the world to the entities and counts them.
+     */
+    private CustomContactListener contactListener;
+
     /**
      * Whether the super-damage cheat is enabled.
      */
@@ -120,13 +259,16 @@ public class Round {
 
 
         world = new World(Vector2.Zero.cpy(), true);
-        world.setContactListener(new CustomContactListener());
+        contactListener = new CustomContactListener();
+        world.setContactListener(contactListener);
 
         // Choose which obstacles to use.
         obstaclesLayer = chooseObstacles();
         collisionLayer = getCollisionLayer();
 
+        animateWater();
         createEnvironmentBodies();
+        createSystems();
 
         // Determine starting coordinates for player (0, 0 default).
         int startX = Integer.parseInt(map.getProperties().get("StartX", "0", String.class)) * getTileWidth();
@@ -166,6 +308,40 @@ public class Round {
                 }
             }
         }
+
+        // Build chunk graphs now for mobs that search hierarchically, rather than stalling on their first search.
+        for (Entity entity : newEntities) {
+            if (entity instanceof Mob && ((Mob) entity).getAI() instanceof PathfindingAI
+                    && ((PathfindingAI) ((Mob) entity).getAI()).getSearchType() == PathfindingAI.SearchType.HIERARCHICAL) {
+                getChunkGraph(entity.getWidth(), entity.getHeight());
+            }
+        }
+    }
+
+    /**
+     * Adds the systems to the engine. Must be called after the spatial hash has been made.
+     */
+    private void createSystems() {
+        entityAdapter = new EntityAdapter(this, engine);
+        physicsSystem = new PhysicsSystem(world);
+        transformSystem = new TransformSystem();
+        spatialHashSystem = new SpatialHashSystem(spatialHash);
+        waterSystem = new WaterSystem(this);
+        activitySystem = new ActivitySystem(this);
+        aiSystem = new AISystem(activitySystem);
+        updateSystem = new UpdateSystem(activitySystem);
+        removalSystem = new RemovalSystem(this, entityAdapter);
+        renderSystem = new RenderSystem(spatialHash);
+
+        engine.addSystem(physicsSystem);
+        engine.addSystem(transformSystem);
+        engine.addSystem(spatialHashSystem);
+        engine.addSystem(waterSystem);
+        engine.addSystem(activitySystem);
+        engine.addSystem(aiSystem);
+        engine.addSystem(updateSystem);
+        engine.addSystem(removalSystem);
+        engine.addSystem(renderSystem);
     }
 
     /**
@@ -189,42 +365,78 @@ public class Round {
         }
     }
 
-    private interface Constructor {
-        Entity construct(TiledMapTileLayer.Cell cell, float x, float y, float w, float h);
-    }
 
-    private void layerMap(TiledMapTileLayer layer, Constructor constructor){
-        if (layer == null){
+    /**
+     * Swaps every water tile in the base layer for an animated tile that cycles through the water frames from that
+     * tile's frame onwards, so the water animates with no work per cell. The tiles whose "water" property is a frame
+     * number, counting from 1, are the frames. Animated tiles keep the properties of the tile they start on.
+     */
+    private void animateWater() {
+        Map<Integer, StaticTiledMapTile> frames = new HashMap<>();
+        for (TiledMapTileSet tileSet : map.getTileSets()) {
+            for (TiledMapTile tile : tileSet) {
+                Object frame = tile.getProperties().get("water");
+                if (frame != null && tile instanceof StaticTiledMapTile) {
+                    frames.put(Integer.parseInt((String) frame), (StaticTiledMapTile) tile);
+                }
+            }
+        }
+        if (frames.isEmpty()) {
             return;
         }
 
-        float tw = collisionLayer.getTileWidth();
-        float th = collisionLayer.getTileHeight();
+        // One animated tile per starting frame, shared by every cell starting on it.
+        Map<TiledMapTile, AnimatedTiledMapTile> animated = new HashMap<>();
+        for (Map.Entry<Integer, StaticTiledMapTile> start : frames.entrySet()) {
+            Array<StaticTiledMapTile> cycle = new Array<>();
+            for (int i = 0; i < frames.size(); i++) {
+                cycle.add(frames.get((start.getKey() - 1 + i) % frames.size() + 1));
+            }
+            AnimatedTiledMapTile tile = new AnimatedTiledMapTile(WATER_FRAME_TIME, cycle);
+            tile.getProperties().putAll(start.getValue().getProperties());
+            animated.put(start.getValue(), tile);
+        }
 
+        TiledMapTileLayer layer = getBaseLayer();
         for (int x = 0; x < layer.getWidth(); x++) {
             for (int y = 0; y < layer.getHeight(); y++) {
                 TiledMapTileLayer.Cell cell = layer.getCell(x, y);
-                if (cell != null) {
-                    float tileX = x * tw;
-                    float tileY = y * th;
-                    constructor.construct(cell, tileX, tileY, tw, th);
+                AnimatedTiledMapTile tile = cell == null ? null : animated.get(cell.getTile());
+                if (tile != null) {
+                    cell.setTile(tile);
                 }
             }
         }
     }
 
-
     private void createEnvironmentBodies() {
-        layerMap(getCollisionLayer(), createObstacle);
-        layerMap(getObstaclesLayer(), createObstacle);
-        layerMap(getBaseLayer(),     createWater   );
+        float tw = collisionLayer.getTileWidth();
+        float th = collisionLayer.getTileHeight();
+
+        // One static body per merged rectangle of solid tiles rather than one per tile.
+        solidGrid = TileGrid.fromLayers(getBaseLayer().getWidth(), getBaseLayer().getHeight(), TileGrid.ANY_CELL,
+                getCollisionLayer(), getObstaclesLayer());
+        for (Rectangle r : solidGrid.toRectangles()) {
+            new Obstacle(this, r.x * tw, r.y * th, r.width * tw, r.height * th);
+        }
+        occupancyGrid = new OccupancyGrid(solidGrid, getTileWidth(), getTileHeight());
+        lineOfSight = new LineOfSight(occupancyGrid);
+        spatialHash = new SpatialHash<>(getMapWidth(), getMapHeight(), SpatialHash.DEFAULT_CELL_SIZE);
+        raycastProjectiles = new RaycastProjectiles(this, lineOfSight);
+
+        // Likewise one WaterEntity per merged rectangle of water tiles.
+        waterGrid = TileGrid.fromLayers(getBaseLayer().getWidth(), getBaseLayer().getHeight(),
+                (TiledMapTileLayer.Cell cell) -> cell.getTile().getProperties().get("water") != null,
+                getBaseLayer());
+        for (Rectangle r : waterGrid.toRectangles()) {
+            new WaterEntity(this, r.x * tw, r.y * th, r.width * tw, r.height * th);
+        }
 
 
         float mapHeight = getMapHeight();
         float mapWidth = getMapWidth();
 
         //Assumes square tiles!
-        float tw = collisionLayer.getTileWidth();
 
         short bounds = PhysicsEntity.BOUNDS_BITS | PhysicsEntity.WORLD_BITS;
         
@@ -286,6 +498,214 @@ public class Round {
         return (TiledMapTileLayer) getMap().getLayers().get("Collision");
     }
 
+    /**
+     * Gets which tiles of the map are solid
+     * @return a grid with a bit set for every tile in the Collision layer or the chosen obstacles layer
+     */
+    public TileGrid getSolidGrid() {
+        return solidGrid;
+    }
+
+    /**
+     * Makes a tile solid or clear for pathfinding and line of sight. The clearance grids are patched, the chunk graphs
+     * rebuild the chunks around the tile on their next use, the flow fields are searched again, and the lines of sight
+     * remembered through the tile are dropped. The map's Box2D bodies are built once and are not changed.
+     * @param x the tile x
+     * @param y the tile y
+     * @param solid whether the tile is now solid
+     */
+    public void setTileSolid(int x, int y, boolean solid) {
+        if (!solidGrid.inBounds(x, y) || solidGrid.get(x, y) == solid) {
+            return;
+        }
+        occupancyGrid.setBlocked(x, y, solid);
+        lineOfSight.invalidate(x, y, x, y);
+        for (ChunkGraph chunkGraph : chunkGraphs.values()) {
+            chunkGraph.tilesChanged(x, y, x, y);
+        }
+        for (FlowField flowField : flowFields.values()) {
+            flowField.tilesChanged();
+        }
+    }
+
+    /**
+     * Gets which tiles of the map are water
+     * @return a grid with a bit set for every water tile in the Base layer
+     */
+    public TileGrid getWaterGrid() {
+        return waterGrid;
+    }
+
+    /**
+     * Gets the occupancy grid of the map
+     * @return the grid answering collision queries against the static map
+     */
+    public OccupancyGrid getOccupancyGrid() {
+        return occupancyGrid;
+    }
+
+    /**
+     * Gets the pool projectiles are fired from
+     * @return the projectile pool
+     */
+    public TrackedPool<Projectile> getProjectilePool() {
+        return projectilePool;
+    }
+
+    /**
+     * Gets the engine holding an Ashley entity for every entity in the round
+     * @return the engine
+     */
+    public PooledEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Gets the system that keeps entities in render order and draws them
+     * @return the render system
+     */
+    public RenderSystem getRenderSystem() {
+        return renderSystem;
+    }
+
+    /**
+     * Gets the system that runs the mobs' AI, which also lists every mob
+     * @return the AI system
+     */
+    public AISystem getAISystem() {
+        return aiSystem;
+    }
+
+    /**
+     * Gets the listener that routes contacts to the entities, which also counts them
+     * @return the contact listener
+     */
+    public CustomContactListener getContactListener() {
+        return contactListener;
+    }
+
+    /**
+     * Gets the system that sorts entities into tiers by distance from the player
+     * @return the activity system
+     */
+    public ActivitySystem getActivitySystem() {
+        return activitySystem;
+    }
+
+    /**
+     * Gets the store of every mob's health, speed, timers and facing
+     * @return the mob store
+     */
+    public MobStore getMobStore() {
+        return mobStore;
+    }
+
+    /**
+     * Gets the spatial hash of every entity, as of the last simulation step
+     * @return the spatial hash
+     */
+    public SpatialHash<Entity> getSpatialHash() {
+        return spatialHash;
+    }
+
+    /**
+     * Gets the projectiles without bodies
+     * @return the raycast projectiles
+     */
+    public RaycastProjectiles getRaycastProjectiles() {
+        return raycastProjectiles;
+    }
+
+    /**
+     * Gets the pool particles are started from
+     * @return the particle pool
+     */
+    public TrackedPool<Particle> getParticlePool() {
+        return particlePool;
+    }
+
+    /**
+     * Gets the line of sight service for the map
+     * @return the service answering line of sight queries against the static map
+     */
+    public LineOfSight getLineOfSight() {
+        return lineOfSight;
+    }
+
+    /**
+     * Gets the flow field toward the player for mobs of a certain size
+     * @param width the width of the mob
+     * @param height the height of the mob
+     * @return the shared flow field for mobs of that size
+     */
+    public FlowField getFlowField(float width, float height) {
+        OccupancyGrid.Clearance clearance = occupancyGrid.getClearance(width, height);
+        FlowField flowField = flowFields.get(clearance);
+        if (flowField == null) {
+            flowField = new FlowField(occupancyGrid, clearance);
+            flowFields.put(clearance, flowField);
+        }
+        return flowField;
+    }
+
+    /**
+     * Gets the chunk graph for hierarchical pathfinding for mobs of a certain size, building it the first time and
+     * rebuilding any chunks whose tiles have changed since the last call
+     * @param width the width of the mob
+     * @param height the height of the mob
+     * @return the chunk graph for mobs of that size
+     */
+    public ChunkGraph getChunkGraph(float width, float height) {
+        OccupancyGrid.Clearance clearance = occupancyGrid.getClearance(width, height);
+        ChunkGraph chunkGraph = chunkGraphs.get(clearance);
+        if (chunkGraph == null) {
+            chunkGraph = new ChunkGraph(lineOfSight, clearance, ChunkGraph.DEFAULT_CHUNK_SIZE);
+            chunkGraphs.put(clearance, chunkGraph);
+        } else {
+            chunkGraph.rebuildDirty();
+        }
+        return chunkGraph;
+    }
+
+    /**
+     * Gets the scheduler that path searches are queued with
+     * @return this Round's path scheduler
+     */
+    public PathScheduler getPathScheduler() {
+        return pathScheduler;
+    }
+
+    /**
+     * Tests if a point is on a water tile
+     * @param x x
+     * @param y y
+     * @return whether the tile under the point is water
+     */
+    public boolean isWater(float x, float y) {
+        return waterGrid.get(MathUtils.floor(x / getTileWidth()), MathUtils.floor(y / getTileHeight()));
+    }
+
+    /**
+     * Tests if a rectangle overlaps any water tile, as a character's body overlapping a water body used to be counted
+     * @param x      the x coordinate of the rectangle's bottom left corner
+     * @param y      the y coordinate of the rectangle's bottom left corner
+     * @param width  the rectangle's width
+     * @param height the rectangle's height
+     * @return whether any tile the rectangle overlaps is water
+     */
+    public boolean isWater(float x, float y, float width, float height) {
+        int x1 = MathUtils.ceil((x + width) / getTileWidth()) - 1;
+        int y1 = MathUtils.ceil((y + height) / getTileHeight()) - 1;
+        for (int tileX = MathUtils.floor(x / getTileWidth()); tileX <= x1; tileX++) {
+            for (int tileY = MathUtils.floor(y / getTileHeight()); tileY <= y1; tileY++) {
+                if (waterGrid.get(tileX, tileY)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * Gets the obstacles layer of the map
      * @return this Round's obstacles map layer or null if there isn't one
@@ -343,26 +763,47 @@ public class Round {
     }
 
     /**
-     * Tests if a point resides inside a body
+     * Tests if a point is on a solid tile of the map
      * @param x x
      * @param y y
-     * @return whether the point is in the body
+     * @return whether the point is on a solid tile
      */
     public boolean collidePoint(float x, float y) {
-        return collidePoint(new Vector2(x, y));
+        return occupancyGrid.collidePoint(x, y);
     }
     public boolean collidePoint(Vector2 p) {
-        return collidePoint(p, PhysicsEntity.WORLD_BITS);
+        return collidePoint(p.x, p.y);
     }
+
+    /**
+     * Tests if a point resides inside a body. Use this rather than the occupancy grid for dynamic bodies.
+     * @param p the point, which is scaled in place
+     * @param maskBits the categories of body to test against
+     * @return whether the point is in the body
+     */
     public boolean collidePoint(Vector2 p, short maskBits) {
         p.scl(PhysicsEntity.METRES_PER_PIXEL);
         Collision.Query q = new Collision.QueryPoint(world, p, maskBits);
         return q.query();
     }
 
+    /**
+     * Tests if an area overlaps a solid tile of the map
+     * @param pos the bottom left corner
+     * @param size the size of the area
+     * @return whether the area overlaps a solid tile
+     */
     public boolean collideArea(Vector2 pos, Vector2 size) {
-        return collideArea(pos, size, PhysicsEntity.WORLD_BITS);
+        return occupancyGrid.collideArea(pos.x, pos.y, size.x, size.y);
     }
+
+    /**
+     * Tests if an area overlaps a body. Use this rather than the occupancy grid for dynamic bodies.
+     * @param pos the bottom left corner, which is scaled in place
+     * @param size the size of the area, which is scaled in place
+     * @param maskBits the categories of body to test against
+     * @return whether the area overlaps a body
+     */
     public boolean collideArea(Vector2 pos, Vector2 size, short maskBits) {
         pos.scl(PhysicsEntity.METRES_PER_PIXEL);
         size.scl(PhysicsEntity.METRES_PER_PIXEL);
@@ -370,9 +811,23 @@ public class Round {
         return q.query();
     }
 
+    /**
+     * Tests if a line crosses no static map geometry, using the line of sight grid rather than Box2D.
+     * @param pos1 the start of the line
+     * @param pos2 the end of the line
+     * @return whether the line is clear
+     */
     public boolean rayCast(Vector2 pos1, Vector2 pos2){
-        return rayCast(pos1, pos2, PhysicsEntity.WORLD_BITS);
+        return lineOfSight.rayIsClear(pos1.x, pos1.y, pos2.x, pos2.y);
     }
+
+    /**
+     * Tests if a line crosses a body. Use this rather than the line of sight grid for dynamic bodies.
+     * @param pos1 the start of the line
+     * @param pos2 the end of the line
+     * @param maskBits the categories of body to test against
+     * @return whether the line is clear
+     */
     public boolean rayCast(Vector2 pos1, Vector2 pos2, short maskBits) {
         RayCast.RayCastCB r = new RayCast.RayCastCB(maskBits);
         world.rayCast(
@@ -383,33 +838,26 @@ public class Round {
         return r.clear;
     }
 
+    /**
+     * Tests if a box can slide in a straight line to another position without hitting the static map.
+     * @param pos the centre of the box
+     * @param size the size of the box
+     * @param target where the centre moves to
+     * @return whether the way is clear
+     */
     public boolean pathIsClear(Vector2 pos, Vector2 size, Vector2 target){
-        float width  = size.x;
-        float height = size.y;
-        Vector2[] corners = {new Vector2( width/2,  height/2),
-                new Vector2(-width/2,  height/2),
-                new Vector2(-width/2,  -height/2),
-                new Vector2(width/2,  -height/2),
-                Vector2.Zero.cpy()
-        };
-
-        return !Arrays.stream(corners).anyMatch(
-                corner -> !rayCast(corner.cpy().add(pos.cpy()), corner.cpy().add(target.cpy()))
-        );
+        return lineOfSight.pathIsClear(pos.x, pos.y, size.x, size.y, target.x, target.y);
     }
+
+    /**
+     * Tests if the corners and centre of a box can all see a point past the static map.
+     * @param pos the centre of the box
+     * @param size the size of the box
+     * @param target the point
+     * @return whether none of the lines are blocked
+     */
     public boolean cornersCanSeeTarget(Vector2 pos, Vector2 size, Vector2 target){
-        float width  = size.x;
-        float height = size.y;
-        Vector2[] corners = {new Vector2( width/2,  height/2),
-                new Vector2(-width/2,  height/2),
-                new Vector2(-width/2,  -height/2),
-                new Vector2(width/2,  -height/2),
-                Vector2.Zero.cpy()
-        };
-
-        return !Arrays.stream(corners).anyMatch(
-                corner -> !rayCast(corner.cpy().add(pos.cpy()), target.cpy())
-        );
+        return lineOfSight.canSee(pos.x, pos.y, size.x, size.y, target.x, target.y);
     }
 
     /**
@@ -449,7 +897,12 @@ public class Round {
     }
 
     private void addAddNewEntities() {
-        entities.addAll(newEntities);
+        for (Entity entity : newEntities) {
+            entities.add(entity);
+            entityAdapter.add(entity);
+            // The hash was filled at the start of the step, so put new entities in it now for the cull to find them.
+            spatialHash.insert(entity);
+        }
         newEntities.clear();
     }
 
@@ -485,8 +938,23 @@ public class Round {
      * @param owner           the owner of the projectile (i.e. the one who fired it)
      */
     public void createProjectile(Vector2 pos, Vector2 velocity, int damage, PhysicsEntity owner) {
-        addEntity(new Projectile(this, pos, velocity, damage, owner));
+        Projectile projectile = projectilePool.obtain();
+        projectile.init(pos, velocity, damage, owner);
+        addEntity(projectile);
+    }
+
+    /**
+     * Creates a new projectile without a body, moved by casting along its path each step rather than by Box2D.
+     *
+     * @param pos      the bottom left corner to fire from
+     * @param velocity the velocity to fire at
+     * @param damage   how much damage the projectile deals
+     * @param owner    the owner of the projectile (i.e. the one who fired it)
+     */
+    public void createRaycastProjectile(Vector2 pos, Vector2 velocity, int damage, PhysicsEntity owner) {
+        raycastProjectiles.fire(pos, velocity, damage, owner);
     }
+
     public void createProjectile(float x, float y, float dirX, float dirY, float speed, float velocityXOffset, float velocityYOffset, int damage, PhysicsEntity owner) {
         createProjectile(new Vector2(x, y), new Vector2(dirX, dirY).setLength(speed).add(velocityXOffset, velocityYOffset), damage, owner);
         Assets.laser.play(0.1f);
@@ -501,7 +969,9 @@ public class Round {
      * @param animation the animation to use for the particle effect
      */
     public void createParticle(float x, float y, float duration, Animation animation) {
-        addEntity(new Particle(this, x , y, duration, animation));
+        Particle particle = particlePool.obtain();
+        particle.init(x, y, duration, animation);
+        addEntity(particle);
     }
 
     /**
@@ -527,30 +997,20 @@ public class Round {
         addEntity(new Upgrade(this, x, y, upgrade));
     }
 
-    private void updateEntities(float delta){
-        Iterator<Entity> iterator = entities.iterator();
-        while (iterator.hasNext()) {
-            Entity entity = iterator.next();
-            Vector2 vector = entity.vectorTo(player.getCentre());
-
-            if (entity.isRemoved()) {
-                if (entity instanceof Mob && ((Mob) entity).isDead()) {
-                    int score = (int) (((Mob) entity).getScore()* (powerUpManager.getIsActive(PowerupManager.powerupTypes.SCORE_MULTIPLIER) ? Player.PLAYER_SCORE_MULTIPLIER : 1));
-                    player.addScore(score);
-                    floatyNumbersManager.createScoreNumber(score, entity.getX(), entity.getY());
-                }
-                entity.dispose();
-                iterator.remove();
-            } else if (vector.x < UPDATE_DISTANCE_X && vector.y < UPDATE_DISTANCE_Y){
-                // Don't bother updating entities that aren't on screen.
-                entity.update(delta);
-            }
-        }
+    /**
+     * Gives the player the score for killing a mob, and shows it over where the mob was.
+     *
+     * @param mob the mob that was killed
+     */
+    public void addKillScore(Mob mob) {
+        int score = (int) (mob.getScore()* (powerUpManager.getIsActive(PowerupManager.powerupTypes.SCORE_MULTIPLIER) ? Player.PLAYER_SCORE_MULTIPLIER : 1));
+        player.addScore(score);
+        floatyNumbersManager.createScoreNumber(score, mob.getX(), mob.getY());
     }
 
 
     /**
-     * Updates all entities in this Round.
+     * Runs as many fixed simulation steps as the time elapsed calls for, then works out how far between steps to draw.
      *
      * @param delta the time elapsed since the last update
      */
@@ -559,23 +1019,72 @@ public class Round {
             parent.showLoseScreen();
         }
 
-        world.step(delta, 6, 2);
+        player.pollInputs();
 
+        accumulator = Math.min(accumulator + delta, MAX_STEPS_PER_FRAME * STEP_TIME);
+        stepsLastFrame = 0;
+        while (accumulator >= STEP_TIME) {
+            accumulator -= STEP_TIME;
+            stepsLastFrame++;
+            if (!step(STEP_TIME)) {
+                break;
+            }
+        }
+        interpolationAlpha = accumulator / STEP_TIME;
+
+        pathScheduler.update();
+        renderSystem.update(delta);
+    }
+
+    /**
+     * Runs one simulation step, updating physics and all entities in this Round.
+     *
+     * @param delta the length of the step
+     * @return false if the round has been won, so no more steps should run
+     */
+    private boolean step(float delta) {
+        physicsSystem.update(delta);
+        transformSystem.update(delta);
+        spatialHashSystem.update(delta);
+        waterSystem.update(delta);
+
+        raycastProjectiles.update(delta);
         powerUpManager.update(delta);
         floatyNumbersManager.update(delta);
 
-        updateEntities(delta);
+        // Entities near the player are updated every step and those further out every few steps, by the time since
+        // their last update. Their AI runs first, then the mobs' timers move on together.
+        activitySystem.update(delta);
+        aiSystem.update(delta);
+        mobStore.update();
+        updateSystem.update(delta);
+        removalSystem.update(delta);
 
         if (objective != null) {
             objective.update(delta);
             if (objective.getStatus() == Objective.ObjectiveStatus.COMPLETED) {
                 player.addScore(200);
                 parent.showWinScreen(player.getScore());
+                return false;
             }
         }
         addAddNewEntities();
-        entities.sort(entityComparator);
+        return true;
     }
 
+    /**
+     * Gets how far the current frame is between the last two simulation steps, for drawing entities between them
+     * @return the fraction of a step, from 0 to 1
+     */
+    public float getInterpolationAlpha() {
+        return interpolationAlpha;
+    }
 
+    /**
+     * Gets how many simulation steps the last frame ran
+     * @return the number of steps
+     */
+    public int getStepsLastFrame() {
+        return stepsLastFrame;
+    }
 }
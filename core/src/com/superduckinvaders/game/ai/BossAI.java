@@ -61,14 +61,44 @@ public class BossAI extends AI {
      */
     private int burstRemaining;
 
+    /**
+     * Whether the burst is fired as raycast projectiles rather than projectiles with bullet bodies
+     */
+    private boolean raycastBurst;
+
     private Vector2 playerPos;
 
     /**
-     * Create an instance of BossAi
+     * Create an instance of BossAi that fires its bursts as raycast projectiles
      * @param round The round that this AI resides in
      */
     public BossAI(Round round){
+        this(round, true);
+    }
+
+    /**
+     * Create an instance of BossAi
+     * @param round The round that this AI resides in
+     * @param raycastBurst whether to fire bursts as raycast projectiles rather than projectiles with bullet bodies
+     */
+    public BossAI(Round round, boolean raycastBurst){
         super(round);
+        this.raycastBurst = raycastBurst;
+    }
+
+    /**
+     * Sets whether bursts are fired as raycast projectiles rather than projectiles with bullet bodies
+     * @param raycastBurst true to fire raycast projectiles
+     */
+    public void setRaycastBurst(boolean raycastBurst) {
+        this.raycastBurst = raycastBurst;
+    }
+
+    /**
+     * @return whether bursts are fired as raycast projectiles rather than projectiles with bullet bodies
+     */
+    public boolean isRaycastBurst() {
+        return raycastBurst;
     }
 
     /**
@@ -114,7 +144,7 @@ public class BossAI extends AI {
         }
         if(burstRemaining>=0){
             if (burstRemaining % 5 == 0) {
-                mob.fireAt(mob.vectorTo(playerPos).setLength(PROJECTILE_SPEED));
+                mob.fireAt(mob.getCentre(), mob.vectorTo(playerPos).setLength(PROJECTILE_SPEED), raycastBurst);
             }
             burstRemaining--;
         }
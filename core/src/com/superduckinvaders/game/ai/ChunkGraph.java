@@ -0,0 +1,434 @@
+package com.superduckinvaders.game.ai;
+
+import com.superduckinvaders.game.util.LineOfSight;
+import com.superduckinvaders.game.util.OccupancyGrid;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The abstract graph for hierarchical pathfinding over the tile corners a mob of one size can stand on.
+ * The corners are split into square chunks. Wherever a mob can cross from one chunk to the next, there is an entrance:
+ * a pair of nodes, one corner either side of the border. Nodes in the same chunk are joined with the cost of the
+ * shortest path between them that stays inside the chunk.
+ * <p>
+ * The graph is built once up front. After that, only the chunks marked with tilesChanged are rebuilt, on the next call
+ * to rebuildDirty. Each rebuild publishes a new immutable Graph, so searches on worker threads can keep using the one
+ * they started with.
+ */
+public class ChunkGraph {
+
+    /**
+     * The default width and height of a chunk, in corners.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 16;
+
+    /**
+     * Crossings wider than this, in corners, get an entrance at each end rather than one in the middle.
+     */
+    private static final int MAX_ENTRANCE_WIDTH = 6;
+
+    /**
+     * The cost of a path that does not exist.
+     */
+    static final float NO_PATH = Float.POSITIVE_INFINITY;
+
+    /**
+     * The line of sight service for the map.
+     */
+    private final LineOfSight sight;
+
+    /**
+     * The corners the mobs can stand on.
+     */
+    private final OccupancyGrid.Clearance clearance;
+
+    /**
+     * The number of corners across and up the map, and the size of a chunk in corners.
+     */
+    private final int width, height, chunkSize;
+
+    /**
+     * The number of chunks across and up the map.
+     */
+    private final int chunksX, chunksY;
+
+    /**
+     * For each chunk, the corner y of each entrance on its east border, and the corner x of each one on its north border.
+     */
+    private final int[][] eastEntrances, northEntrances;
+
+    /**
+     * For each chunk, the corners of its nodes, and the costs between each pair of them.
+     */
+    private final int[][] chunkNodes;
+    private final float[][] chunkCosts;
+
+    /**
+     * Which chunks need rebuilding.
+     */
+    private final boolean[] dirty;
+    private boolean anyDirty;
+
+    /**
+     * Used to find the costs between nodes within a chunk.
+     */
+    private final JumpPointSearch localSearch;
+
+    /**
+     * The latest graph.
+     */
+    private volatile Graph graph;
+
+    /**
+     * How long the last rebuild took, in milliseconds, and how many chunks it rebuilt.
+     */
+    private float lastRebuildTime;
+    private int lastRebuildChunks;
+
+    /**
+     * Builds a ChunkGraph.
+     *
+     * @param sight     the line of sight service for the map
+     * @param clearance the corners the mobs using this graph can stand on
+     * @param chunkSize the width and height of a chunk, in corners
+     */
+    public ChunkGraph(LineOfSight sight, OccupancyGrid.Clearance clearance, int chunkSize) {
+        this.sight = sight;
+        this.clearance = clearance;
+        this.width = clearance.getWidth();
+        this.height = clearance.getHeight();
+        this.chunkSize = chunkSize;
+
+        chunksX = (width + chunkSize - 1) / chunkSize;
+        chunksY = (height + chunkSize - 1) / chunkSize;
+        eastEntrances = new int[chunksX * chunksY][];
+        northEntrances = new int[chunksX * chunksY][];
+        chunkNodes = new int[chunksX * chunksY][];
+        chunkCosts = new float[chunksX * chunksY][];
+        localSearch = new JumpPointSearch(width, height);
+
+        dirty = new boolean[chunksX * chunksY];
+        Arrays.fill(dirty, true);
+        anyDirty = true;
+        rebuildDirty();
+    }
+
+    /**
+     * Marks the chunks that a change to a range of tiles affects as needing rebuilding.
+     * A tile change reaches as far as half a mob's width, so chunks that far away are marked too.
+     *
+     * @param tileX0 the first tile x
+     * @param tileY0 the first tile y
+     * @param tileX1 the last tile x
+     * @param tileY1 the last tile y
+     */
+    public void tilesChanged(int tileX0, int tileY0, int tileX1, int tileY1) {
+        int reachX = clearance.getBoxWidth() / sight.getGrid().getTileWidth() / 2 + 1;
+        int reachY = clearance.getBoxHeight() / sight.getGrid().getTileHeight() / 2 + 1;
+        int chunkX0 = Math.max(0, (tileX0 - reachX) / chunkSize), chunkY0 = Math.max(0, (tileY0 - reachY) / chunkSize);
+        int chunkX1 = Math.min(chunksX - 1, (tileX1 + 1 + reachX) / chunkSize);
+        int chunkY1 = Math.min(chunksY - 1, (tileY1 + 1 + reachY) / chunkSize);
+
+        for (int cx = chunkX0; cx <= chunkX1; cx++) {
+            for (int cy = chunkY0; cy <= chunkY1; cy++) {
+                dirty[cy * chunksX + cx] = true;
+                anyDirty = true;
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the chunks marked as needing it and publishes a new Graph. Call from the game thread.
+     */
+    public void rebuildDirty() {
+        if (!anyDirty) {
+            return;
+        }
+        long start = System.nanoTime();
+
+        // The entrances on a dirty chunk's borders change, so the nodes and costs of its neighbours change too.
+        boolean[] affected = new boolean[dirty.length];
+        for (int cx = 0; cx < chunksX; cx++) {
+            for (int cy = 0; cy < chunksY; cy++) {
+                if (dirty[cy * chunksX + cx]) {
+                    findEntrances(cx, cy);
+                    if (cx > 0) findEntrances(cx - 1, cy);
+                    if (cy > 0) findEntrances(cx, cy - 1);
+
+                    affected[cy * chunksX + cx] = true;
+                    if (cx > 0) affected[cy * chunksX + cx - 1] = true;
+                    if (cy > 0) affected[(cy - 1) * chunksX + cx] = true;
+                    if (cx < chunksX - 1) affected[cy * chunksX + cx + 1] = true;
+                    if (cy < chunksY - 1) affected[(cy + 1) * chunksX + cx] = true;
+                }
+            }
+        }
+
+        lastRebuildChunks = 0;
+        for (int chunk = 0; chunk < affected.length; chunk++) {
+            if (affected[chunk]) {
+                findNodes(chunk % chunksX, chunk / chunksX);
+                lastRebuildChunks++;
+            }
+        }
+
+        Arrays.fill(dirty, false);
+        anyDirty = false;
+        graph = new Graph();
+        lastRebuildTime = (System.nanoTime() - start) / 1e6f;
+    }
+
+    /**
+     * Finds the entrances on the east and north borders of a chunk.
+     */
+    private void findEntrances(int cx, int cy) {
+        int chunk = cy * chunksX + cx;
+        int x0 = cx * chunkSize, y0 = cy * chunkSize;
+        int x1 = Math.min(x0 + chunkSize, width) - 1, y1 = Math.min(y0 + chunkSize, height) - 1;
+
+        eastEntrances[chunk] = x1 + 1 < width ? findCrossings(x1, y0, 0, 1, y1 - y0 + 1, 1, 0) : new int[0];
+        northEntrances[chunk] = y1 + 1 < height ? findCrossings(x0, y1, 1, 0, x1 - x0 + 1, 0, 1) : new int[0];
+    }
+
+    /**
+     * Walks along a border, finding the runs of corners from which the mob can step across it.
+     *
+     * @param x      the corner x to start from, on the near side of the border
+     * @param y      the corner y to start from, on the near side of the border
+     * @param dx     the x step along the border
+     * @param dy     the y step along the border
+     * @param length how many corners long the border is
+     * @param crossX the x step across the border
+     * @param crossY the y step across the border
+     * @return the position along the border of each entrance, as a corner x or y
+     */
+    private int[] findCrossings(int x, int y, int dx, int dy, int length, int crossX, int crossY) {
+        List<Integer> entrances = new ArrayList<>();
+        int runStart = -1;
+        for (int i = 0; i <= length; i++) {
+            int cx = x + dx * i, cy = y + dy * i;
+            boolean open = i < length && clearance.canStand(cx, cy) && clearance.canStand(cx + crossX, cy + crossY);
+            if (open && runStart == -1) {
+                runStart = i;
+            } else if (!open && runStart != -1) {
+                int runEnd = i - 1;
+                int base = dx != 0 ? x : y;
+                if (runEnd - runStart + 1 > MAX_ENTRANCE_WIDTH) {
+                    entrances.add(base + runStart);
+                    entrances.add(base + runEnd);
+                } else {
+                    entrances.add(base + (runStart + runEnd) / 2);
+                }
+                runStart = -1;
+            }
+        }
+
+        int[] result = new int[entrances.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = entrances.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Collects the nodes of a chunk from the entrances on all four of its borders, and finds the costs between them.
+     */
+    private void findNodes(int cx, int cy) {
+        int chunk = cy * chunksX + cx;
+        int x0 = cx * chunkSize, y0 = cy * chunkSize;
+        int x1 = Math.min(x0 + chunkSize, width) - 1, y1 = Math.min(y0 + chunkSize, height) - 1;
+
+        List<Integer> nodes = new ArrayList<>();
+        for (int y : eastEntrances[chunk]) addNode(nodes, x1, y);
+        for (int x : northEntrances[chunk]) addNode(nodes, x, y1);
+        if (cx > 0) for (int y : eastEntrances[chunk - 1]) addNode(nodes, x0, y);
+        if (cy > 0) for (int x : northEntrances[chunk - chunksX]) addNode(nodes, x, y0);
+
+        int count = nodes.size();
+        int[] corners = new int[count];
+        for (int i = 0; i < count; i++) {
+            corners[i] = nodes.get(i);
+        }
+
+        float[] costs = new float[count * count];
+        localSearch.setBounds(x0, y0, x1, y1);
+        for (int i = 0; i < count; i++) {
+            for (int j = i + 1; j < count; j++) {
+                float cost = NO_PATH;
+                if (localSearch.search(sight, clearance, corners[i] % width, corners[i] / width,
+                        corners[j] % width, corners[j] / width, Float.MAX_VALUE, false)) {
+                    cost = localSearch.getPathCost();
+                }
+                costs[i * count + j] = cost;
+                costs[j * count + i] = cost;
+            }
+        }
+        localSearch.clearBounds();
+
+        chunkNodes[chunk] = corners;
+        chunkCosts[chunk] = costs;
+    }
+
+    private void addNode(List<Integer> nodes, int x, int y) {
+        Integer corner = y * width + x;
+        if (!nodes.contains(corner)) {
+            nodes.add(corner);
+        }
+    }
+
+    /**
+     * @return the latest graph
+     */
+    Graph getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return the line of sight service for the map
+     */
+    public LineOfSight getLineOfSight() {
+        return sight;
+    }
+
+    /**
+     * @return the corners the mobs using this graph can stand on
+     */
+    public OccupancyGrid.Clearance getClearance() {
+        return clearance;
+    }
+
+    /**
+     * @return the width and height of a chunk, in corners
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * @return the number of nodes in the latest graph
+     */
+    public int getNodeCount() {
+        return graph.nodeCorner.length;
+    }
+
+    /**
+     * @return how long the last rebuild took, in milliseconds
+     */
+    public float getLastRebuildTime() {
+        return lastRebuildTime;
+    }
+
+    /**
+     * @return how many chunks the last rebuild found the nodes of
+     */
+    public int getLastRebuildChunks() {
+        return lastRebuildChunks;
+    }
+
+    /**
+     * A snapshot of the abstract graph. Never changes once made.
+     * Nodes are numbered chunk by chunk, and edges are stored in one array, grouped by the node they leave.
+     */
+    class Graph {
+        final int width, chunkSize, chunksX;
+
+        /**
+         * The corner of each node.
+         */
+        final int[] nodeCorner;
+
+        /**
+         * The first node of each chunk, with one extra entry at the end.
+         */
+        final int[] chunkStart;
+
+        /**
+         * The first edge of each node, with one extra entry at the end, and where each edge goes and its cost.
+         */
+        final int[] edgeStart, edgeTarget;
+        final float[] edgeCost;
+
+        private Graph() {
+            this.width = ChunkGraph.this.width;
+            this.chunkSize = ChunkGraph.this.chunkSize;
+            this.chunksX = ChunkGraph.this.chunksX;
+
+            int chunks = chunkNodes.length;
+            chunkStart = new int[chunks + 1];
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                chunkStart[chunk + 1] = chunkStart[chunk] + chunkNodes[chunk].length;
+            }
+            int nodes = chunkStart[chunks];
+            nodeCorner = new int[nodes];
+
+            // Intra chunk edges, then the edge across each entrance.
+            List<int[]> targets = new ArrayList<>(nodes);
+            List<float[]> costs = new ArrayList<>(nodes);
+            int[] counts = new int[nodes];
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                int[] corners = chunkNodes[chunk];
+                for (int i = 0; i < corners.length; i++) {
+                    nodeCorner[chunkStart[chunk] + i] = corners[i];
+                    targets.add(new int[corners.length + 2]);
+                    costs.add(new float[corners.length + 2]);
+                }
+                for (int i = 0; i < corners.length; i++) {
+                    int node = chunkStart[chunk] + i;
+                    for (int j = 0; j < corners.length; j++) {
+                        float cost = chunkCosts[chunk][i * corners.length + j];
+                        if (i != j && cost != NO_PATH) {
+                            targets.get(node)[counts[node]] = chunkStart[chunk] + j;
+                            costs.get(node)[counts[node]++] = cost;
+                        }
+                    }
+                }
+            }
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                int cx = chunk % chunksX, cy = chunk / chunksX;
+                int x1 = Math.min((cx + 1) * chunkSize, width) - 1, y1 = Math.min((cy + 1) * chunkSize, ChunkGraph.this.height) - 1;
+                for (int y : eastEntrances[chunk]) {
+                    link(targets, costs, counts, find(chunk, y * width + x1), find(chunk + 1, y * width + x1 + 1));
+                }
+                for (int x : northEntrances[chunk]) {
+                    link(targets, costs, counts, find(chunk, y1 * width + x), find(chunk + chunksX, (y1 + 1) * width + x));
+                }
+            }
+
+            edgeStart = new int[nodes + 1];
+            for (int node = 0; node < nodes; node++) {
+                edgeStart[node + 1] = edgeStart[node] + counts[node];
+            }
+            edgeTarget = new int[edgeStart[nodes]];
+            edgeCost = new float[edgeStart[nodes]];
+            for (int node = 0; node < nodes; node++) {
+                System.arraycopy(targets.get(node), 0, edgeTarget, edgeStart[node], counts[node]);
+                System.arraycopy(costs.get(node), 0, edgeCost, edgeStart[node], counts[node]);
+            }
+        }
+
+        private int find(int chunk, int corner) {
+            for (int node = chunkStart[chunk]; node < chunkStart[chunk + 1]; node++) {
+                if (nodeCorner[node] == corner) {
+                    return node;
+                }
+            }
+            throw new IllegalStateException("No node at corner " + corner + " in chunk " + chunk);
+        }
+
+        private void link(List<int[]> targets, List<float[]> costs, int[] counts, int a, int b) {
+            targets.get(a)[counts[a]] = b;
+            costs.get(a)[counts[a]++] = 1;
+            targets.get(b)[counts[b]] = a;
+            costs.get(b)[counts[b]++] = 1;
+        }
+
+        /**
+         * @return the chunk a corner is in
+         */
+        int chunkOf(int x, int y) {
+            return (y / chunkSize) * chunksX + x / chunkSize;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.superduckinvaders.game.ai;
+
+import com.superduckinvaders.game.util.LineOfSight;
+import com.superduckinvaders.game.util.OccupancyGrid;
+
+import java.util.Arrays;
+
+/**
+ * Base for best first searches over the tile corners a mob can stand on.
+ * All of the working arrays are made once, sized to the map, and reused, so a search makes no garbage.
+ * Arrays are reset between searches by bumping a generation number rather than clearing them.
+ * A CornerSearch is not thread-safe: use the forThread method of a subclass to get the one belonging to the current thread.
+ */
+public abstract class CornerSearch implements PathResult {
+
+    /**
+     * The cost of a diagonal step.
+     */
+    protected static final float DIAGONAL_COST = (float) Math.sqrt(2);
+
+    /**
+     * The number of corners across and up the map.
+     */
+    protected final int width, height;
+
+    /**
+     * The generation in which each corner was last reached, and last closed.
+     */
+    private final int[] reached, closed;
+
+    /**
+     * The current generation.
+     */
+    private int generation = 0;
+
+    /**
+     * The corner each corner reached this generation was reached from.
+     */
+    protected final int[] parent;
+
+    /**
+     * Cost from the start, estimated cost to the goal, worked out once when a corner is first reached, and the sum of
+     * the two, for each corner reached this generation.
+     */
+    protected final float[] cost, heuristic, estimate;
+
+    /**
+     * The open corners, ordered by estimate.
+     */
+    private final NodeHeap open;
+
+    /**
+     * The path found by the last search, from the end corner back to the start, with every corner along it.
+     */
+    private final int[] path;
+    private int pathLength;
+
+    /**
+     * The cost of the path found by the last search.
+     */
+    private float pathCost;
+
+    /**
+     * How many corners the last search expanded.
+     */
+    private int expanded;
+
+    /**
+     * What the current search is over.
+     */
+    protected OccupancyGrid.Clearance clearance;
+    protected int goalX, goalY;
+
+    /**
+     * The corners searches are kept within, inclusive.
+     */
+    private int minX, minY, maxX, maxY;
+
+    /**
+     * Creates a CornerSearch.
+     *
+     * @param width  the number of corners across the map
+     * @param height the number of corners up the map
+     */
+    protected CornerSearch(int width, int height) {
+        this.width = width;
+        this.height = height;
+
+        int size = width * height;
+        reached = new int[size];
+        closed = new int[size];
+        parent = new int[size];
+        cost = new float[size];
+        heuristic = new float[size];
+        estimate = new float[size];
+        open = new NodeHeap(size, estimate, heuristic);
+        path = new int[size];
+        clearBounds();
+    }
+
+    /**
+     * Keeps searches within a rectangle of corners, as if everything outside it were solid.
+     *
+     * @param minX the lowest corner x
+     * @param minY the lowest corner y
+     * @param maxX the highest corner x
+     * @param maxY the highest corner y
+     */
+    public void setBounds(int minX, int minY, int maxX, int maxY) {
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+    }
+
+    /**
+     * Lets searches use the whole map again.
+     */
+    public void clearBounds() {
+        setBounds(0, 0, width - 1, height - 1);
+    }
+
+    /**
+     * Searches for a path from the start to the goal.
+     *
+     * @param sight       the line of sight service for the map
+     * @param clearance   the corners the mob can stand on
+     * @param startX      the corner x to start from
+     * @param startY      the corner y to start from
+     * @param goalX       the corner x of the goal
+     * @param goalY       the corner y of the goal
+     * @param depthLimit  how far from the start, in tiles, to search before giving up
+     * @param stopOnSight whether to stop at the first corner from which the mob can see the goal, rather than the goal
+     * @return whether a path was found
+     */
+    public boolean search(LineOfSight sight, OccupancyGrid.Clearance clearance,
+                          int startX, int startY, int goalX, int goalY, float depthLimit, boolean stopOnSight) {
+        nextGeneration();
+        this.clearance = clearance;
+        this.goalX = goalX;
+        this.goalY = goalY;
+        open.clear();
+        pathLength = 0;
+        pathCost = 0;
+        expanded = 0;
+
+        if (startX < 0 || startY < 0 || startX >= width || startY >= height) {
+            return false;
+        }
+        relax(startY * width + startX, -1, 0);
+
+        while (!open.isEmpty()) {
+            int current = open.pop();
+            closed[current] = generation;
+
+            if (cost[current] >= depthLimit) {
+                continue;
+            }
+            expanded++;
+
+            int x = current % width;
+            int y = current / width;
+            if ((x == goalX && y == goalY)
+                    || (stopOnSight && sight.canSeeCorner(clearance, x, y, goalX, goalY))) {
+                buildPath(current);
+                return true;
+            }
+            expand(current, x, y);
+        }
+        return false;
+    }
+
+    /**
+     * Reaches the neighbours of a corner.
+     *
+     * @param node the corner index
+     * @param x    the corner x
+     * @param y    the corner y
+     */
+    protected abstract void expand(int node, int x, int y);
+
+    /**
+     * Estimates the cost of getting from one corner to another.
+     *
+     * @param dx the difference in corner x
+     * @param dy the difference in corner y
+     * @return the estimate, which must never be more than the real cost
+     */
+    protected abstract float estimate(int dx, int dy);
+
+    /**
+     * Records that a corner can be reached from another for a cost, if that is the cheapest way found to it so far.
+     *
+     * @param node     the corner index
+     * @param from     the corner it is reached from, or -1 for the start
+     * @param nodeCost the cost from the start
+     */
+    protected void relax(int node, int from, float nodeCost) {
+        if (reached[node] != generation) {
+            reached[node] = generation;
+            cost[node] = nodeCost;
+            parent[node] = from;
+            heuristic[node] = estimate(node % width - goalX, node / width - goalY);
+            estimate[node] = nodeCost + heuristic[node];
+            open.add(node);
+        } else if (closed[node] != generation && nodeCost < cost[node]) {
+            cost[node] = nodeCost;
+            parent[node] = from;
+            estimate[node] = nodeCost + heuristic[node];
+            open.decreased(node);
+        }
+    }
+
+    /**
+     * Gets whether the mob can stand on a corner, and it is within the bounds.
+     */
+    protected boolean walkable(int x, int y) {
+        return x >= minX && y >= minY && x <= maxX && y <= maxY && clearance.canStand(x, y);
+    }
+
+    /**
+     * Fills in the path back from a corner, including the corners between ones that are more than a step apart.
+     * Corners a search links together must be in a straight or diagonal line.
+     */
+    private void buildPath(int end) {
+        pathCost = cost[end];
+        for (int node = end; node != -1; node = parent[node]) {
+            int x = node % width, y = node / width;
+            path[pathLength++] = node;
+            if (parent[node] != -1) {
+                int px = parent[node] % width, py = parent[node] / width;
+                int dx = Integer.signum(px - x), dy = Integer.signum(py - y);
+                for (x += dx, y += dy; x != px || y != py; x += dx, y += dy) {
+                    path[pathLength++] = y * width + x;
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts a new generation, clearing the arrays only when the generation number wraps around.
+     */
+    private void nextGeneration() {
+        if (++generation == Integer.MAX_VALUE) {
+            Arrays.fill(reached, 0);
+            Arrays.fill(closed, 0);
+            generation = 1;
+        }
+    }
+
+    @Override
+    public int getPathLength() {
+        return pathLength;
+    }
+
+    /**
+     * @return the cost of the path found by the last search
+     */
+    public float getPathCost() {
+        return pathCost;
+    }
+
+    @Override
+    public int getPathX(int i) {
+        return path[i] % width;
+    }
+
+    @Override
+    public int getPathY(int i) {
+        return path[i] / width;
+    }
+
+    /**
+     * @return how many corners the last search expanded
+     */
+    public int getExpanded() {
+        return expanded;
+    }
+}
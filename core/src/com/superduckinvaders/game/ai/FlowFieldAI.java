@@ -0,0 +1,100 @@
+package com.superduckinvaders.game.ai;
+
+import com.badlogic.gdx.math.Vector2;
+import com.superduckinvaders.game.Round;
+import com.superduckinvaders.game.entity.mob.Mob;
+
+/**
+ * AI that follows the player by reading the Round's shared flow field rather than running its own search.
+ */
+public class FlowFieldAI extends AI {
+
+    /**
+     * How near the player has to be before this AI starts following them.
+     */
+    public final static float FOLLOW_DISTANCE = 1280 / 4;
+
+    /**
+     * How far away from the player this FlowFieldAI tries to stay.
+     */
+    private float targetRange;
+
+    /**
+     * The point this AI is currently heading for, or null if it is standing still. Either playerPos or heading.
+     */
+    public Vector2 target;
+
+    /**
+     * Where the player and the Mob were on the last update, the Mob's size, the point it is heading for, and the
+     * vector the Mob's velocity is worked out in, kept to save making new vectors every update.
+     */
+    private final Vector2 playerPos = new Vector2(), mobCentre = new Vector2(), mobSize = new Vector2();
+    private final Vector2 heading = new Vector2(), velocity = new Vector2();
+
+    /**
+     * Initialises this FlowFieldAI.
+     *
+     * @param round       the round the Mob this AI controls is a part of
+     * @param targetRange how close to the player this FlowFieldAI tries to get
+     */
+    public FlowFieldAI(Round round, float targetRange) {
+        super(round);
+        this.targetRange = targetRange;
+    }
+
+    /**
+     * Updates this FlowFieldAI.
+     *
+     * @param mob   the Mob using this AI
+     * @param delta time since the previous update
+     */
+    @Override
+    public void update(Mob mob, float delta) {
+        playerPos.set(round.getPlayer().getCentreX(), round.getPlayer().getCentreY());
+        mobCentre.set(mob.getCentreX(), mob.getCentreY());
+        mobSize.set(mob.getWidth(), mob.getHeight());
+        float distanceToPlayer = mobCentre.dst(playerPos);
+
+        if (distanceToPlayer < FOLLOW_DISTANCE) {
+            target = findTarget(mob, distanceToPlayer);
+        }
+
+        if (target != null) {
+            // applyVelocity works the velocity out in the vector it is given.
+            mob.applyVelocity(velocity.set(target));
+        }
+    }
+
+    /**
+     * Works out where to head for next, from the positions found this update.
+     *
+     * @param mob              the Mob using this AI
+     * @param distanceToPlayer how far the Mob is from the player
+     * @return playerPos to head straight for the player, heading set to the next corner, or null to stand still
+     */
+    private Vector2 findTarget(Mob mob, float distanceToPlayer) {
+        // Only pay for the line of sight check when already close enough to stop.
+        if (distanceToPlayer < targetRange && round.cornersCanSeeTarget(mobCentre, mobSize, playerPos)) {
+            return null;
+        }
+
+        FlowField field = round.getFlowField(mob.getWidth(), mob.getHeight());
+        field.setTarget(playerPos.x, playerPos.y);
+
+        int tileWidth = round.getTileWidth();
+        int tileHeight = round.getTileHeight();
+        int x = Math.round(mobCentre.x / tileWidth);
+        int y = Math.round(mobCentre.y / tileHeight);
+
+        if (x == field.getTargetX() && y == field.getTargetY()) {
+            return playerPos;
+        }
+
+        int step = field.getNextStep(x, y);
+        if (step < 0) {
+            // Nowhere closer to go, so either the player is out of reach or we are right by them.
+            return field.getDistance(x, y) == FlowField.UNREACHABLE ? null : playerPos;
+        }
+        return heading.set((x + FlowField.stepX(step)) * tileWidth, (y + FlowField.stepY(step)) * tileHeight);
+    }
+}
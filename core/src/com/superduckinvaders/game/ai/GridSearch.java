@@ -0,0 +1,79 @@
+package com.superduckinvaders.game.ai;
+
+/**
+ * A* search over the tile corners a mob can stand on, stepping to every neighbouring corner.
+ * Moves in 4 directions, or in 8 if diagonal, never cutting the corner of somewhere the mob cannot stand.
+ */
+public class GridSearch extends CornerSearch {
+
+    /**
+     * Offsets to the 8 neighbouring corners: the 4 orthogonal ones first, then the diagonals.
+     */
+    private static final int[] DX = {0, 1, 0, -1, 1, 1, -1, -1};
+    private static final int[] DY = {1, 0, -1, 0, 1, -1, -1, 1};
+
+    /**
+     * The GridSearch belonging to each thread.
+     */
+    private static final ThreadLocal<GridSearch> searches = new ThreadLocal<>();
+
+    /**
+     * Whether to step diagonally.
+     */
+    private boolean diagonal = false;
+
+    /**
+     * Creates a GridSearch.
+     *
+     * @param width  the number of corners across the map
+     * @param height the number of corners up the map
+     */
+    public GridSearch(int width, int height) {
+        super(width, height);
+    }
+
+    /**
+     * Gets the GridSearch belonging to the current thread, making a new one if it does not have one for a map this size.
+     *
+     * @param width  the number of corners across the map
+     * @param height the number of corners up the map
+     * @return the GridSearch
+     */
+    public static GridSearch forThread(int width, int height) {
+        GridSearch search = searches.get();
+        if (search == null || search.width != width || search.height != height) {
+            search = new GridSearch(width, height);
+            searches.set(search);
+        }
+        return search;
+    }
+
+    /**
+     * @param diagonal whether to step diagonally as well as orthogonally
+     */
+    public void setDiagonal(boolean diagonal) {
+        this.diagonal = diagonal;
+    }
+
+    @Override
+    protected void expand(int node, int x, int y) {
+        for (int i = 0; i < (diagonal ? 8 : 4); i++) {
+            int nx = x + DX[i];
+            int ny = y + DY[i];
+            if (!walkable(nx, ny) || (i >= 4 && (!walkable(nx, y) || !walkable(x, ny)))) {
+                continue;
+            }
+            relax(ny * width + nx, node, cost[node] + (i >= 4 ? DIAGONAL_COST : 1));
+        }
+    }
+
+    @Override
+    protected float estimate(int dx, int dy) {
+        dx = Math.abs(dx);
+        dy = Math.abs(dy);
+        if (!diagonal) {
+            return dx + dy;
+        }
+        return Math.max(dx, dy) + (DIAGONAL_COST - 1) * Math.min(dx, dy);
+    }
+}
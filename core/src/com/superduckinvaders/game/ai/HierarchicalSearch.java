@@ -0,0 +1,351 @@
+package com.superduckinvaders.game.ai;
+
+import com.superduckinvaders.game.util.LineOfSight;
+import com.superduckinvaders.game.util.OccupancyGrid;
+
+import java.util.Arrays;
+
+/**
+ * Hierarchical pathfinding (HPA*) over a ChunkGraph.
+ * The start and goal are joined to the nodes of their chunks with searches that stay inside those chunks, then A* runs
+ * over the abstract graph, and only the first leg, from the start to the first node, is turned into corners.
+ * So the cost of a search depends on the number of nodes rather than the distance, and mobs can chase across the
+ * whole map. The path returned is that first leg, or the whole path if the goal is reached without leaving the chunk.
+ * Not thread-safe: use forThread to get the one belonging to the current thread.
+ */
+public class HierarchicalSearch implements PathResult {
+
+    /**
+     * How far from the goal, in corners, to look for a corner the mob can stand on if it cannot stand on the goal.
+     */
+    private static final int GOAL_SNAP_RADIUS = 2;
+
+    /**
+     * The HierarchicalSearch belonging to each thread.
+     */
+    private static final ThreadLocal<HierarchicalSearch> searches = new ThreadLocal<>();
+
+    /**
+     * The number of corners across and up the map.
+     */
+    private final int width, height;
+
+    /**
+     * Searches within a chunk.
+     */
+    private final JumpPointSearch localSearch;
+
+    /**
+     * Per node working arrays for the abstract search, grown when a graph has more nodes.
+     * The last two entries are the start and the goal.
+     */
+    private float[] cost = new float[0], heuristic = new float[0], estimate = new float[0];
+    private int[] parent = new int[0], reached = new int[0], closed = new int[0];
+    private NodeHeap open;
+    private int generation = 0;
+
+    /**
+     * The cost from the start to each node of its chunk, and from each node of the goal's chunk to the goal.
+     */
+    private float[] startCost = new float[0], goalCost = new float[0];
+
+    /**
+     * The abstract path found by the last search, from the goal back to the start.
+     */
+    private int[] chain = new int[0];
+
+    /**
+     * The first leg of the path found by the last search.
+     */
+    private final int[] path;
+    private int pathLength;
+
+    /**
+     * The estimated cost of the whole path found by the last search.
+     */
+    private float pathCost;
+
+    /**
+     * How many abstract nodes the last search expanded.
+     */
+    private int expanded;
+
+    /**
+     * Creates a HierarchicalSearch.
+     *
+     * @param width  the number of corners across the map
+     * @param height the number of corners up the map
+     */
+    public HierarchicalSearch(int width, int height) {
+        this.width = width;
+        this.height = height;
+        localSearch = new JumpPointSearch(width, height);
+        path = new int[width * height];
+    }
+
+    /**
+     * Gets the HierarchicalSearch belonging to the current thread, making a new one if it does not have one for a map
+     * this size.
+     *
+     * @param width  the number of corners across the map
+     * @param height the number of corners up the map
+     * @return the HierarchicalSearch
+     */
+    public static HierarchicalSearch forThread(int width, int height) {
+        HierarchicalSearch search = searches.get();
+        if (search == null || search.width != width || search.height != height) {
+            search = new HierarchicalSearch(width, height);
+            searches.set(search);
+        }
+        return search;
+    }
+
+    /**
+     * Searches for a path from the start to the goal.
+     *
+     * @param chunkGraph the chunk graph for the mob's size
+     * @param startX     the corner x to start from
+     * @param startY     the corner y to start from
+     * @param goalX      the corner x of the goal
+     * @param goalY      the corner y of the goal
+     * @return whether a path was found
+     */
+    public boolean search(ChunkGraph chunkGraph, int startX, int startY, int goalX, int goalY) {
+        ChunkGraph.Graph graph = chunkGraph.getGraph();
+        LineOfSight sight = chunkGraph.getLineOfSight();
+        OccupancyGrid.Clearance clearance = chunkGraph.getClearance();
+        pathLength = 0;
+        pathCost = 0;
+        expanded = 0;
+
+        if (startX < 0 || startY < 0 || startX >= width || startY >= height) {
+            return false;
+        }
+        if (!clearance.canStand(goalX, goalY)) {
+            int snapped = snapGoal(clearance, goalX, goalY);
+            if (snapped == -1) {
+                return false;
+            }
+            goalX = snapped % width;
+            goalY = snapped / width;
+        }
+
+        int startChunk = graph.chunkOf(startX, startY);
+        int goalChunk = graph.chunkOf(goalX, goalY);
+
+        if (startChunk == goalChunk) {
+            boundTo(graph, startChunk);
+            boolean found = localSearch.search(sight, clearance, startX, startY, goalX, goalY, Float.MAX_VALUE, false);
+            localSearch.clearBounds();
+            if (found) {
+                pathCost = localSearch.getPathCost();
+                copyPath();
+                return true;
+            }
+        }
+
+        int nodes = graph.nodeCorner.length;
+        ensureCapacity(nodes + 2);
+        int start = nodes, goal = nodes + 1;
+
+        // Join the start and goal to the nodes of their chunks.
+        boundTo(graph, startChunk);
+        for (int node = graph.chunkStart[startChunk]; node < graph.chunkStart[startChunk + 1]; node++) {
+            int corner = graph.nodeCorner[node];
+            startCost[node - graph.chunkStart[startChunk]] = localSearch.search(sight, clearance, startX, startY,
+                    corner % width, corner / width, Float.MAX_VALUE, false) ? localSearch.getPathCost() : ChunkGraph.NO_PATH;
+        }
+        boundTo(graph, goalChunk);
+        for (int node = graph.chunkStart[goalChunk]; node < graph.chunkStart[goalChunk + 1]; node++) {
+            int corner = graph.nodeCorner[node];
+            goalCost[node - graph.chunkStart[goalChunk]] = localSearch.search(sight, clearance, goalX, goalY,
+                    corner % width, corner / width, Float.MAX_VALUE, false) ? localSearch.getPathCost() : ChunkGraph.NO_PATH;
+        }
+        localSearch.clearBounds();
+
+        // A* over the abstract graph.
+        if (++generation == Integer.MAX_VALUE) {
+            Arrays.fill(reached, 0);
+            Arrays.fill(closed, 0);
+            generation = 1;
+        }
+        open.clear();
+        relax(graph, start, -1, 0, goalX, goalY);
+
+        while (!open.isEmpty()) {
+            int current = open.pop();
+            closed[current] = generation;
+            expanded++;
+
+            if (current == goal) {
+                pathCost = cost[goal];
+                return refineFirstLeg(graph, sight, clearance, start, goal, startX, startY, goalX, goalY);
+            }
+
+            if (current == start) {
+                for (int node = graph.chunkStart[startChunk]; node < graph.chunkStart[startChunk + 1]; node++) {
+                    float legCost = startCost[node - graph.chunkStart[startChunk]];
+                    if (legCost != ChunkGraph.NO_PATH) {
+                        relax(graph, node, start, legCost, goalX, goalY);
+                    }
+                }
+                continue;
+            }
+
+            for (int edge = graph.edgeStart[current]; edge < graph.edgeStart[current + 1]; edge++) {
+                relax(graph, graph.edgeTarget[edge], current, cost[current] + graph.edgeCost[edge], goalX, goalY);
+            }
+            if (current >= graph.chunkStart[goalChunk] && current < graph.chunkStart[goalChunk + 1]) {
+                float legCost = goalCost[current - graph.chunkStart[goalChunk]];
+                if (legCost != ChunkGraph.NO_PATH) {
+                    relax(graph, goal, current, cost[current] + legCost, goalX, goalY);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Turns the first leg of the abstract path that leaves the start corner into corners.
+     * Legs that go nowhere, because the start is on a node, are skipped.
+     */
+    private boolean refineFirstLeg(ChunkGraph.Graph graph, LineOfSight sight, OccupancyGrid.Clearance clearance,
+                                   int start, int goal, int startX, int startY, int goalX, int goalY) {
+        int chainLength = 0;
+        for (int node = goal; node != start; node = parent[node]) {
+            chain[chainLength++] = node;
+        }
+
+        int startCorner = startY * width + startX;
+        for (int i = chainLength - 1; i >= 0; i--) {
+            int node = chain[i];
+            int corner = node == goal ? goalY * width + goalX : graph.nodeCorner[node];
+            if (corner == startCorner) {
+                continue;
+            }
+
+            int x = corner % width, y = corner / width;
+            if (graph.chunkOf(x, y) != graph.chunkOf(startX, startY)) {
+                // Straight across an entrance.
+                path[0] = corner;
+                path[1] = startCorner;
+                pathLength = 2;
+                return true;
+            }
+            boundTo(graph, graph.chunkOf(x, y));
+            boolean found = localSearch.search(sight, clearance, startX, startY, x, y, Float.MAX_VALUE, false);
+            localSearch.clearBounds();
+            if (found) {
+                copyPath();
+            }
+            return found;
+        }
+
+        // Already at the goal.
+        path[0] = startCorner;
+        pathLength = 1;
+        return true;
+    }
+
+    /**
+     * Records that an abstract node can be reached for a cost, if that is the cheapest way found to it so far.
+     */
+    private void relax(ChunkGraph.Graph graph, int node, int from, float nodeCost, int goalX, int goalY) {
+        if (reached[node] != generation) {
+            reached[node] = generation;
+            cost[node] = nodeCost;
+            parent[node] = from;
+            if (node < graph.nodeCorner.length) {
+                int corner = graph.nodeCorner[node];
+                int dx = Math.abs(corner % width - goalX), dy = Math.abs(corner / width - goalY);
+                heuristic[node] = Math.max(dx, dy) + (CornerSearch.DIAGONAL_COST - 1) * Math.min(dx, dy);
+            } else {
+                heuristic[node] = 0;
+            }
+            estimate[node] = nodeCost + heuristic[node];
+            open.add(node);
+        } else if (closed[node] != generation && nodeCost < cost[node]) {
+            cost[node] = nodeCost;
+            parent[node] = from;
+            estimate[node] = nodeCost + heuristic[node];
+            open.decreased(node);
+        }
+    }
+
+    /**
+     * Finds the nearest corner to the goal that the mob can stand on.
+     *
+     * @return the corner index, or -1 if there is none nearby
+     */
+    private int snapGoal(OccupancyGrid.Clearance clearance, int goalX, int goalY) {
+        for (int radius = 1; radius <= GOAL_SNAP_RADIUS; radius++) {
+            for (int dx = -radius; dx <= radius; dx++) {
+                for (int dy = -radius; dy <= radius; dy++) {
+                    if (Math.max(Math.abs(dx), Math.abs(dy)) == radius && clearance.canStand(goalX + dx, goalY + dy)) {
+                        return (goalY + dy) * width + goalX + dx;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    private void boundTo(ChunkGraph.Graph graph, int chunk) {
+        int x0 = (chunk % graph.chunksX) * graph.chunkSize, y0 = (chunk / graph.chunksX) * graph.chunkSize;
+        localSearch.setBounds(x0, y0, x0 + graph.chunkSize - 1, y0 + graph.chunkSize - 1);
+    }
+
+    private void copyPath() {
+        pathLength = localSearch.getPathLength();
+        for (int i = 0; i < pathLength; i++) {
+            path[i] = localSearch.getPathY(i) * width + localSearch.getPathX(i);
+        }
+    }
+
+    private void ensureCapacity(int nodes) {
+        if (cost.length < nodes) {
+            cost = new float[nodes];
+            heuristic = new float[nodes];
+            estimate = new float[nodes];
+            parent = new int[nodes];
+            reached = new int[nodes];
+            closed = new int[nodes];
+            open = new NodeHeap(nodes, estimate, heuristic);
+            generation = 0;
+        }
+        if (startCost.length < nodes) {
+            startCost = new float[nodes];
+            goalCost = new float[nodes];
+            chain = new int[nodes];
+        }
+    }
+
+    @Override
+    public int getPathLength() {
+        return pathLength;
+    }
+
+    @Override
+    public int getPathX(int i) {
+        return path[i] % width;
+    }
+
+    @Override
+    public int getPathY(int i) {
+        return path[i] / width;
+    }
+
+    /**
+     * @return the estimated cost of the whole path found by the last search
+     */
+    public float getPathCost() {
+        return pathCost;
+    }
+
+    /**
+     * @return how many abstract nodes the last search expanded
+     */
+    public int getExpanded() {
+        return expanded;
+    }
+}
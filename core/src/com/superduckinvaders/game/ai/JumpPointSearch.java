@@ -0,0 +1,165 @@
+package com.superduckinvaders.game.ai;
+
+/**
+ * Jump Point Search over the tile corners a mob can stand on, moving in 8 directions.
+ * Finds the same length paths as an 8 direction GridSearch, but only puts corners where the path might turn on the
+ * heap, skipping along straight and diagonal runs in between.
+ * A diagonal step is only taken when both corners beside it can be stood on. As the corners a mob can stand on
+ * already account for its size, this stops mobs of any size from clipping a wall's corner.
+ */
+public class JumpPointSearch extends CornerSearch {
+
+    /**
+     * The JumpPointSearch belonging to each thread.
+     */
+    private static final ThreadLocal<JumpPointSearch> searches = new ThreadLocal<>();
+
+    /**
+     * Creates a JumpPointSearch.
+     *
+     * @param width  the number of corners across the map
+     * @param height the number of corners up the map
+     */
+    public JumpPointSearch(int width, int height) {
+        super(width, height);
+    }
+
+    /**
+     * Gets the JumpPointSearch belonging to the current thread, making a new one if it does not have one for a map
+     * this size.
+     *
+     * @param width  the number of corners across the map
+     * @param height the number of corners up the map
+     * @return the JumpPointSearch
+     */
+    public static JumpPointSearch forThread(int width, int height) {
+        JumpPointSearch search = searches.get();
+        if (search == null || search.width != width || search.height != height) {
+            search = new JumpPointSearch(width, height);
+            searches.set(search);
+        }
+        return search;
+    }
+
+    @Override
+    protected void expand(int node, int x, int y) {
+        if (parent[node] == -1) {
+            // The start, so try every direction.
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    if ((dx != 0 || dy != 0) && canStep(x, y, dx, dy)) {
+                        jumpFrom(node, x, y, dx, dy);
+                    }
+                }
+            }
+            return;
+        }
+
+        int dx = Integer.signum(x - parent[node] % width);
+        int dy = Integer.signum(y - parent[node] / width);
+
+        if (dx != 0 && dy != 0) {
+            boolean canX = walkable(x + dx, y), canY = walkable(x, y + dy);
+            if (canX) {
+                jumpFrom(node, x, y, dx, 0);
+            }
+            if (canY) {
+                jumpFrom(node, x, y, 0, dy);
+            }
+            if (canX && canY) {
+                jumpFrom(node, x, y, dx, dy);
+            }
+        } else {
+            // Going straight: carry on, and turn off to either side, going diagonally too if straight ahead is clear.
+            int sideX = dy, sideY = dx;
+            boolean ahead = walkable(x + dx, y + dy);
+            boolean left = walkable(x + sideX, y + sideY), right = walkable(x - sideX, y - sideY);
+            if (ahead) {
+                jumpFrom(node, x, y, dx, dy);
+                if (left) {
+                    jumpFrom(node, x, y, dx + sideX, dy + sideY);
+                }
+                if (right) {
+                    jumpFrom(node, x, y, dx - sideX, dy - sideY);
+                }
+            }
+            if (left) {
+                jumpFrom(node, x, y, sideX, sideY);
+            }
+            if (right) {
+                jumpFrom(node, x, y, -sideX, -sideY);
+            }
+        }
+    }
+
+    @Override
+    protected float estimate(int dx, int dy) {
+        dx = Math.abs(dx);
+        dy = Math.abs(dy);
+        return Math.max(dx, dy) + (DIAGONAL_COST - 1) * Math.min(dx, dy);
+    }
+
+    /**
+     * Jumps from a corner in a direction and, if that finds a jump point, reaches it.
+     */
+    private void jumpFrom(int node, int x, int y, int dx, int dy) {
+        int jumpPoint = dx != 0 && dy != 0 ? jumpDiagonal(x + dx, y + dy, dx, dy) : jumpStraight(x + dx, y + dy, dx, dy);
+        if (jumpPoint != -1) {
+            int steps = Math.max(Math.abs(jumpPoint % width - x), Math.abs(jumpPoint / width - y));
+            relax(jumpPoint, node, cost[node] + steps * (dx != 0 && dy != 0 ? DIAGONAL_COST : 1));
+        }
+    }
+
+    /**
+     * Gets whether the mob can step from a corner to a neighbouring one.
+     */
+    private boolean canStep(int x, int y, int dx, int dy) {
+        return walkable(x + dx, y + dy) && (dx == 0 || dy == 0 || (walkable(x + dx, y) && walkable(x, y + dy)));
+    }
+
+    /**
+     * Moves in a straight line from a corner until reaching the goal, a corner a wall ends beside, or a dead end.
+     *
+     * @return the corner reached, or -1 for a dead end
+     */
+    private int jumpStraight(int x, int y, int dx, int dy) {
+        int sideX = dy, sideY = dx;
+        while (walkable(x, y)) {
+            if (x == goalX && y == goalY) {
+                return y * width + x;
+            }
+            // A way opens up to one side that was blocked on the corner before.
+            if ((walkable(x + sideX, y + sideY) && !walkable(x - dx + sideX, y - dy + sideY))
+                    || (walkable(x - sideX, y - sideY) && !walkable(x - dx - sideX, y - dy - sideY))) {
+                return y * width + x;
+            }
+            x += dx;
+            y += dy;
+        }
+        return -1;
+    }
+
+    /**
+     * Moves diagonally from a corner until reaching the goal, a corner a straight jump from which finds a jump point,
+     * or a dead end.
+     *
+     * @return the corner reached, or -1 for a dead end
+     */
+    private int jumpDiagonal(int x, int y, int dx, int dy) {
+        while (walkable(x, y)) {
+            if (x == goalX && y == goalY) {
+                return y * width + x;
+            }
+            if ((walkable(x + dx, y) && jumpStraight(x + dx, y, dx, 0) != -1)
+                    || (walkable(x, y + dy) && jumpStraight(x, y + dy, 0, dy) != -1)) {
+                return y * width + x;
+            }
+            if (!walkable(x + dx, y) || !walkable(x, y + dy)) {
+                return -1;
+            }
+            x += dx;
+            y += dy;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,113 @@
+package com.superduckinvaders.game.ai;
+
+/**
+ * A binary heap of node indices for the searches, ordered by an estimate array owned by the search,
+ * with ties going to the node with the lower heuristic. Knows where every node is so that a node's estimate can be
+ * lowered in place.
+ */
+class NodeHeap {
+
+    /**
+     * The arrays the heap is ordered by, indexed by node.
+     */
+    private final float[] estimate, heuristic;
+
+    /**
+     * The nodes in heap order, and where in the heap each node is.
+     */
+    private final int[] heap, heapIndex;
+
+    private int size = 0;
+
+    /**
+     * Creates a NodeHeap.
+     *
+     * @param capacity  the number of nodes
+     * @param estimate  the estimated total cost of each node, lowest first
+     * @param heuristic the estimated cost to the goal of each node, to break ties
+     */
+    NodeHeap(int capacity, float[] estimate, float[] heuristic) {
+        this.estimate = estimate;
+        this.heuristic = heuristic;
+        heap = new int[capacity];
+        heapIndex = new int[capacity];
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds a node, which must not already be in the heap.
+     */
+    void add(int node) {
+        heap[size] = node;
+        heapIndex[node] = size;
+        siftUp(size++);
+    }
+
+    /**
+     * Moves a node up after its estimate has been lowered.
+     */
+    void decreased(int node) {
+        siftUp(heapIndex[node]);
+    }
+
+    /**
+     * Removes and returns the node with the lowest estimate.
+     */
+    int pop() {
+        int top = heap[0];
+        heap[0] = heap[--size];
+        heapIndex[heap[0]] = 0;
+        siftDown(0);
+        return top;
+    }
+
+    /**
+     * Whether node a should come out before node b.
+     */
+    private boolean before(int a, int b) {
+        return estimate[a] < estimate[b] || (estimate[a] == estimate[b] && heuristic[a] < heuristic[b]);
+    }
+
+    private void siftUp(int index) {
+        int node = heap[index];
+        while (index > 0) {
+            int parentIndex = (index - 1) / 2;
+            if (!before(node, heap[parentIndex])) {
+                break;
+            }
+            heap[index] = heap[parentIndex];
+            heapIndex[heap[index]] = index;
+            index = parentIndex;
+        }
+        heap[index] = node;
+        heapIndex[node] = index;
+    }
+
+    private void siftDown(int index) {
+        int node = heap[index];
+        while (true) {
+            int child = index * 2 + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && before(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!before(heap[child], node)) {
+                break;
+            }
+            heap[index] = heap[child];
+            heapIndex[heap[index]] = index;
+            index = child;
+        }
+        heap[index] = node;
+        heapIndex[node] = index;
+    }
+}
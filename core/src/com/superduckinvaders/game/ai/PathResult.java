@@ -0,0 +1,24 @@
+package com.superduckinvaders.game.ai;
+
+/**
+ * A path of tile corners found by a search, stored from its end back to its start.
+ */
+public interface PathResult {
+
+    /**
+     * @return the number of corners in the path, or 0 if nothing was found
+     */
+    int getPathLength();
+
+    /**
+     * @param i the index into the path, 0 being the end and getPathLength() - 1 the start
+     * @return the corner x
+     */
+    int getPathX(int i);
+
+    /**
+     * @param i the index into the path, 0 being the end and getPathLength() - 1 the start
+     * @return the corner y
+     */
+    int getPathY(int i);
+}
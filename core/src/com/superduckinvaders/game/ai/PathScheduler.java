@@ -0,0 +1,275 @@
+package com.superduckinvaders.game.ai;
+
+import com.badlogic.gdx.utils.TimeUtils;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Spreads path searches across frames so that lots of mobs replanning at once does not cause a frame time spike.
+ * AIs queue requests, and once a frame the queue is worked through in order until the time budget is used up.
+ * A mob whose request is still waiting keeps heading for its last target.
+ * <p>
+ * When asynchronous, the searches themselves run on a pool of worker threads shared by every PathScheduler, and
+ * their results are handed back on the game thread at the start of a later update.
+ */
+public class PathScheduler {
+
+    /**
+     * The default time budget per frame, in microseconds.
+     */
+    public static final int DEFAULT_BUDGET = 2000;
+
+    /**
+     * How many worker threads search for paths.
+     */
+    public static final int WORKER_COUNT = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+    /**
+     * How many searches each worker can have running or waiting at once. Keeping this low stops the workers from
+     * getting far behind, as requests left in the queue can still be dropped by their AI.
+     */
+    private static final int IN_FLIGHT_PER_WORKER = 4;
+
+    /**
+     * The worker threads, started the first time an asynchronous search is made.
+     */
+    private static ExecutorService workers;
+
+    /**
+     * Requests waiting to be processed, oldest first.
+     */
+    private final Queue<Request> queue = new ArrayDeque<>();
+
+    /**
+     * Requests the workers have finished searching for, waiting to be handed back on the game thread.
+     */
+    private final Queue<Request> finished = new ConcurrentLinkedQueue<>();
+
+    /**
+     * How long to spend processing requests each frame, in microseconds.
+     */
+    private int budget;
+
+    /**
+     * Whether searches run on the worker threads.
+     */
+    private boolean async;
+
+    /**
+     * How many requests are with the workers.
+     */
+    private int inFlight = 0;
+
+    /**
+     * How many requests were completed in the last frame.
+     */
+    private int processedLastFrame = 0;
+
+    /**
+     * How many requests have been completed, and how long they waited in total in nanoseconds, since the stats were reset.
+     */
+    private long processed = 0, totalWait = 0;
+
+    /**
+     * Initialises this PathScheduler.
+     *
+     * @param budget how long to spend processing requests each frame, in microseconds
+     * @param async  whether searches run on the worker threads
+     */
+    public PathScheduler(int budget, boolean async) {
+        this.budget = budget;
+        this.async = async;
+    }
+
+    /**
+     * Queues a request, unless it is already waiting for a result.
+     *
+     * @param request the request
+     */
+    public void request(Request request) {
+        if (!request.pending) {
+            request.pending = true;
+            request.queuedAt = TimeUtils.nanoTime();
+            queue.add(request);
+        }
+    }
+
+    /**
+     * Hands back the results of searches the workers have finished, then starts queued requests until this frame's
+     * budget runs out. At least one request is started every frame, so the queue always drains however small the
+     * budget is.
+     */
+    public void update() {
+        long start = TimeUtils.nanoTime();
+        long end = start + budget * 1000L;
+        processedLastFrame = 0;
+
+        Request done;
+        while ((done = finished.poll()) != null) {
+            inFlight--;
+            complete(done, start);
+        }
+
+        long now = start;
+        boolean started = false;
+        while (!queue.isEmpty() && (!started || now < end) && (!async || inFlight < WORKER_COUNT * IN_FLIGHT_PER_WORKER)) {
+            Request request = queue.poll();
+            started = true;
+
+            if (!request.prepare()) {
+                request.pending = false;
+            } else if (async) {
+                inFlight++;
+                getWorkers().execute(() -> {
+                    try {
+                        request.search();
+                    } finally {
+                        finished.add(request);
+                    }
+                });
+            } else {
+                request.search();
+                complete(request, TimeUtils.nanoTime());
+            }
+            now = TimeUtils.nanoTime();
+        }
+    }
+
+    /**
+     * Hands a request's result back to its AI.
+     *
+     * @param request the request
+     * @param now     the current time in nanoseconds
+     */
+    private void complete(Request request, long now) {
+        request.pending = false;
+        totalWait += now - request.queuedAt;
+        processed++;
+        processedLastFrame++;
+        request.apply();
+    }
+
+    /**
+     * @return the worker threads, starting them if need be
+     */
+    private static synchronized ExecutorService getWorkers() {
+        if (workers == null) {
+            workers = Executors.newFixedThreadPool(WORKER_COUNT, runnable -> {
+                Thread thread = new Thread(runnable, "Pathfinding");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return workers;
+    }
+
+    /**
+     * @return how long to spend processing requests each frame, in microseconds
+     */
+    public int getBudget() {
+        return budget;
+    }
+
+    /**
+     * @param budget how long to spend processing requests each frame, in microseconds
+     */
+    public void setBudget(int budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * @return whether searches run on the worker threads
+     */
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * @param async whether searches run on the worker threads. Searches already with the workers still finish.
+     */
+    public void setAsync(boolean async) {
+        this.async = async;
+    }
+
+    /**
+     * @return how many requests are waiting to be started
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * @return how many requests are with the worker threads
+     */
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return how many requests were completed in the last frame
+     */
+    public int getProcessedLastFrame() {
+        return processedLastFrame;
+    }
+
+    /**
+     * @return the average time from a request being queued to its result being handed back, in milliseconds
+     */
+    public float getAverageWait() {
+        return processed == 0 ? 0 : totalWait / 1e6f / processed;
+    }
+
+    /**
+     * Resets the average wait.
+     */
+    public void resetStats() {
+        processed = 0;
+        totalWait = 0;
+    }
+
+    /**
+     * A path search to be done by a PathScheduler when there is time for it.
+     * prepare and apply are called on the game thread. search may be called on a worker thread, so it must only use
+     * what prepare copied, and never the Box2D world or any entity.
+     */
+    public static abstract class Request {
+
+        /**
+         * Whether this Request is queued or being searched for.
+         */
+        private boolean pending = false;
+
+        /**
+         * When this Request was queued, in nanoseconds.
+         */
+        private long queuedAt;
+
+        /**
+         * @return whether this Request is waiting for a result
+         */
+        public boolean isPending() {
+            return pending;
+        }
+
+        /**
+         * Copies whatever the search needs.
+         *
+         * @return false to drop this Request without searching
+         */
+        protected abstract boolean prepare();
+
+        /**
+         * Does the search.
+         */
+        protected abstract void search();
+
+        /**
+         * Hands the result of the search back.
+         */
+        protected abstract void apply();
+    }
+}
@@ -3,13 +3,14 @@ package com.superduckinvaders.game.ai;
 
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
+import com.superduckinvaders.game.DuckGame;
 import com.superduckinvaders.game.Round;
 import com.superduckinvaders.game.entity.mob.Mob;
+import com.superduckinvaders.game.util.LineOfSight;
+import com.superduckinvaders.game.util.OccupancyGrid;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.PriorityQueue;
 import java.util.function.Function;
 
 /**
@@ -32,6 +33,18 @@ public class PathfindingAI extends AI {
      */
     public final static float PATHFINDING_RATE_OFFSET = (float) 0.05;
 
+    /**
+     * How close to the player a mob must be to look for a path, in pixels. Mobs that search hierarchically look from
+     * anywhere on the map.
+     */
+    public final static int CHASE_DISTANCE = 1280 / 4;
+
+    /**
+     * Maps with more tiles than this, more than any stock map has, are searched hierarchically by default, as a search
+     * limited to PATHFINDING_ITERATION_LIMIT cannot reach far across them.
+     */
+    public final static int HIERARCHICAL_MAP_TILES = 200 * 140;
+
     /**
      * Width of one tile in the map.
      */
@@ -63,7 +76,22 @@ public class PathfindingAI extends AI {
     public Coordinate target;
     public List<SearchNode> path_DEBUG;
 
-    protected Vector2 playerPos;
+    protected Vector2 playerPos = new Vector2();
+
+    /**
+     * The request this AI hands to the round's PathScheduler when it wants a new path.
+     */
+    private PathRequest pathRequest = new PathRequest();
+
+    /**
+     * Which search to find paths with.
+     */
+    private SearchType searchType;
+
+    /**
+     * Reused as the target so that replanning does not allocate.
+     */
+    private Coordinate targetCoordinate = new Coordinate(0, 0);
 
     /**
      * Initialises this PathfindingAI.
@@ -77,6 +105,26 @@ public class PathfindingAI extends AI {
         this.tileWidth = round.getTileWidth();
         this.tileHeight = round.getTileHeight();
         this.targetRange = targetRange;
+
+        // Stock maps keep the 4 direction A* mobs have always moved by. Jump points are opted into with setSearchType.
+        int tiles = (round.getMapWidth() / tileWidth) * (round.getMapHeight() / tileHeight);
+        this.searchType = tiles > HIERARCHICAL_MAP_TILES ? SearchType.HIERARCHICAL : SearchType.A_STAR;
+    }
+
+    /**
+     * Sets which search this PathfindingAI finds paths with, in place of the one chosen for the map's size.
+     *
+     * @param searchType the search
+     */
+    public void setSearchType(SearchType searchType) {
+        this.searchType = searchType;
+    }
+
+    /**
+     * @return which search this PathfindingAI finds paths with
+     */
+    public SearchType getSearchType() {
+        return searchType;
     }
 
     /**
@@ -87,16 +135,18 @@ public class PathfindingAI extends AI {
      */
     @Override
     public void update(Mob mob, float delta) {
-        playerPos = round.getPlayer().getCentre();
+        playerPos.set(round.getPlayer().getCentreX(), round.getPlayer().getCentreY());
 
         float distanceToPlayer = mob.distanceTo(playerPos);
-        float distanceToTargetTile = (target != null) ? mob.getCentre().sub(target.vector()).len() : 0f;
+        float distanceToTargetTile = (target != null) ? Vector2.dst(mob.getCentreX(), mob.getCentreY(), target.x, target.y) : 0f;
 
         currentOffset += delta;
-        if ((currentOffset >= deltaOffsetLimit || distanceToTargetTile < 2) && (int) distanceToPlayer < 1280 / 4) {
+        boolean inRange = searchType == SearchType.HIERARCHICAL || (int) distanceToPlayer < CHASE_DISTANCE;
+        if ((currentOffset >= deltaOffsetLimit || distanceToTargetTile < 2) && inRange) {
             deltaOffsetLimit = PATHFINDING_RATE + (MathUtils.random() % PATHFINDING_RATE_OFFSET);
             currentOffset = 0;
-            target = FindPath(mob);
+            pathRequest.mob = mob;
+            round.getPathScheduler().request(pathRequest);
         }
 
         if (target != null) {
@@ -105,98 +155,123 @@ public class PathfindingAI extends AI {
     }
 
     /**
-     * A variation of A* algorithm. Returns a meaningful target coordinate as a pair of integers.
-     * Recalculated every tick as player might move and change pathfinding coordinates.
-     *
-     * @param mob Mob that a path is being generated for
-     * @return Returns a Coordinate for the path finding
+     * Finds a new path for this AI once the PathScheduler gets round to it.
+     * The search itself may run on a worker thread, so it only uses the copies made in prepare and the line of sight service.
      */
-    private Coordinate FindPath(Mob mob) {
-        path_DEBUG = null;
-
-        Vector2 mobCentre = mob.getCentre();
-        Vector2 mobPos = mob.getPosition();
-        Vector2 mobSize = mob.getSize();
-        Vector2 halfSize = mobSize.cpy().scl(0.5f);
+    private class PathRequest extends PathScheduler.Request {
+        /**
+         * The Mob using this AI.
+         */
+        private Mob mob;
 
-        Coordinate startCoord = roundToTile(mobCentre);
-        Coordinate finalCoord = roundToTile(playerPos);
-        boolean finalFound = false;
+        /**
+         * Copies of what the search needs.
+         */
+        private LineOfSight sight;
+        private OccupancyGrid.Clearance clearance;
+        private SearchType searchType;
+        private ChunkGraph chunkGraph;
+        private final Vector2 mobCentre = new Vector2(), mobSize = new Vector2(), goal = new Vector2();
 
-        if (round.cornersCanSeeTarget(mobCentre, mobSize, playerPos)){
-            if (new Vector2(playerPos).sub(mobCentre).len() < targetRange){
-                return null;
-            }
-            else {
+        /**
+         * The result of the search: where to head for in pixels, if anywhere.
+         */
+        private boolean hasResult;
+        private int resultX, resultY;
+        private List<SearchNode> resultPath;
+        private boolean canSeePlayer;
 
-                currentOffset = deltaOffsetLimit;
-                return new Coordinate(playerPos);
+        @Override
+        protected boolean prepare() {
+            if (mob.isRemoved()) {
+                return false;
             }
+            sight = round.getLineOfSight();
+            mobCentre.set(mob.getCentreX(), mob.getCentreY());
+            mobSize.set(mob.getSize());
+            goal.set(round.getPlayer().getCentreX(), round.getPlayer().getCentreY());
+            clearance = round.getOccupancyGrid().getClearance(mobSize.x, mobSize.y);
+            searchType = PathfindingAI.this.searchType;
+            chunkGraph = searchType == SearchType.HIERARCHICAL ? round.getChunkGraph(mobSize.x, mobSize.y) : null;
+            return true;
         }
 
-        PriorityQueue<Coordinate> fringe = new PriorityQueue<>();
-        HashMap<Coordinate, SearchNode> visitedStates = new HashMap<>();
-        fringe.add(startCoord);
-        visitedStates.put(startCoord, new SearchNode(null, startCoord, 0));
-
-        while (!fringe.isEmpty()) {
-
-            Coordinate currentCoord = fringe.poll();
-            SearchNode currentState = visitedStates.get(currentCoord);
+        @Override
+        protected void search() {
+            resultPath = null;
+            canSeePlayer = false;
+            hasResult = FindPath();
+        }
 
-            if (currentState.iteration >= PATHFINDING_ITERATION_LIMIT) {
-                continue;
+        @Override
+        protected void apply() {
+            if (!mob.isRemoved()) {
+                target = hasResult ? targetCoordinate.set(resultX, resultY) : null;
+                path_DEBUG = resultPath;
+                if (canSeePlayer && hasResult) {
+                    // Heading straight for the player, so look again as soon as possible.
+                    currentOffset = deltaOffsetLimit;
+                }
             }
+        }
 
-//            if (currentCoord.inSameTile(finalCoord)) {
-            if (round.cornersCanSeeTarget(currentCoord.vector(), mobSize, finalCoord.vector())) {
-                finalCoord = currentCoord;
-                finalFound = true;
-                break;
+        /**
+         * Searches for the nearest tile corner that can see the player, then skips ahead along the path to the furthest
+         * corner the mob can move to in a straight line.
+         *
+         * @return whether there is somewhere to head for
+         */
+        private boolean FindPath() {
+            if (sight.canSee(mobCentre.x, mobCentre.y, mobSize.x, mobSize.y, goal.x, goal.y)) {
+                canSeePlayer = true;
+                if (mobCentre.dst(goal) < targetRange) {
+                    return false;
+                }
+                resultX = (int) goal.x;
+                resultY = (int) goal.y;
+                return true;
             }
 
-            //work out N, E, S, W permutations
-            Coordinate[] perm = {
-                    new Coordinate(currentCoord.x,             currentCoord.y + tileHeight),
-                    new Coordinate(currentCoord.x + tileWidth, currentCoord.y             ),
-                    new Coordinate(currentCoord.x,             currentCoord.y - tileHeight),
-                    new Coordinate(currentCoord.x - tileWidth, currentCoord.y             )
-            };
-
-            for (Coordinate currentPerm : perm) {
-//                if (!visitedStates.containsKey(currentPerm) && !round.collidePoint(currentPerm.vector())) {
-                if (!visitedStates.containsKey(currentPerm) && !round.collideArea(currentPerm.vector().sub(halfSize.cpy()), mobSize.cpy())) {
-                    fringe.add(currentPerm);
-                    visitedStates.put(currentPerm, new SearchNode(currentState, currentPerm, currentState.iteration + 1));
+            int startX = Math.round(mobCentre.x / tileWidth), startY = Math.round(mobCentre.y / tileHeight);
+            int goalX = Math.round(goal.x / tileWidth), goalY = Math.round(goal.y / tileHeight);
+            PathResult search;
+            if (searchType == SearchType.HIERARCHICAL) {
+                HierarchicalSearch hierarchicalSearch = HierarchicalSearch.forThread(clearance.getWidth(), clearance.getHeight());
+                if (!hierarchicalSearch.search(chunkGraph, startX, startY, goalX, goalY)) {
+                    return false;
+                }
+                search = hierarchicalSearch;
+            } else {
+                CornerSearch cornerSearch;
+                if (searchType == SearchType.JUMP_POINT) {
+                    cornerSearch = JumpPointSearch.forThread(clearance.getWidth(), clearance.getHeight());
+                } else {
+                    GridSearch gridSearch = GridSearch.forThread(clearance.getWidth(), clearance.getHeight());
+                    gridSearch.setDiagonal(false);
+                    cornerSearch = gridSearch;
+                }
+                if (!cornerSearch.search(sight, clearance, startX, startY, goalX, goalY, PATHFINDING_ITERATION_LIMIT, true)) {
+                    return false;
                 }
+                search = cornerSearch;
             }
-        }
 
-        if (!finalFound) {
-            return null;
-        } else {
-            SearchNode resultNode;
-            List<SearchNode> path = new ArrayList<>();
-            path.add(visitedStates.get(finalCoord));
-            while (path.get(path.size() - 1) != visitedStates.get(startCoord)) {
-                SearchNode pred = path.get(path.size() - 1).predecessor;
-                if (pred == null){
-                    break;
-                }
-                path.add(pred);
+            int index = search.getPathLength() - 1;
+            while (index > 0 && sight.pathIsClear(mobCentre.x, mobCentre.y, mobSize.x, mobSize.y,
+                    search.getPathX(index - 1) * tileWidth, search.getPathY(index - 1) * tileHeight)) {
+                index--;
             }
-            int index = path.size()-1;
-            while (index > 0) {
-                SearchNode tempNode = path.get(index-1);
-                if(!round.pathIsClear(mobCentre, mobSize, tempNode.coord.vector())){
-                    break;
+            resultX = search.getPathX(index) * tileWidth;
+            resultY = search.getPathY(index) * tileHeight;
+
+            if (DuckGame.DEBUGGING) {
+                resultPath = new ArrayList<>();
+                for (int i = 0; i < search.getPathLength(); i++) {
+                    Coordinate coord = new Coordinate(search.getPathX(i) * tileWidth, search.getPathY(i) * tileHeight);
+                    resultPath.add(new SearchNode(null, coord, search.getPathLength() - 1 - i));
                 }
-                index--;
             }
-            resultNode = path.get(index);
-            path_DEBUG=path;
-
-            return resultNode.coord;
+            return true;
         }
     }
 
@@ -224,6 +299,25 @@ public class PathfindingAI extends AI {
         return new Coordinate(nx, ny);
     }
 
+    /**
+     * The searches a PathfindingAI can find paths with.
+     */
+    public enum SearchType {
+        /**
+         * A* stepping to the 4 orthogonal neighbouring corners.
+         */
+        A_STAR,
+        /**
+         * Jump Point Search moving in 8 directions.
+         */
+        JUMP_POINT,
+        /**
+         * Hierarchical search over the round's chunk graph, with no depth limit, so the player can be chased from
+         * anywhere on the map.
+         */
+        HIERARCHICAL
+    }
+
     /**
      * Represents a pair of coordinates.
      */
@@ -258,6 +352,19 @@ public class PathfindingAI extends AI {
             this.y = y;
         }
 
+        /**
+         * Moves this Coordinate.
+         *
+         * @param x the x position.
+         * @param y the y position.
+         * @return this Coordinate
+         */
+        public Coordinate set(int x, int y) {
+            this.x = x;
+            this.y = y;
+            return this;
+        }
+
         /**
          * Compares this Coordinate to another Coordinate.
          *
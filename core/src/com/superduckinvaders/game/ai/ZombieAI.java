@@ -8,7 +8,7 @@ import com.superduckinvaders.game.entity.Player;
 /**
  * Created by james on 10/03/16.
  */
-public class ZombieAI extends PathfindingAI {
+public class ZombieAI extends FlowFieldAI {
 
     public ZombieAI(Round round) {
             super(round, 0);
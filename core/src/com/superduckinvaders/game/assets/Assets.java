@@ -7,6 +7,7 @@ import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Animation;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.maps.tiled.TiledMap;
 import com.badlogic.gdx.maps.tiled.TmxMapLoader;
@@ -17,6 +18,17 @@ import com.badlogic.gdx.utils.Array;
  */
 public class Assets {
 
+    /**
+     * Where the atlas made by "gradle desktop:packTextures" is, relative to the assets directory.
+     */
+    private static final String ATLAS_PATH = "packed/game.atlas";
+
+    /**
+     * The sprites and UI images packed into one texture, so drawing them does not switch textures. Null if the
+     * textures have not been packed, in which case each image is loaded as its own texture.
+     */
+    public static TextureAtlas atlas;
+
     /**
      * Title screen animation.
      */
@@ -27,7 +39,11 @@ public class Assets {
      */
     public static TextureSet playerNormal, playerFlying, playerSwimming, playerMelee;
     public static TextureRegion minimapHead;
-    public static Texture minimapRadius;
+
+    /**
+     * The patch of fog the player clears around them on the minimap, kept as pixels for the minimap to read.
+     */
+    public static Pixmap minimapRadius;
 
     /**
      *  Bad guy texture sets.
@@ -37,7 +53,7 @@ public class Assets {
     /**
      * Shadow for the boss
      */
-    public static Texture bossShadow = loadTexture("textures/boss/boss_shadow.png");
+    public static TextureRegion bossShadow;
 
     /**
      *  Texture for Projectile.
@@ -118,22 +134,22 @@ public class Assets {
     /**
      * Shadow for mobs.
      */
-    public static Texture mobShadow;
+    public static TextureRegion mobShadow;
 
     /**
      * Player mobShadow.
      */
-    public static Texture playerShadow;
+    public static TextureRegion playerShadow;
 
     /**
      * 'ROUND' text for beginning of round.
      */
-    public static Texture roundText;
+    public static TextureRegion roundText;
 
     /**
      * Number to be used at the beginning of round.
      */
-    public static Texture[] roundNums;
+    public static TextureRegion[] roundNums;
 
     /**
      * Background
@@ -155,6 +171,10 @@ public class Assets {
      * Loads all assets.
      */
     public static void load() {
+        if (Gdx.files.internal(ATLAS_PATH).exists()) {
+            atlas = new TextureAtlas(Gdx.files.internal(ATLAS_PATH));
+        }
+
         loadPlayerTextureSets();
         loadBadGuyTextureSet();
         loadFloorItems();
@@ -175,7 +195,7 @@ public class Assets {
 
         bg = new Texture("textures/bg_starfield_xl.jpg");
 
-        projectile = new TextureRegion(loadTexture("textures/projectile2.png"));
+        projectile = loadRegion("textures/projectile2.png");
 
         explosionAnimation = loadAnimation("textures/explosion.png", 2, 16, 0.15f);
 
@@ -187,44 +207,45 @@ public class Assets {
 
         font = loadFont("font/gamefont2.fnt");
 
-        Texture hearts = loadTexture("textures/hearts.png");
+        TextureRegion hearts = loadRegion("textures/hearts.png");
         heartFull = new TextureRegion(hearts, 0, 0, 32, 28);
         heartHalf = new TextureRegion(hearts, 32, 0, 32, 28);
         heartEmpty = new TextureRegion(hearts, 64, 0, 32, 28);
 
-        Texture stamina = loadTexture("textures/stamina.png");
+        TextureRegion stamina = loadRegion("textures/stamina.png");
         staminaFull = new TextureRegion(stamina, 0, 0, 192, 28);
         staminaEmpty = new TextureRegion(stamina, 0, 28, 192, 28);
 
-        Texture powerup = loadTexture("textures/powerup.png");
+        TextureRegion powerup = loadRegion("textures/powerup.png");
         powerupFull = new TextureRegion(powerup, 0, 0, 192, 28);
         powerupEmpty = new TextureRegion(powerup, 0, 28, 192, 28);
 
-        Texture small_powerup = loadTexture("textures/small_powerup.png");
+        TextureRegion small_powerup = loadRegion("textures/small_powerup.png");
         small_powerupFull = new TextureRegion(small_powerup, 0, 0, 96, 14);
         small_powerupEmpty = new TextureRegion(small_powerup, 0, 14, 96, 14);
 
-        Texture health = loadTexture("textures/health_bar.png");
+        TextureRegion health = loadRegion("textures/health_bar.png");
         healthFull = new TextureRegion(health, 0, 0, 100, 14);
         healthEmpty = new TextureRegion(health, 0, 14, 100, 14);
 
 
-        button = new TextureRegion(loadTexture("textures/button.png"));
-        button_hover = new TextureRegion(loadTexture("textures/button_pressed.png"));
+        button = loadRegion("textures/button.png");
+        button_hover = loadRegion("textures/button_pressed.png");
 
-        flag = new TextureRegion(loadTexture("textures/flag.png"));
-        logo = new TextureRegion(loadTexture("textures/logo.png"));
+        flag = loadRegion("textures/flag.png");
+        logo = loadRegion("textures/logo.png");
 
         cursor = new Pixmap(Gdx.files.internal("textures/cursor_crosshair.png"));
 
-        mobShadow = new Texture("textures/mobShadow.png");
-        playerShadow = new Texture("textures/playerShadow.png");
+        mobShadow = loadRegion("textures/mobShadow.png");
+        playerShadow = loadRegion("textures/playerShadow.png");
+        bossShadow = loadRegion("textures/boss/boss_shadow.png");
 
-        roundText = new Texture("RoundFonts/Round.png");
+        roundText = loadRegion("RoundFonts/Round.png");
 
-        roundNums = new Texture[10];
+        roundNums = new TextureRegion[10];
         for (int x=0;x<10;x++) {
-            roundNums[x] = new Texture("RoundFonts/"+x+".png");
+            roundNums[x] = loadRegion("RoundFonts/"+x+".png");
         }
 
         //flatCrawl = new TextureRegion(loadTexture("textures/flat_crawl.png"));
@@ -236,10 +257,10 @@ public class Assets {
      */
     private static void loadPlayerTextureSets() {
 
-        minimapHead = new TextureRegion(loadTexture("textures/minimap_head.png"));
-        minimapRadius = loadTexture("textures/minimap_radius.png");
+        minimapHead = loadRegion("textures/minimap_head.png");
+        minimapRadius = new Pixmap(Gdx.files.internal("textures/minimap_radius.png"));
         // Load idle texture map.
-        Texture playerIdle = loadTexture("textures/player_walking/player_idle.png");
+        TextureRegion playerIdle = loadRegion("textures/player_walking/player_idle.png");
 
         // Cut idle textures from texture map.
         TextureRegion front = new TextureRegion(playerIdle, 0, 0, 32, 64);
@@ -252,7 +273,7 @@ public class Assets {
         TextureRegion frontRight = new TextureRegion(playerIdle, 224, 0, 32, 64);
 
         // Load idle swimming texture map.
-        Texture playerIdleSwim = loadTexture("textures/player_swimming/player_idle_swimming.png");
+        TextureRegion playerIdleSwim = loadRegion("textures/player_swimming/player_idle_swimming.png");
 
         // Cut idle swimming textures from texture map.
         TextureRegion frontSwim = new TextureRegion(playerIdleSwim, 0, 0, 32, 64);
@@ -277,7 +298,7 @@ public class Assets {
 
 
         // Load flying textures
-        Texture flying = loadTexture("textures/player_flying/player_flying.png");
+        TextureRegion flying = loadRegion("textures/player_flying/player_flying.png");
         TextureRegion flyingRight = new TextureRegion(flying, 0, 0, 64, 64);
         TextureRegion flyingLeft = new TextureRegion(flying, 64, 0, 64, 64);
 
@@ -321,7 +342,7 @@ public class Assets {
      */
     private static void loadBadGuyTextureSet() {
         // Melee Enemy
-        Texture badGuyIdle = loadTexture("textures/stormtrooper_enemy/badguy_idle.png");
+        TextureRegion badGuyIdle = loadRegion("textures/stormtrooper_enemy/badguy_idle.png");
 
         // Cut idle textures from texture map.
         TextureRegion front = new TextureRegion(badGuyIdle, 0, 0, 21, 24);
@@ -338,7 +359,7 @@ public class Assets {
         badGuyNormal = new TextureSet(front, back, left, right, walkingFront, walkingBack, walkingLeft, walkingRight);
 
         //Melee Swimming
-        Texture badGuyIdleSwim = loadTexture("textures/stormtrooper_enemy/badguy_idle_swimming.png");
+        TextureRegion badGuyIdleSwim = loadRegion("textures/stormtrooper_enemy/badguy_idle_swimming.png");
 
         // Cut idle textures from texture map.
         TextureRegion frontSwim = new TextureRegion(badGuyIdleSwim, 0, 0, 32, 22);
@@ -356,7 +377,7 @@ public class Assets {
 
 
         // Ranged enemy
-        Texture rangedBadGuyIdle = loadTexture("textures/squirrel_enemy/badguy_idle.png");
+        TextureRegion rangedBadGuyIdle = loadRegion("textures/squirrel_enemy/badguy_idle.png");
 
         // Cut idle textures from texture map.
         TextureRegion rangedfront = new TextureRegion(rangedBadGuyIdle, 0, 0, 32, 64);
@@ -373,7 +394,7 @@ public class Assets {
         rangedBadGuy = new TextureSet(rangedfront, rangedback, rangedleft, rangedright, rangedWalkingFront, rangedWalkingBack, rangedWalkingLeft, rangedWalkingRight);
 
         //Ranged Swimming
-        Texture rangedBadGuyIdleSwim = loadTexture("textures/squirrel_enemy/badguy_idle_swim.png");
+        TextureRegion rangedBadGuyIdleSwim = loadRegion("textures/squirrel_enemy/badguy_idle_swim.png");
 
         // Cut idle textures from texture map.
         TextureRegion rangedfrontSwim = new TextureRegion(rangedBadGuyIdleSwim, 0, 0, 21, 24);
@@ -389,7 +410,7 @@ public class Assets {
 
         rangedBadGuySwimming = new TextureSet(rangedfrontSwim, rangedbackSwim, rangedleftSwim, rangedrightSwim, rangedWalkingFrontSwim, rangedWalkingBackSwim, rangedWalkingLeftSwim, rangedWalkingRightSwim);
 
-        Texture boss = loadTexture("textures/boss/boss.png");
+        TextureRegion boss = loadRegion("textures/boss/boss.png");
 
         TextureRegion boss2 = new TextureRegion(boss,0,0,60,69);
         Animation boss3 = loadAnimation("textures/boss/boss.png", 1, 60, 0);
@@ -402,7 +423,7 @@ public class Assets {
      * Loads the texture from the floor items file.
      */
     public static void loadFloorItems() {
-        Texture floorItems = loadTexture("textures/floor_items.png");
+        TextureRegion floorItems = loadRegion("textures/floor_items.png");
 
         floorItemGun = new TextureRegion(floorItems, 0, 0, 15, 15);
         floorItemSpeed = new TextureRegion(floorItems, 15, 0, 15, 15);
@@ -421,6 +442,22 @@ public class Assets {
         return new Texture(Gdx.files.internal(file));
     }
 
+    /**
+     * Gets the image from the specified file, from the atlas if it has been packed into it.
+     *
+     * @param file the file to load from, which is also the name of the image in the atlas without its extension
+     * @return the region of the atlas holding the image, or the whole of a texture loaded from the file
+     */
+    public static TextureRegion loadRegion(String file) {
+        if (atlas != null) {
+            TextureRegion region = atlas.findRegion(file.substring(0, file.lastIndexOf('.')));
+            if (region != null) {
+                return region;
+            }
+        }
+        return new TextureRegion(loadTexture(file));
+    }
+
     /**
      * Loads the tile map for a particular level.
      *
@@ -440,11 +477,11 @@ public class Assets {
      * @return the animation
      */
     public static Animation loadAnimation(String file, int count, int frameWidth, float frameDuration) {
-        Texture texture = loadTexture(file);
+        TextureRegion region = loadRegion(file);
         Array<TextureRegion> keyFrames = new Array<TextureRegion>();
 
         for (int i = 0; i < count; i++) {
-            keyFrames.add(new TextureRegion(texture, i * frameWidth, 0, frameWidth, texture.getHeight()));
+            keyFrames.add(new TextureRegion(region, i * frameWidth, 0, frameWidth, region.getRegionHeight()));
         }
 
         return new Animation(frameDuration, keyFrames);
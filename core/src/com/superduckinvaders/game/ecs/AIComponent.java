@@ -0,0 +1,21 @@
+package com.superduckinvaders.game.ecs;
+
+import com.badlogic.ashley.core.Component;
+import com.badlogic.gdx.utils.Pool;
+import com.superduckinvaders.game.entity.mob.Mob;
+
+/**
+ * Marks an entity as being moved by an AI, and as giving the player score when killed.
+ */
+public class AIComponent implements Component, Pool.Poolable {
+
+    /**
+     * The mob, which holds its AI and its score.
+     */
+    public Mob mob;
+
+    @Override
+    public void reset() {
+        mob = null;
+    }
+}
@@ -0,0 +1,60 @@
+package com.superduckinvaders.game.ecs;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.EntitySystem;
+import com.badlogic.ashley.utils.ImmutableArray;
+import com.badlogic.gdx.utils.Array;
+import com.superduckinvaders.game.entity.mob.Mob;
+
+/**
+ * Runs the AI of every mob the ActivitySystem says is updated on this step, by the time since the mob was last
+ * updated, before the entities are updated.
+ */
+public class AISystem extends EntitySystem {
+
+    /**
+     * Says which entities are updated on this step.
+     */
+    private final ActivitySystem activitySystem;
+
+    /**
+     * Every mob.
+     */
+    private ImmutableArray<com.badlogic.ashley.core.Entity> mobs;
+
+    /**
+     * Creates an AISystem.
+     *
+     * @param activitySystem the system that says which mobs are updated on each step
+     */
+    public AISystem(ActivitySystem activitySystem) {
+        this.activitySystem = activitySystem;
+    }
+
+    @Override
+    public void addedToEngine(Engine engine) {
+        mobs = engine.getEntitiesFor(Mappers.MOBS);
+    }
+
+    /**
+     * @return every mob in the engine
+     */
+    public ImmutableArray<com.badlogic.ashley.core.Entity> getMobs() {
+        return mobs;
+    }
+
+    @Override
+    public void update(float delta) {
+        Array<com.badlogic.ashley.core.Entity> running = activitySystem.getRunning();
+        for (int i = 0; i < running.size; i++) {
+            AIComponent ai = Mappers.AI.get(running.get(i));
+            if (ai == null) {
+                continue;
+            }
+            Mob mob = ai.mob;
+            if (!mob.isRemoved()) {
+                mob.getAI().update(mob, Mappers.ACTIVITY.get(running.get(i)).stepDelta);
+            }
+        }
+    }
+}
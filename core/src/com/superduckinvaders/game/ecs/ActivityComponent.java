@@ -0,0 +1,83 @@
+package com.superduckinvaders.game.ecs;
+
+import com.badlogic.ashley.core.Component;
+import com.badlogic.gdx.utils.Pool;
+
+/**
+ * How often an entity is updated, by how near it is to the player, as decided by the ActivitySystem.
+ */
+public class ActivityComponent implements Component, Pool.Poolable {
+
+    /**
+     * How often an entity is updated.
+     */
+    public enum Tier {
+        /**
+         * Updated on every step.
+         */
+        ACTIVE,
+        /**
+         * Updated on one step in every few, by the time since it was last updated.
+         */
+        COARSE,
+        /**
+         * Not updated, with its body made inactive if it can sleep.
+         */
+        DORMANT
+    }
+
+    /**
+     * The entity's tier.
+     */
+    public Tier tier = Tier.ACTIVE;
+
+    /**
+     * Whether the entity's body can be made inactive while it is dormant. Projectiles keep flying instead.
+     */
+    public boolean canSleep = true;
+
+    /**
+     * Whether the entity can go dormant. Particles only go away once their update finds they have run out of time, so
+     * they are kept coarse at worst instead.
+     */
+    public boolean canDoze = true;
+
+    /**
+     * Whether the entity's body has been made inactive, so it is neither stepped nor moved.
+     */
+    public boolean sleeping = false;
+
+    /**
+     * Which of the coarse steps the entity is updated on, so coarse entities do not all update on the same step.
+     */
+    public int phase = 0;
+
+    /**
+     * How long to update the entity by on this step, or 0 if it is not updated on this step.
+     */
+    public float stepDelta = 0;
+
+    /**
+     * Time that has passed since a coarse entity was last updated.
+     */
+    public float pendingDelta = 0;
+
+    /**
+     * Where the entity is in the ActivitySystem's list of entities that are not dormant, or -1, and the last tier
+     * check that found it near the player.
+     */
+    int awakeIndex = -1;
+    int lastSeen = 0;
+
+    @Override
+    public void reset() {
+        tier = Tier.ACTIVE;
+        canSleep = true;
+        canDoze = true;
+        sleeping = false;
+        phase = 0;
+        stepDelta = pendingDelta = 0;
+        awakeIndex = -1;
+        lastSeen = 0;
+    }
+}
@@ -0,0 +1,257 @@
+package com.superduckinvaders.game.ecs;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.EntityListener;
+import com.badlogic.ashley.core.EntitySystem;
+import com.badlogic.gdx.utils.Array;
+import com.superduckinvaders.game.Round;
+import com.superduckinvaders.game.entity.Entity;
+import com.superduckinvaders.game.entity.Player;
+import com.superduckinvaders.game.util.SpatialHash;
+
+/**
+ * Sorts entities into tiers by how near they are to the player, and works out which are updated on each step and by
+ * how much. Entities within the update distance of the player are active. Entities within COARSE_SCALE times that
+ * are coarse, and updated every COARSE_INTERVAL steps. Entities further away are dormant: they are not updated, and
+ * their bodies are made inactive so Box2D skips them.
+ * An entity moves up a tier as soon as it is inside the smaller area, but only moves down once it is TIER_MARGIN
+ * outside it, so entities on the edge do not change tier back and forth. Entities that cannot doze, such as particles,
+ * stay coarse however far away they are, so they still run out of time and go.
+ * Entities are found through the spatial hash, so dormant entities far from the player cost nothing.
+ */
+public class ActivitySystem extends EntitySystem implements EntityListener {
+
+    /**
+     * How many times the update distance from the player coarse entities can be.
+     */
+    public static final float COARSE_SCALE = 2;
+
+    /**
+     * How many steps coarse entities wait between updates.
+     */
+    public static final int COARSE_INTERVAL = 8;
+
+    /**
+     * How far outside a tier's area an entity must be before it moves down a tier, in pixels.
+     */
+    public static final float TIER_MARGIN = 128;
+
+    /**
+     * The round, for finding the player and the spatial hash.
+     */
+    private final Round round;
+
+    /**
+     * Every entity that is not dormant, in no particular order.
+     */
+    private final Array<com.badlogic.ashley.core.Entity> awake = new Array<>(false, 64);
+
+    /**
+     * The entities updated on this step.
+     */
+    private final Array<com.badlogic.ashley.core.Entity> running = new Array<>(false, 64);
+
+    /**
+     * Counts steps, for coarse updates, and tier checks, for finding entities that were not found near the player.
+     */
+    private int step = 0, check = 0;
+
+    /**
+     * Spreads the coarse entities over the steps between updates.
+     */
+    private int nextPhase = 0;
+
+    /**
+     * The player's centre on this tier check.
+     */
+    private float playerX, playerY;
+
+    /**
+     * Moves each entity found near the player into the tier for where it is.
+     */
+    private final SpatialHash.Visitor<Entity> checkTier = entity -> {
+        com.badlogic.ashley.core.Entity ecsEntity = entity.getEcsEntity();
+        if (ecsEntity == null) {
+            return;
+        }
+        ActivityComponent activity = Mappers.ACTIVITY.get(ecsEntity);
+        activity.lastSeen = check;
+        setTier(ecsEntity, activity, chooseTier(activity.tier, Mappers.TRANSFORM.get(ecsEntity)));
+    };
+
+    /**
+     * Creates an ActivitySystem.
+     *
+     * @param round the round the entities are in
+     */
+    public ActivitySystem(Round round) {
+        this.round = round;
+    }
+
+    @Override
+    public void addedToEngine(Engine engine) {
+        for (com.badlogic.ashley.core.Entity ecsEntity : engine.getEntitiesFor(Mappers.TIERED)) {
+            entityAdded(ecsEntity);
+        }
+        engine.addEntityListener(Mappers.TIERED, this);
+    }
+
+    @Override
+    public void removedFromEngine(Engine engine) {
+        engine.removeEntityListener(this);
+        awake.clear();
+        running.clear();
+    }
+
+    /**
+     * Starts new entities off active, until the next tier check.
+     */
+    @Override
+    public void entityAdded(com.badlogic.ashley.core.Entity ecsEntity) {
+        ActivityComponent activity = Mappers.ACTIVITY.get(ecsEntity);
+        activity.tier = ActivityComponent.Tier.ACTIVE;
+        activity.phase = nextPhase++ % COARSE_INTERVAL;
+        addAwake(ecsEntity, activity);
+    }
+
+    @Override
+    public void entityRemoved(com.badlogic.ashley.core.Entity ecsEntity) {
+        ActivityComponent activity = Mappers.ACTIVITY.get(ecsEntity);
+        if (activity.awakeIndex >= 0) {
+            removeAwake(activity);
+        }
+    }
+
+    /**
+     * Gets the entities updated on this step. The list is only good until the entities are removed at the end of the
+     * step.
+     * @return the entities, each to be updated by its ActivityComponent's stepDelta
+     */
+    public Array<com.badlogic.ashley.core.Entity> getRunning() {
+        return running;
+    }
+
+    /**
+     * @return how many entities are not dormant
+     */
+    public int getAwakeCount() {
+        return awake.size;
+    }
+
+    @Override
+    public void update(float delta) {
+        Player player = round.getPlayer();
+        playerX = player.getCentreX();
+        playerY = player.getCentreY();
+        check++;
+        step++;
+
+        float reachX = Round.UPDATE_DISTANCE_X * COARSE_SCALE + TIER_MARGIN;
+        float reachY = Round.UPDATE_DISTANCE_Y * COARSE_SCALE + TIER_MARGIN;
+        round.getSpatialHash().queryRect(playerX - reachX, playerY - reachY, playerX + reachX, playerY + reachY, checkTier);
+
+        // Anything awake that was not found is too far away, unless it has been removed and is about to go.
+        for (int i = awake.size - 1; i >= 0; i--) {
+            com.badlogic.ashley.core.Entity ecsEntity = awake.get(i);
+            ActivityComponent activity = Mappers.ACTIVITY.get(ecsEntity);
+            if (activity.lastSeen != check && !Mappers.ENTITY.get(ecsEntity).entity.isRemoved()) {
+                setTier(ecsEntity, activity, ActivityComponent.Tier.DORMANT);
+            }
+        }
+
+        running.clear();
+        for (int i = 0; i < awake.size; i++) {
+            com.badlogic.ashley.core.Entity ecsEntity = awake.get(i);
+            ActivityComponent activity = Mappers.ACTIVITY.get(ecsEntity);
+            activity.pendingDelta += delta;
+            if (activity.tier == ActivityComponent.Tier.ACTIVE || (step + activity.phase) % COARSE_INTERVAL == 0) {
+                activity.stepDelta = activity.pendingDelta;
+                activity.pendingDelta = 0;
+                running.add(ecsEntity);
+            } else {
+                activity.stepDelta = 0;
+            }
+            AIComponent ai = Mappers.AI.get(ecsEntity);
+            if (ai != null) {
+                ai.mob.setStepDelta(activity.stepDelta);
+            }
+        }
+    }
+
+    /**
+     * Works out which tier an entity should be in.
+     *
+     * @param current   the entity's tier now
+     * @param transform where the entity is
+     * @return the tier it should be in
+     */
+    private ActivityComponent.Tier chooseTier(ActivityComponent.Tier current, TransformComponent transform) {
+        float activeMargin = current == ActivityComponent.Tier.ACTIVE ? TIER_MARGIN : 0;
+        if (isWithin(transform, Round.UPDATE_DISTANCE_X + activeMargin, Round.UPDATE_DISTANCE_Y + activeMargin)) {
+            return ActivityComponent.Tier.ACTIVE;
+        }
+        float coarseMargin = current != ActivityComponent.Tier.DORMANT ? TIER_MARGIN : 0;
+        if (isWithin(transform, Round.UPDATE_DISTANCE_X * COARSE_SCALE + coarseMargin,
+                Round.UPDATE_DISTANCE_Y * COARSE_SCALE + coarseMargin)) {
+            return ActivityComponent.Tier.COARSE;
+        }
+        return ActivityComponent.Tier.DORMANT;
+    }
+
+    /**
+     * @return whether an entity's bounds overlap the area around the player of the given half width and half height
+     */
+    private boolean isWithin(TransformComponent transform, float halfWidth, float halfHeight) {
+        return transform.x <= playerX + halfWidth && transform.x + transform.width >= playerX - halfWidth
+                && transform.y <= playerY + halfHeight && transform.y + transform.height >= playerY - halfHeight;
+    }
+
+    /**
+     * Moves an entity into a tier, waking it or putting it to sleep if it is moving out of or into dormancy.
+     */
+    private void setTier(com.badlogic.ashley.core.Entity ecsEntity, ActivityComponent activity, ActivityComponent.Tier tier) {
+        if (tier == ActivityComponent.Tier.DORMANT && !activity.canDoze) {
+            tier = ActivityComponent.Tier.COARSE;
+        }
+        if (tier == activity.tier) {
+            return;
+        }
+        BodyComponent body = Mappers.BODY.get(ecsEntity);
+        if (tier == ActivityComponent.Tier.DORMANT) {
+            removeAwake(activity);
+            activity.stepDelta = activity.pendingDelta = 0;
+            AIComponent ai = Mappers.AI.get(ecsEntity);
+            if (ai != null) {
+                ai.mob.setStepDelta(0);
+            }
+            if (activity.canSleep && body != null) {
+                body.physics.body.setActive(false);
+                activity.sleeping = true;
+            }
+        } else if (activity.tier == ActivityComponent.Tier.DORMANT) {
+            addAwake(ecsEntity, activity);
+            if (activity.sleeping) {
+                body.physics.body.setActive(true);
+                activity.sleeping = false;
+            }
+        }
+        activity.tier = tier;
+    }
+
+    private void addAwake(com.badlogic.ashley.core.Entity ecsEntity, ActivityComponent activity) {
+        activity.awakeIndex = awake.size;
+        awake.add(ecsEntity);
+    }
+
+    /**
+     * Takes an entity out of the awake list by moving the last entity into its place.
+     */
+    private void removeAwake(ActivityComponent activity) {
+        int index = activity.awakeIndex;
+        awake.removeIndex(index);
+        if (index < awake.size) {
+            Mappers.ACTIVITY.get(awake.get(index)).awakeIndex = index;
+        }
+        activity.awakeIndex = -1;
+    }
+}
@@ -0,0 +1,21 @@
+package com.superduckinvaders.game.ecs;
+
+import com.badlogic.ashley.core.Component;
+import com.badlogic.gdx.utils.Pool;
+import com.superduckinvaders.game.entity.PhysicsEntity;
+
+/**
+ * Marks an entity as having a Box2D body, which is moved by the world step.
+ */
+public class BodyComponent implements Component, Pool.Poolable {
+
+    /**
+     * The entity that owns the body and keeps its snapshot.
+     */
+    public PhysicsEntity physics;
+
+    @Override
+    public void reset() {
+        physics = null;
+    }
+}
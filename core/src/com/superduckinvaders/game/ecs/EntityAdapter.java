@@ -0,0 +1,107 @@
+package com.superduckinvaders.game.ecs;
+
+import com.badlogic.ashley.core.PooledEngine;
+import com.superduckinvaders.game.Round;
+import com.superduckinvaders.game.entity.Character;
+import com.superduckinvaders.game.entity.Entity;
+import com.superduckinvaders.game.entity.Particle;
+import com.superduckinvaders.game.entity.PhysicsEntity;
+import com.superduckinvaders.game.entity.Projectile;
+import com.superduckinvaders.game.entity.mob.Mob;
+
+/**
+ * Puts the game's entities into a Round's engine, each as an Ashley entity with the components its class calls for.
+ * This is the only place the class of an entity is looked at: the systems find what they need by component.
+ * Ashley entities and components come from the engine's pools, so entities that come and go, such as projectiles
+ * and particles, make no garbage here.
+ */
+public class EntityAdapter {
+
+    /**
+     * The round the entities are in.
+     */
+    private final Round round;
+
+    /**
+     * The engine to add entities to.
+     */
+    private final PooledEngine engine;
+
+    /**
+     * Creates an EntityAdapter.
+     *
+     * @param round  the round the entities are in
+     * @param engine the round's engine
+     */
+    public EntityAdapter(Round round, PooledEngine engine) {
+        this.round = round;
+        this.engine = engine;
+    }
+
+    /**
+     * Adds a game entity to the engine.
+     *
+     * @param entity the entity to add
+     * @return the Ashley entity standing for it
+     */
+    public com.badlogic.ashley.core.Entity add(Entity entity) {
+        com.badlogic.ashley.core.Entity ecsEntity = engine.createEntity();
+
+        EntityComponent link = engine.createComponent(EntityComponent.class);
+        link.entity = entity;
+        ecsEntity.add(link);
+
+        TransformComponent transform = engine.createComponent(TransformComponent.class);
+        TransformSystem.copy(entity, transform);
+        ecsEntity.add(transform);
+
+        ecsEntity.add(engine.createComponent(RenderComponent.class));
+
+        ActivityComponent activity = engine.createComponent(ActivityComponent.class);
+        // Projectiles fly out of range quickly and are pooled by their bodies being inactive, so leave those alone.
+        activity.canSleep = !(entity instanceof Projectile);
+        activity.canDoze = !(entity instanceof Particle);
+        ecsEntity.add(activity);
+
+        if (entity instanceof PhysicsEntity) {
+            BodyComponent body = engine.createComponent(BodyComponent.class);
+            body.physics = (PhysicsEntity) entity;
+            ecsEntity.add(body);
+        }
+        if (entity instanceof Character) {
+            Character character = (Character) entity;
+            HealthComponent health = engine.createComponent(HealthComponent.class);
+            health.character = character;
+            ecsEntity.add(health);
+
+            WaterComponent water = engine.createComponent(WaterComponent.class);
+            water.onWater = round.isWater(transform.x, transform.y, transform.width, transform.height);
+            ecsEntity.add(water);
+            character.setWaterComponent(water);
+        }
+        if (entity instanceof Mob) {
+            AIComponent ai = engine.createComponent(AIComponent.class);
+            ai.mob = (Mob) entity;
+            ecsEntity.add(ai);
+        }
+
+        entity.setEcsEntity(ecsEntity);
+        engine.addEntity(ecsEntity);
+        return ecsEntity;
+    }
+
+    /**
+     * Removes an entity from the engine, returning its components to the pools.
+     *
+     * @param ecsEntity the Ashley entity to remove
+     */
+    public void remove(com.badlogic.ashley.core.Entity ecsEntity) {
+        HealthComponent health = Mappers.HEALTH.get(ecsEntity);
+        if (health != null) {
+            // The component is about to be reused, so the character must stop reading it.
+            health.character.setWaterComponent(null);
+        }
+        Mappers.ENTITY.get(ecsEntity).entity.setEcsEntity(null);
+        engine.removeEntity(ecsEntity);
+    }
+}
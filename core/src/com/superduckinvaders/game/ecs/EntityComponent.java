@@ -0,0 +1,21 @@
+package com.superduckinvaders.game.ecs;
+
+import com.badlogic.ashley.core.Component;
+import com.badlogic.gdx.utils.Pool;
+import com.superduckinvaders.game.entity.Entity;
+
+/**
+ * Links an Ashley entity to the game entity it stands for, while the game's entities are moved over to components.
+ */
+public class EntityComponent implements Component, Pool.Poolable {
+
+    /**
+     * The game entity, which still updates and renders itself.
+     */
+    public Entity entity;
+
+    @Override
+    public void reset() {
+        entity = null;
+    }
+}
@@ -0,0 +1,21 @@
+package com.superduckinvaders.game.ecs;
+
+import com.badlogic.ashley.core.Component;
+import com.badlogic.gdx.utils.Pool;
+import com.superduckinvaders.game.entity.Character;
+
+/**
+ * Marks an entity as having health, so it can be damaged and can die.
+ */
+public class HealthComponent implements Component, Pool.Poolable {
+
+    /**
+     * The character whose health this is. The health itself is still kept by the Character.
+     */
+    public Character character;
+
+    @Override
+    public void reset() {
+        character = null;
+    }
+}
@@ -0,0 +1,36 @@
+package com.superduckinvaders.game.ecs;
+
+import com.badlogic.ashley.core.ComponentMapper;
+import com.badlogic.ashley.core.Family;
+
+/**
+ * The component mappers and families shared by the systems, made once as Ashley recommends.
+ */
+public final class Mappers {
+
+    /**
+     * Gets each type of component from an entity without a map lookup.
+     */
+    public static final ComponentMapper<EntityComponent> ENTITY = ComponentMapper.getFor(EntityComponent.class);
+    public static final ComponentMapper<TransformComponent> TRANSFORM = ComponentMapper.getFor(TransformComponent.class);
+    public static final ComponentMapper<BodyComponent> BODY = ComponentMapper.getFor(BodyComponent.class);
+    public static final ComponentMapper<HealthComponent> HEALTH = ComponentMapper.getFor(HealthComponent.class);
+    public static final ComponentMapper<AIComponent> AI = ComponentMapper.getFor(AIComponent.class);
+    public static final ComponentMapper<RenderComponent> RENDER = ComponentMapper.getFor(RenderComponent.class);
+    public static final ComponentMapper<WaterComponent> WATER = ComponentMapper.getFor(WaterComponent.class);
+    public static final ComponentMapper<ActivityComponent> ACTIVITY = ComponentMapper.getFor(ActivityComponent.class);
+
+    /**
+     * Every entity, every entity with a body, every mob, every entity that is drawn, every entity that swims and every
+     * entity put into tiers by distance from the player.
+     */
+    public static final Family ENTITIES = Family.all(EntityComponent.class, TransformComponent.class).get();
+    public static final Family BODIES = Family.all(EntityComponent.class, BodyComponent.class).get();
+    public static final Family MOBS = Family.all(EntityComponent.class, TransformComponent.class, AIComponent.class).get();
+    public static final Family RENDERED = Family.all(EntityComponent.class, RenderComponent.class).get();
+    public static final Family SWIMMERS = Family.all(TransformComponent.class, WaterComponent.class).get();
+    public static final Family TIERED = Family.all(EntityComponent.class, TransformComponent.class, ActivityComponent.class).get();
+
+    private Mappers() {
+    }
+}
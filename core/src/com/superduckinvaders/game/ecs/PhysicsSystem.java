@@ -0,0 +1,60 @@
+package com.superduckinvaders.game.ecs;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.EntitySystem;
+import com.badlogic.ashley.utils.ImmutableArray;
+import com.badlogic.gdx.physics.box2d.World;
+
+/**
+ * Steps the Box2D world, remembering where each body was before the step and taking a snapshot of each body after it.
+ * Bodies put to sleep by the ActivitySystem do not move, so they are skipped.
+ */
+public class PhysicsSystem extends EntitySystem {
+
+    /**
+     * The world the bodies are in.
+     */
+    private final World world;
+
+    /**
+     * Every entity with a body.
+     */
+    private ImmutableArray<com.badlogic.ashley.core.Entity> bodies;
+
+    /**
+     * Creates a PhysicsSystem.
+     *
+     * @param world the world to step
+     */
+    public PhysicsSystem(World world) {
+        this.world = world;
+    }
+
+    @Override
+    public void addedToEngine(Engine engine) {
+        bodies = engine.getEntitiesFor(Mappers.BODIES);
+    }
+
+    @Override
+    public void update(float delta) {
+        for (int i = 0; i < bodies.size(); i++) {
+            if (!isSleeping(bodies.get(i))) {
+                Mappers.BODY.get(bodies.get(i)).physics.savePreviousPosition();
+            }
+        }
+        world.step(delta, 6, 2);
+        for (int i = 0; i < bodies.size(); i++) {
+            if (!isSleeping(bodies.get(i))) {
+                Mappers.BODY.get(bodies.get(i)).physics.updateSnapshot();
+            }
+        }
+    }
+
+    /**
+     * @return whether an entity's body has been made inactive by the ActivitySystem
+     */
+    static boolean isSleeping(com.badlogic.ashley.core.Entity ecsEntity) {
+        ActivityComponent activity = Mappers.ACTIVITY.get(ecsEntity);
+        return activity != null && activity.sleeping;
+    }
+}
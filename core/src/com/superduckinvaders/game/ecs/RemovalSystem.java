@@ -0,0 +1,76 @@
+package com.superduckinvaders.game.ecs;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.EntitySystem;
+import com.badlogic.ashley.utils.ImmutableArray;
+import com.superduckinvaders.game.Round;
+import com.superduckinvaders.game.entity.Entity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Takes removed entities out of the round and the engine, giving the player the score for mobs that died.
+ */
+public class RemovalSystem extends EntitySystem {
+
+    /**
+     * The round the entities are in.
+     */
+    private final Round round;
+
+    /**
+     * Puts entities into the engine and takes them out again.
+     */
+    private final EntityAdapter adapter;
+
+    /**
+     * Every entity in the engine.
+     */
+    private ImmutableArray<com.badlogic.ashley.core.Entity> entities;
+
+    /**
+     * The entities found removed on this step, collected first as the engine can not be changed while going through it.
+     */
+    private final List<com.badlogic.ashley.core.Entity> removed = new ArrayList<>();
+
+    /**
+     * Creates a RemovalSystem.
+     *
+     * @param round   the round the entities are in
+     * @param adapter the adapter that put the entities into the engine
+     */
+    public RemovalSystem(Round round, EntityAdapter adapter) {
+        this.round = round;
+        this.adapter = adapter;
+    }
+
+    @Override
+    public void addedToEngine(Engine engine) {
+        entities = engine.getEntitiesFor(Mappers.ENTITIES);
+    }
+
+    @Override
+    public void update(float delta) {
+        for (int i = 0; i < entities.size(); i++) {
+            if (Mappers.ENTITY.get(entities.get(i)).entity.isRemoved()) {
+                removed.add(entities.get(i));
+            }
+        }
+        if (removed.isEmpty()) {
+            return;
+        }
+
+        for (com.badlogic.ashley.core.Entity ecsEntity : removed) {
+            Entity entity = Mappers.ENTITY.get(ecsEntity).entity;
+            AIComponent ai = Mappers.AI.get(ecsEntity);
+            if (ai != null && ai.mob.isDead()) {
+                round.addKillScore(ai.mob);
+            }
+            entity.dispose();
+            adapter.remove(ecsEntity);
+        }
+        removed.clear();
+        round.getEntities().removeIf(Entity::isRemoved);
+    }
+}
@@ -0,0 +1,32 @@
+package com.superduckinvaders.game.ecs;
+
+import com.badlogic.ashley.core.Component;
+import com.badlogic.gdx.utils.Pool;
+
+/**
+ * Marks an entity as drawn by the RenderSystem.
+ */
+public class RenderComponent implements Component, Pool.Poolable {
+
+    /**
+     * Whether to draw the entity in the pass with the demented shader, as demented mobs are, rather than the main pass.
+     */
+    public boolean shaded = false;
+
+    /**
+     * The last frame the entity was found on screen, as counted by the RenderSystem.
+     */
+    int visibleFrame = -1;
+
+    /**
+     * Where the entity is in the RenderSystem's draw order, so it can be removed without searching for it.
+     */
+    int drawIndex = -1;
+
+    @Override
+    public void reset() {
+        shaded = false;
+        visibleFrame = -1;
+        drawIndex = -1;
+    }
+}
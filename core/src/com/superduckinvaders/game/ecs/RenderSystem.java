@@ -0,0 +1,187 @@
+package com.superduckinvaders.game.ecs;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.EntityListener;
+import com.badlogic.ashley.core.EntitySystem;
+import com.badlogic.ashley.utils.ImmutableArray;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.superduckinvaders.game.entity.Entity;
+import com.superduckinvaders.game.util.RenderOrder;
+import com.superduckinvaders.game.util.SpatialHash;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps every drawn entity in render order and draws the ones on screen. Updated once a frame, after the simulation
+ * steps, then culled to the camera before drawing.
+ */
+public class RenderSystem extends EntitySystem implements EntityListener {
+
+    /**
+     * The entities to draw, in render order. Each one's RenderComponent.drawIndex says where it is.
+     */
+    private final List<com.badlogic.ashley.core.Entity> drawOrder = new ArrayList<>();
+
+    /**
+     * Keeps drawOrder sorted by y from frame to frame.
+     */
+    private final RenderOrder<com.badlogic.ashley.core.Entity> renderOrder =
+            new RenderOrder<>(ecsEntity -> Mappers.ENTITY.get(ecsEntity).entity.getY());
+
+    /**
+     * The entities found on screen by the last cull, in render order.
+     */
+    private final List<com.badlogic.ashley.core.Entity> visible = new ArrayList<>();
+
+    /**
+     * Every mob, to see which are demented.
+     */
+    private ImmutableArray<com.badlogic.ashley.core.Entity> mobs;
+
+    /**
+     * The hash to find the entities on screen with.
+     */
+    private final SpatialHash<Entity> spatialHash;
+
+    /**
+     * Counts culls, to mark the entities each one finds without clearing the marks of the last.
+     */
+    private int frame = 0;
+
+    /**
+     * Marks an entity the spatial hash finds on screen. Made once, so it makes no garbage.
+     */
+    private final SpatialHash.Visitor<Entity> markVisible = entity -> {
+        com.badlogic.ashley.core.Entity ecsEntity = entity.getEcsEntity();
+        RenderComponent render = ecsEntity == null ? null : Mappers.RENDER.get(ecsEntity);
+        if (render != null && !entity.isRemoved()) {
+            render.visibleFrame = frame;
+        }
+    };
+
+    /**
+     * Creates a RenderSystem.
+     *
+     * @param spatialHash the hash to find the entities on screen with
+     */
+    public RenderSystem(SpatialHash<Entity> spatialHash) {
+        this.spatialHash = spatialHash;
+    }
+
+    @Override
+    public void addedToEngine(Engine engine) {
+        mobs = engine.getEntitiesFor(Mappers.MOBS);
+        for (com.badlogic.ashley.core.Entity ecsEntity : engine.getEntitiesFor(Mappers.RENDERED)) {
+            entityAdded(ecsEntity);
+        }
+        engine.addEntityListener(Mappers.RENDERED, this);
+    }
+
+    @Override
+    public void removedFromEngine(Engine engine) {
+        engine.removeEntityListener(this);
+        drawOrder.clear();
+        visible.clear();
+    }
+
+    @Override
+    public void entityAdded(com.badlogic.ashley.core.Entity ecsEntity) {
+        Mappers.RENDER.get(ecsEntity).drawIndex = drawOrder.size();
+        drawOrder.add(ecsEntity);
+    }
+
+    /**
+     * Removes an entity by moving the last entity into its place, rather than shifting every entity after it down. The
+     * moved entity is put back in order by the next sort, and the visible list is only searched if the entity was on
+     * screen.
+     */
+    @Override
+    public void entityRemoved(com.badlogic.ashley.core.Entity ecsEntity) {
+        RenderComponent render = Mappers.RENDER.get(ecsEntity);
+        if (render == null) {
+            // The RenderComponent itself was taken off, so there is no index to go by.
+            drawOrder.remove(ecsEntity);
+            visible.remove(ecsEntity);
+            return;
+        }
+
+        com.badlogic.ashley.core.Entity last = drawOrder.remove(drawOrder.size() - 1);
+        if (last != ecsEntity) {
+            drawOrder.set(render.drawIndex, last);
+            Mappers.RENDER.get(last).drawIndex = render.drawIndex;
+        }
+        render.drawIndex = -1;
+
+        if (render.visibleFrame == frame) {
+            visible.remove(ecsEntity);
+        }
+    }
+
+    @Override
+    public void update(float delta) {
+        for (int i = 0; i < mobs.size(); i++) {
+            Mappers.RENDER.get(mobs.get(i)).shaded = Mappers.AI.get(mobs.get(i)).mob.isDemented();
+        }
+        renderOrder.sort(drawOrder);
+        for (int i = 0; i < drawOrder.size(); i++) {
+            Mappers.RENDER.get(drawOrder.get(i)).drawIndex = i;
+        }
+    }
+
+    /**
+     * Finds the entities on screen, through the spatial hash, for the passes drawn this frame. Entities keep their
+     * render order.
+     *
+     * @param x      the x coordinate of the bottom left corner of the screen in the world
+     * @param y      the y coordinate of the bottom left corner of the screen in the world
+     * @param width  the width of the screen in the world
+     * @param height the height of the screen in the world
+     */
+    public void cull(float x, float y, float width, float height) {
+        frame++;
+        spatialHash.queryRect(x, y, x + width, y + height, markVisible);
+
+        visible.clear();
+        for (com.badlogic.ashley.core.Entity ecsEntity : drawOrder) {
+            if (Mappers.RENDER.get(ecsEntity).visibleFrame == frame) {
+                visible.add(ecsEntity);
+            }
+        }
+    }
+
+    /**
+     * Draws the entities of one pass that the last cull found on screen, in render order.
+     *
+     * @param spriteBatch the sprite batch on which to render
+     * @param shaded      true to draw the entities drawn with the demented shader, false to draw the rest
+     */
+    public void render(SpriteBatch spriteBatch, boolean shaded) {
+        for (com.badlogic.ashley.core.Entity ecsEntity : visible) {
+            if (Mappers.RENDER.get(ecsEntity).shaded == shaded) {
+                Mappers.ENTITY.get(ecsEntity).entity.render(spriteBatch);
+            }
+        }
+    }
+
+    /**
+     * @return the entities the last cull found on screen, in render order
+     */
+    public List<com.badlogic.ashley.core.Entity> getVisible() {
+        return visible;
+    }
+
+    /**
+     * @return how many entities are drawn
+     */
+    public int getCount() {
+        return drawOrder.size();
+    }
+
+    /**
+     * @return how many entities the last cull found on screen
+     */
+    public int getVisibleCount() {
+        return visible.size();
+    }
+}
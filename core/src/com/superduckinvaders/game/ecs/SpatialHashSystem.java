@@ -0,0 +1,50 @@
+package com.superduckinvaders.game.ecs;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.EntitySystem;
+import com.badlogic.ashley.utils.ImmutableArray;
+import com.superduckinvaders.game.entity.Entity;
+import com.superduckinvaders.game.util.SpatialHash;
+
+/**
+ * Fills the spatial hash again with every entity that has not been removed, from its transform.
+ */
+public class SpatialHashSystem extends EntitySystem {
+
+    /**
+     * The hash to fill.
+     */
+    private final SpatialHash<Entity> spatialHash;
+
+    /**
+     * Every entity in the engine.
+     */
+    private ImmutableArray<com.badlogic.ashley.core.Entity> entities;
+
+    /**
+     * Creates a SpatialHashSystem.
+     *
+     * @param spatialHash the hash to fill
+     */
+    public SpatialHashSystem(SpatialHash<Entity> spatialHash) {
+        this.spatialHash = spatialHash;
+    }
+
+    @Override
+    public void addedToEngine(Engine engine) {
+        entities = engine.getEntitiesFor(Mappers.ENTITIES);
+    }
+
+    @Override
+    public void update(float delta) {
+        spatialHash.clear();
+        for (int i = 0; i < entities.size(); i++) {
+            com.badlogic.ashley.core.Entity ecsEntity = entities.get(i);
+            Entity entity = Mappers.ENTITY.get(ecsEntity).entity;
+            if (!entity.isRemoved()) {
+                TransformComponent transform = Mappers.TRANSFORM.get(ecsEntity);
+                spatialHash.insert(entity, transform.x, transform.y, transform.width, transform.height);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.superduckinvaders.game.ecs;
+
+import com.badlogic.ashley.core.Component;
+import com.badlogic.gdx.utils.Pool;
+
+/**
+ * Where an entity is, as of the last simulation step.
+ */
+public class TransformComponent implements Component, Pool.Poolable {
+
+    /**
+     * The bottom left corner of the entity, in pixels.
+     */
+    public float x, y;
+
+    /**
+     * The size of the entity, in pixels.
+     */
+    public float width, height;
+
+    /**
+     * @return the x coordinate of the centre of the entity
+     */
+    public float getCentreX() {
+        return x + width / 2f;
+    }
+
+    /**
+     * @return the y coordinate of the centre of the entity
+     */
+    public float getCentreY() {
+        return y + height / 2f;
+    }
+
+    @Override
+    public void reset() {
+        x = y = width = height = 0;
+    }
+}
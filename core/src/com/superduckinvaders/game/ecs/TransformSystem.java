@@ -0,0 +1,47 @@
+package com.superduckinvaders.game.ecs;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.EntitySystem;
+import com.badlogic.ashley.utils.ImmutableArray;
+import com.superduckinvaders.game.entity.Entity;
+
+/**
+ * Copies where each entity is into its TransformComponent after the world step, so the systems after it read plain
+ * fields rather than asking each entity. Entities whose bodies are asleep have not moved, so they are skipped.
+ */
+public class TransformSystem extends EntitySystem {
+
+    /**
+     * Every entity in the engine.
+     */
+    private ImmutableArray<com.badlogic.ashley.core.Entity> entities;
+
+    @Override
+    public void addedToEngine(Engine engine) {
+        entities = engine.getEntitiesFor(Mappers.ENTITIES);
+    }
+
+    @Override
+    public void update(float delta) {
+        for (int i = 0; i < entities.size(); i++) {
+            com.badlogic.ashley.core.Entity ecsEntity = entities.get(i);
+            if (PhysicsSystem.isSleeping(ecsEntity)) {
+                continue;
+            }
+            copy(Mappers.ENTITY.get(ecsEntity).entity, Mappers.TRANSFORM.get(ecsEntity));
+        }
+    }
+
+    /**
+     * Copies where an entity is into a transform.
+     *
+     * @param entity    the entity
+     * @param transform the transform to copy into
+     */
+    static void copy(Entity entity, TransformComponent transform) {
+        transform.x = entity.getX();
+        transform.y = entity.getY();
+        transform.width = entity.getWidth();
+        transform.height = entity.getHeight();
+    }
+}
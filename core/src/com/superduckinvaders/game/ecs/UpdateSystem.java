@@ -0,0 +1,38 @@
+package com.superduckinvaders.game.ecs;
+
+import com.badlogic.ashley.core.EntitySystem;
+import com.badlogic.gdx.utils.Array;
+import com.superduckinvaders.game.entity.Entity;
+
+/**
+ * Updates the entities the ActivitySystem says are updated on this step, each by the time since it was last updated.
+ * Dormant entities are left as they are.
+ */
+public class UpdateSystem extends EntitySystem {
+
+    /**
+     * Says which entities are updated on this step.
+     */
+    private final ActivitySystem activitySystem;
+
+    /**
+     * Creates an UpdateSystem.
+     *
+     * @param activitySystem the system that says which entities are updated on each step
+     */
+    public UpdateSystem(ActivitySystem activitySystem) {
+        this.activitySystem = activitySystem;
+    }
+
+    @Override
+    public void update(float delta) {
+        Array<com.badlogic.ashley.core.Entity> running = activitySystem.getRunning();
+        for (int i = 0; i < running.size; i++) {
+            com.badlogic.ashley.core.Entity ecsEntity = running.get(i);
+            Entity entity = Mappers.ENTITY.get(ecsEntity).entity;
+            if (!entity.isRemoved()) {
+                entity.update(Mappers.ACTIVITY.get(ecsEntity).stepDelta);
+            }
+        }
+    }
+}
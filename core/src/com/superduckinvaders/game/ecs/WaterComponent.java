@@ -0,0 +1,20 @@
+package com.superduckinvaders.game.ecs;
+
+import com.badlogic.ashley.core.Component;
+import com.badlogic.gdx.utils.Pool;
+
+/**
+ * Whether an entity is on water, for entities that swim.
+ */
+public class WaterComponent implements Component, Pool.Poolable {
+
+    /**
+     * Whether any tile the entity's footprint overlaps was water after the last simulation step.
+     */
+    public boolean onWater = false;
+
+    @Override
+    public void reset() {
+        onWater = false;
+    }
+}
@@ -0,0 +1,44 @@
+package com.superduckinvaders.game.ecs;
+
+import com.badlogic.ashley.core.Engine;
+import com.badlogic.ashley.core.EntitySystem;
+import com.badlogic.ashley.utils.ImmutableArray;
+import com.superduckinvaders.game.Round;
+
+/**
+ * Works out once a step whether each entity that swims is on water, rather than every time it is asked.
+ */
+public class WaterSystem extends EntitySystem {
+
+    /**
+     * The round, whose map says which tiles are water.
+     */
+    private final Round round;
+
+    /**
+     * Every entity that swims.
+     */
+    private ImmutableArray<com.badlogic.ashley.core.Entity> swimmers;
+
+    /**
+     * Creates a WaterSystem.
+     *
+     * @param round the round the entities are in
+     */
+    public WaterSystem(Round round) {
+        this.round = round;
+    }
+
+    @Override
+    public void addedToEngine(Engine engine) {
+        swimmers = engine.getEntitiesFor(Mappers.SWIMMERS);
+    }
+
+    @Override
+    public void update(float delta) {
+        for (int i = 0; i < swimmers.size(); i++) {
+            TransformComponent transform = Mappers.TRANSFORM.get(swimmers.get(i));
+            Mappers.WATER.get(swimmers.get(i)).onWater = round.isWater(transform.x, transform.y, transform.width, transform.height);
+        }
+    }
+}
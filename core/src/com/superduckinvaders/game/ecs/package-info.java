@@ -0,0 +1,5 @@
+/**
+ * Contains the Ashley components and systems that run a Round's entities, and the adapter that puts the existing
+ * entity classes into them.
+ */
+package com.superduckinvaders.game.ecs;
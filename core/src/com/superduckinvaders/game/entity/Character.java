@@ -4,7 +4,9 @@ import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.*;
 import com.superduckinvaders.game.Round;
 import com.superduckinvaders.game.assets.TextureSet;
+import com.superduckinvaders.game.ecs.WaterComponent;
 import com.superduckinvaders.game.entity.item.PowerupManager;
+import com.superduckinvaders.game.util.SpatialHash;
 
 import java.util.ArrayList;
 
@@ -13,138 +15,187 @@ import java.util.ArrayList;
  */
 public abstract class Character extends PhysicsEntity {
 
-    /**
-     * The direction the Character is facing.
-     */
-    protected TextureSet.Facing facing = TextureSet.Facing.FRONT;
-
     /**
      * Determines whether a character should collide with objects.
      */
     protected boolean shouldCheckCollision = true;
 
-    /**
-     * The state time for the animation. Set to 0 for not moving.
-     */
-    protected float stateTime = 0;
-
-    /**
-     * Current health and the maximum health of this Character.
-     */
-    protected int maximumHealth, currentHealth;
-
     protected float MELEE_ATTACK_COOLDOWN = 1f;
     protected float RANGED_ATTACK_COOLDOWN = 1f;
 
     protected float PROJECTILE_SPEED = 300;
     protected int RANGED_DAMAGE = 1;
 
-    protected float rangedAttackTimer = 0f;
-    protected float meleeAttackTimer = 0f;
-
 
     protected short enemyBits = 0;
+
+    /**
+     * How far this Character can reach with a melee attack, in pixels, or 0 if it has no melee attack.
+     */
+    protected float meleeRange = 0;
+
+    /**
+     * The enemies and enemy projectiles within melee range, found through the Round's spatial hash when attacking.
+     */
     protected ArrayList<PhysicsEntity> enemiesInRange;
 
-    public int waterBlockCount = 0;
+    /**
+     * Adds the entities the spatial hash finds to enemiesInRange if they are enemies, filtered as the melee sensor
+     * fixture used to be. Made once, so finding enemies makes no garbage.
+     */
+    private SpatialHash.Visitor<Entity> collectEnemy = entity -> {
+        if (entity == this || entity.isRemoved()
+                || !(entity instanceof Character || entity instanceof Projectile && ((Projectile) entity).getOwner() != this)) {
+            return;
+        }
+        PhysicsEntity other = (PhysicsEntity) entity;
+        if ((other.getCategoryBits() & enemyBits) != 0 && (other.getMaskBits() & getCategoryBits()) != 0) {
+            enemiesInRange.add(other);
+        }
+    };
 
-    protected float dementedOffset = 0f;
-    protected float dementedLerpTimer = 0f;
-    protected float dementedLerpValue = 0f;
+    /**
+     * Whether this Character is on water, worked out once a step by the Round's WaterSystem, or null if this Character
+     * is not in a Round's engine.
+     */
+    private WaterComponent water;
 
     protected static float DEMENTED_DURATION = 10f;
-    protected float dementedTimer = 0f;
 
     /**
-     * Initialises this Character.
+     * Initialises this Character. Its health, timers and facing are kept by the subclass.
      *
      * @param parent        the round this Character belongs to
      * @param x             the initial x coordinate
      * @param y             the initial y coordinate
-     * @param maximumHealth the maximum (and initial) health of this Character
      */
-    public Character(Round parent, float x, float y, int maximumHealth) {
+    public Character(Round parent, float x, float y) {
         super(parent, x, y);
 
-        this.maximumHealth = this.currentHealth = maximumHealth;
         enemiesInRange = new ArrayList<>();
     }
 
-    public void createMeleeSensor(float meleeRange) {
-        if (meleeRange<=0) return;
-        CircleShape meleeSensorShape = new CircleShape();
-        meleeSensorShape.setRadius(meleeRange / PIXELS_PER_METRE);
+    /**
+     * Gets the direction the character is facing
+     * @return the direction this Character is facing (one of the FACING_ constants in TextureSet)
+     */
+    public abstract TextureSet.Facing getFacing();
+
+    /**
+     * Gets the current health of this Character.
+     *
+     * @return the current health of this Character
+     */
+    public abstract int getCurrentHealth();
+
+    /**
+     * Sets the current health of this Character, without any checks.
+     *
+     * @param health the new current health
+     */
+    protected abstract void setCurrentHealth(int health);
+
+    /**
+     * Gets the maximum health of this Character.
+     *
+     * @return the maximum health of this Character
+     */
+    public abstract int getMaximumHealth();
+
+    /**
+     * @return the time since this Character's last melee attack, in seconds
+     */
+    protected abstract float getMeleeAttackTimer();
+
+    /**
+     * @param time the new time since this Character's last melee attack, in seconds
+     */
+    protected abstract void setMeleeAttackTimer(float time);
+
+    /**
+     * @return how long this Character is still demented for, in seconds, or infinity if it is demented for good
+     */
+    protected abstract float getDementedTimer();
+
+    /**
+     * @param time how long this Character is to be demented for, in seconds
+     */
+    protected abstract void setDementedTimer(float time);
 
-        FixtureDef meleeFixtureDef = new FixtureDef();
-        meleeFixtureDef.shape = meleeSensorShape;
-        meleeFixtureDef.isSensor = true;
+    /**
+     * @return the angle this Character's movement is turned by while it is demented, in radians
+     */
+    protected abstract float getDementedOffset();
 
-        meleeFixtureDef.filter.categoryBits = getCategoryBits();
-        meleeFixtureDef.filter.maskBits = enemyBits;
-        meleeFixtureDef.filter.groupIndex = SENSOR_GROUP;
+    /**
+     * Moves on this Character's attack timers, demented wander and facing by one step.
+     *
+     * @param delta how much time has passed since the last update
+     */
+    protected abstract void updateState(float delta);
 
-        Fixture meleeFixture = body.createFixture(meleeFixtureDef);
-        meleeFixture.setUserData(this);
+    /**
+     * Works out how strongly a Character is demented, fading in and out over the first and last thirds of the time.
+     *
+     * @param dementedTimer how long the Character is still demented for, or infinity if it is demented for good
+     * @return how strongly it is demented, from 0 to 1
+     */
+    public static float dementedFactor(float dementedTimer) {
+        if (dementedTimer == Float.POSITIVE_INFINITY) {
+            return 1;
+        }
+        return Math.min(1,
+                    Math.min(dementedTimer / (DEMENTED_DURATION/3),
+                        (DEMENTED_DURATION-dementedTimer) / (DEMENTED_DURATION/3)
+                    )
+                );
+    }
 
-        meleeSensorShape.dispose();
+    /**
+     * Sets how far this Character can reach with a melee attack.
+     *
+     * @param meleeRange the reach in pixels, from the centre of this Character
+     */
+    public void setMeleeRange(float meleeRange) {
+        this.meleeRange = meleeRange;
     }
 
     /**
-     * Gets the direction the character is facing
-     * @return the direction this Character is facing (one of the FACING_ constants in TextureSet)
+     * Fills enemiesInRange with the enemies and enemy projectiles within melee range.
      */
-    public TextureSet.Facing getFacing() {
-        return facing;
+    protected void findEnemiesInRange() {
+        enemiesInRange.clear();
+        if (meleeRange > 0) {
+            parent.getSpatialHash().queryRadius(getCentreX(), getCentreY(), meleeRange, collectEnemy);
+        }
     }
 
     public boolean isDemented() {
-        return dementedTimer>0f;
+        return getDementedTimer()>0f;
     }
 
     public void setDemented(boolean demented) {
         if (demented) {
-            dementedTimer = isDemented() ? Math.max(dementedTimer, DEMENTED_DURATION*0.6f)
-                                         : DEMENTED_DURATION;
+            setDementedTimer(isDemented() ? Math.max(getDementedTimer(), DEMENTED_DURATION*0.6f)
+                                          : DEMENTED_DURATION);
         }
         else {
-            dementedTimer = 0f;
+            setDementedTimer(0f);
         }
     }
 
     public float getDementedFactor(){
-        return Math.min(1,
-                    Math.min(dementedTimer / (DEMENTED_DURATION/3),
-                        (DEMENTED_DURATION-dementedTimer) / (DEMENTED_DURATION/3)
-                    )
-                );
+        return dementedFactor(getDementedTimer());
     }
 
     @Override
     public void setVelocity(Vector2 targetVelocity, float limit) {
         if (isDemented()) {
-            targetVelocity.rotateRad(dementedOffset);
+            targetVelocity.rotateRad(getDementedOffset());
         }
         super.setVelocity(targetVelocity, limit);
     }
 
-    /**
-     * Gets the current health of this Character.
-     *
-     * @return the current health of this Character
-     */
-    public int getCurrentHealth() {
-        return currentHealth;
-    }
-
-    /**
-     * Gets the maximum health of this Character.
-     *
-     * @return the maximum health of this Character
-     */
-    public int getMaximumHealth() {
-        return maximumHealth;
-    }
-
     /**
      * Enables character collision
      */
@@ -166,11 +217,7 @@ public abstract class Character extends PhysicsEntity {
      * @param health the number of health points to heal
      */
     public void heal(int health) {
-        this.currentHealth += health;
-
-        if (currentHealth > maximumHealth) {
-            currentHealth = maximumHealth;
-        }
+        setCurrentHealth(Math.min(getCurrentHealth() + health, getMaximumHealth()));
     }
 
     /**
@@ -179,8 +226,7 @@ public abstract class Character extends PhysicsEntity {
      * @param health the number of points to damage
      */
     public void damage(int health){
-        currentHealth -= health;
-        currentHealth = Math.max(0, currentHealth);
+        setCurrentHealth(Math.max(0, getCurrentHealth() - health));
         parent.floatyNumbersManager.createDamageNumber(health, getX(), getY());
     };
 
@@ -189,7 +235,7 @@ public abstract class Character extends PhysicsEntity {
      * @return whether this Character is dead (i.e. its health is 0)
      */
     public boolean isDead() {
-        return currentHealth <= 0;
+        return getCurrentHealth() <= 0;
     }
 
     /**
@@ -198,7 +244,19 @@ public abstract class Character extends PhysicsEntity {
      * @return true if player is on water tile, otherwise false
      */
     protected boolean isOnWater(){
-        return waterBlockCount > 0;
+        if (water != null) {
+            return water.onWater;
+        }
+        return parent.isWater(getX(), getY(), getWidth(), getHeight());
+    }
+
+    /**
+     * Sets where this Character reads whether it is on water from, when it is added to or removed from an engine.
+     *
+     * @param water the component the WaterSystem keeps up to date, or null to work it out when asked
+     */
+    public void setWaterComponent(WaterComponent water) {
+        this.water = water;
     }
 
     public void fireAt(Vector2 velocity) {
@@ -207,7 +265,23 @@ public abstract class Character extends PhysicsEntity {
     }
 
     public void fireAt(Vector2 position, Vector2 velocity) {
-        parent.createProjectile(position, velocity, parent.cheatSuperDamage ? 9999 : RANGED_DAMAGE, this);
+        fireAt(position, velocity, false);
+    }
+
+    /**
+     * Fires a projectile, either with a bullet body or as a raycast projectile.
+     *
+     * @param position the bottom left corner to fire from
+     * @param velocity the velocity to fire at
+     * @param raycast  whether to fire a raycast projectile, for fast bullets fired in large numbers
+     */
+    public void fireAt(Vector2 position, Vector2 velocity, boolean raycast) {
+        int damage = parent.cheatSuperDamage ? 9999 : RANGED_DAMAGE;
+        if (raycast) {
+            parent.createRaycastProjectile(position, velocity, damage, this);
+        } else {
+            parent.createProjectile(position, velocity, damage, this);
+        }
     }
 
     @Override
@@ -220,24 +294,6 @@ public abstract class Character extends PhysicsEntity {
         }
     }
 
-    @Override
-    public void beginSensorContact(PhysicsEntity other, Contact contact) {
-        super.beginSensorContact(other, contact);
-        if (other instanceof Character || (other instanceof Projectile && ((Projectile)other).getOwner() != this)) {
-            enemiesInRange.add(other);
-        }
-
-    }
-
-    @Override
-    public void endSensorContact(PhysicsEntity other, Contact contact) {
-        super.endSensorContact(other, contact);
-        if (enemiesInRange.contains(other)) {
-            enemiesInRange.remove(other);
-        }
-
-    }
-
     public boolean canBeDamaged(){
         return true;
     }
@@ -252,12 +308,16 @@ public abstract class Character extends PhysicsEntity {
 //        if (isStunned()) {
 //            return false;
 //        }
-        if (meleeAttackTimer > MELEE_ATTACK_COOLDOWN && !enemiesInRange.isEmpty()){
-            meleeAttackTimer = 0f;
+        if (getMeleeAttackTimer() <= MELEE_ATTACK_COOLDOWN) {
+            return false;
+        }
+        findEnemiesInRange();
+        if (!enemiesInRange.isEmpty()){
+            setMeleeAttackTimer(0f);
 
             for (PhysicsEntity entity : enemiesInRange) {
                 float angle = Math.abs(
-                        vectorTo(entity.getCentre()).angle(facing.vector())
+                        vectorTo(entity.getCentre()).angle(getFacing().vector())
                 );
                 if (angle<90) {
                     if (entity instanceof Character) {
@@ -292,26 +352,7 @@ public abstract class Character extends PhysicsEntity {
     @Override
     public void update(float delta) {
 
-        meleeAttackTimer += delta;
-        rangedAttackTimer += delta;
-
-        if (isDemented()){
-            dementedTimer -= delta;
-            dementedLerpTimer += delta;
-            if (dementedLerpTimer > 1f) {
-                dementedLerpTimer = 0f;
-                dementedLerpValue = (float)((Math.random()-0.5)*2*(Math.PI*1.5f*getDementedFactor()));
-            }
-            dementedOffset = (dementedLerpValue-dementedOffset)*dementedLerpTimer;
-        }
-
-        // Update Character facing.
-        Vector2 velocity = getVelocity();
-
-        if (Math.abs(velocity.y) > Math.abs(velocity.x))
-            facing = velocity.y > 0 ?  TextureSet.Facing.BACK : TextureSet.Facing.FRONT;
-        else if (Math.abs(velocity.y) < Math.abs(velocity.x))
-            facing = velocity.x > 0 ?  TextureSet.Facing.RIGHT : TextureSet.Facing.LEFT;
+        updateState(delta);
 
         if (isDead()) {
             removed = true;
@@ -1,6 +1,7 @@
 package com.superduckinvaders.game.entity;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 import com.superduckinvaders.game.Round;
 import com.superduckinvaders.game.assets.TextureSet;
@@ -29,6 +30,11 @@ public abstract class Entity {
      */
     protected boolean removed = false;
 
+    /**
+     * The Ashley entity standing for this Entity in its round's engine, or null if it is not in one.
+     */
+    private com.badlogic.ashley.core.Entity ecsEntity;
+
     /**
      * Initialises this Entity with zero initial coordinates.
      *
@@ -76,6 +82,38 @@ public abstract class Entity {
         return y;
     }
 
+    /**
+     * Returns the x coordinate of the centre of the entity
+     * @return the x coordinate of the centre of this Entity
+     */
+    public float getCentreX() {
+        return getX() + getWidth()/2f;
+    }
+
+    /**
+     * Returns the y coordinate of the centre of the entity
+     * @return the y coordinate of the centre of this Entity
+     */
+    public float getCentreY() {
+        return getY() + getHeight()/2f;
+    }
+
+    /**
+     * Returns the x coordinate to draw the entity at, which may be between simulation steps
+     * @return the x coordinate to draw this Entity at
+     */
+    public float getRenderX() {
+        return getX();
+    }
+
+    /**
+     * Returns the y coordinate to draw the entity at, which may be between simulation steps
+     * @return the y coordinate to draw this Entity at
+     */
+    public float getRenderY() {
+        return getY();
+    }
+
     /**
      * Returns true if the specified rectangle intersects this Entity.
      *
@@ -97,10 +135,10 @@ public abstract class Entity {
      * @return the distance between this Entity and the coordinates, in pixels
      */
     public float distanceTo(float x, float y) {
-        return distanceTo(new Vector2(x, y));
+        return Vector2.dst(getCentreX(), getCentreY(), x, y);
     }
     public float distanceTo(Vector2 pos) {
-        return getCentre().sub(pos).len();
+        return distanceTo(pos.x, pos.y);
     }
 
     /**
@@ -112,21 +150,22 @@ public abstract class Entity {
      */
     public float angleTo(float x, float y) {
         //return (float) Math.atan2(y - (this.y + this.getHeight()/2), x - (this.x + this.getWidth()/2));
-        return angleTo(new Vector2(x, y));
+        float angle = (float) Math.atan2(y - getCentreY(), x - getCentreX()) * MathUtils.radiansToDegrees;
+        return (angle < 0 ? angle + 360f : angle) % 360f;
     }
     public float angleTo(Vector2 pos){
-        return vectorTo(pos).angle() % 360f;
+        return angleTo(pos.x, pos.y);
     }
     public float angleRadTo(float x, float y) {
         //return (float) Math.atan2(y - (this.y + this.getHeight()/2), x - (this.x + this.getWidth()/2));
-        return angleRadTo(new Vector2(x, y));
+        return (float) Math.atan2(y - getCentreY(), x - getCentreX()) % ((float)Math.PI * 2 );
     }
     public float angleRadTo(Vector2 pos){
-        return vectorTo(pos).angleRad() % ((float)Math.PI * 2 );
+        return angleRadTo(pos.x, pos.y);
     }
 
     public Vector2 vectorTo(Vector2 pos){
-        return pos.cpy().sub(getCentre());
+        return new Vector2(pos.x - getCentreX(), pos.y - getCentreY());
     }
 
     /**
@@ -230,6 +269,22 @@ public abstract class Entity {
 
     public void dispose(){}
 
+    /**
+     * Gets the Ashley entity standing for this Entity, for finding its components from a spatial hash query.
+     * @return the Ashley entity, or null if this Entity is not in an engine
+     */
+    public com.badlogic.ashley.core.Entity getEcsEntity() {
+        return ecsEntity;
+    }
+
+    /**
+     * Sets the Ashley entity standing for this Entity. Only the EntityAdapter should call this.
+     * @param ecsEntity the Ashley entity, or null
+     */
+    public void setEcsEntity(com.badlogic.ashley.core.Entity ecsEntity) {
+        this.ecsEntity = ecsEntity;
+    }
+
     /**
      * Updates the state of this Entity.
      *
@@ -254,7 +309,7 @@ public abstract class Entity {
 
         @Override
         public int compare(Entity o1, Entity o2) {
-            return new Float(o1.getY()).compareTo(o2.getY());
+            return Float.compare(o1.getY(), o2.getY());
             /*
             //front of list rendered first
             if (o1 instanceof Character) {
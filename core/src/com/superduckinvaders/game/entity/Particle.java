@@ -29,10 +29,42 @@ public class Particle extends Entity {
      * @param animation the animation to use for the particle effect
      */
     public Particle(Round parent, float x, float y, float duration, Animation animation) {
-        super(parent, x, y);
+        this(parent);
+        init(x, y, duration, animation);
+    }
 
+    /**
+     * Initialises this Particle, ready to be started by init. Used by the Round's particle pool.
+     *
+     * @param parent the round this Particle belongs to
+     */
+    public Particle(Round parent) {
+        super(parent);
+    }
+
+    /**
+     * Starts this Particle.
+     *
+     * @param x         the x coordinate
+     * @param y         the y coordinate
+     * @param duration  how long the particle effect should last for, in seconds
+     * @param animation the animation to use for the particle effect
+     */
+    public void init(float x, float y, float duration, Animation animation) {
+        this.x = x;
+        this.y = y;
         this.initialDuration = this.duration = duration;
         this.animation = animation;
+        removed = false;
+    }
+
+    /**
+     * Hands this Particle back to the pool.
+     */
+    @Override
+    public void dispose() {
+        animation = null;
+        parent.getParticlePool().free(this);
     }
 
     /**
@@ -1,5 +1,6 @@
 package com.superduckinvaders.game.entity;
 
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.*;
 import com.superduckinvaders.game.Round;
@@ -25,6 +26,24 @@ public abstract class PhysicsEntity extends Entity {
     public static final float METRES_PER_PIXEL = 1/16f;
     public static final float PIXELS_PER_METRE = 1/METRES_PER_PIXEL;
 
+    /**
+     * The coordinates of this Entity before the last simulation step, for drawing between steps.
+     */
+    protected float previousX, previousY;
+
+    /**
+     * The centre and velocity of this Entity in pixels, as of the last simulation step.
+     * Reading these rather than the body saves a call through JNI and a new Vector2 each time.
+     */
+    protected float centreX, centreY, velocityX, velocityY;
+
+    /**
+     * The category bits of this Entity's fixture and whether it is a sensor, kept here so contact callbacks can read
+     * them without calls through JNI.
+     */
+    private short categoryBits;
+    private boolean sensor;
+
     /**
      * Initialises this Entity with zero initial coordinates.
      *
@@ -83,11 +102,40 @@ public abstract class PhysicsEntity extends Entity {
         fixtureDef.filter.maskBits = maskBits;
         fixtureDef.filter.groupIndex = groupIndex;
 
+        this.categoryBits = categoryBits;
+        this.sensor = isSensor;
+
         body = parent.world.createBody(bodyDef);
         Fixture fixture = body.createFixture(fixtureDef);
         fixture.setUserData(this);
         body.setUserData(this);
         boundingBox.dispose();
+
+        updateSnapshot();
+        previousX = getX();
+        previousY = getY();
+    }
+
+    /**
+     * Copies the position and velocity of the body into this Entity. Called after every world step.
+     */
+    public void updateSnapshot() {
+        if (body != null) {
+            Vector2 position = body.getPosition();
+            centreX = position.x * PIXELS_PER_METRE;
+            centreY = position.y * PIXELS_PER_METRE;
+            Vector2 velocity = body.getLinearVelocity();
+            velocityX = velocity.x * PIXELS_PER_METRE;
+            velocityY = velocity.y * PIXELS_PER_METRE;
+        }
+    }
+
+    /**
+     * Remembers where this Entity is before a simulation step moves it.
+     */
+    public void savePreviousPosition() {
+        previousX = getX();
+        previousY = getY();
     }
 
 
@@ -97,7 +145,7 @@ public abstract class PhysicsEntity extends Entity {
      */
     @Override
     public float getX() {
-        return getPosition().x;
+        return centreX - getWidth()/2f;
     }
 
     /**
@@ -106,26 +154,69 @@ public abstract class PhysicsEntity extends Entity {
      */
     @Override
     public float getY() {
-        return getPosition().y;
+        return centreY - getHeight()/2f;
+    }
+
+    @Override
+    public float getCentreX() {
+        return centreX;
+    }
+
+    @Override
+    public float getCentreY() {
+        return centreY;
+    }
+
+    /**
+     * Returns the x coordinate to draw the entity at, between where it was before and after the last simulation step
+     * @return the x coordinate to draw this Entity at
+     */
+    @Override
+    public float getRenderX() {
+        return MathUtils.lerp(previousX, getX(), parent.getInterpolationAlpha());
+    }
+
+    /**
+     * Returns the y coordinate to draw the entity at, between where it was before and after the last simulation step
+     * @return the y coordinate to draw this Entity at
+     */
+    @Override
+    public float getRenderY() {
+        return MathUtils.lerp(previousY, getY(), parent.getInterpolationAlpha());
     }
 
     @Override
     public Vector2 getPosition() {
-        return getCentre()
-                .sub(getWidth()/2f, getHeight()/2f);
+        return new Vector2(getX(), getY());
     }
 
     @Override
     public Vector2 getCentre(){
-        return body.getPosition().cpy().scl(PIXELS_PER_METRE);
+        return new Vector2(centreX, centreY);
+    }
+
+    /**
+     * Returns the x velocity of the entity as of the last simulation step
+     * @return the x velocity in pixels per second
+     */
+    public float getVelocityX() {
+        return velocityX;
+    }
+
+    /**
+     * Returns the y velocity of the entity as of the last simulation step
+     * @return the y velocity in pixels per second
+     */
+    public float getVelocityY() {
+        return velocityY;
     }
 
     public Vector2 getVelocity() {
-        return getPhysicsVelocity().scl(PIXELS_PER_METRE);
+        return new Vector2(velocityX, velocityY);
     }
 
     public Vector2 getPhysicsVelocity() {
-        return body.getLinearVelocity().cpy();
+        return getVelocity().scl(METRES_PER_PIXEL);
     }
 
     public void setVelocity(Vector2 targetVelocity) {
@@ -135,10 +226,14 @@ public abstract class PhysicsEntity extends Entity {
         setVelocity(targetVelocity, 3f);
     }
     public void setVelocity(Vector2 targetVelocity, float limit) {
-        Vector2 deltaVelocity = targetVelocity.scl(METRES_PER_PIXEL).sub(body.getLinearVelocity());
+        Vector2 currentVelocity = body.getLinearVelocity();
+        Vector2 deltaVelocity = targetVelocity.scl(METRES_PER_PIXEL).sub(currentVelocity);
         if (limit>0){
             deltaVelocity.clamp(0, limit);
         }
+        // The impulse changes the velocity straight away, so keep the snapshot in step.
+        velocityX = (currentVelocity.x + deltaVelocity.x) * PIXELS_PER_METRE;
+        velocityY = (currentVelocity.y + deltaVelocity.y) * PIXELS_PER_METRE;
         Vector2 impulse = deltaVelocity.scl(body.getMass());
         body.applyLinearImpulse(impulse, body.getWorldCenter(), true);
     }
@@ -154,16 +249,23 @@ public abstract class PhysicsEntity extends Entity {
         fixture.setFilterData(filter);
     }
     public short getCategoryBits(){
-        Fixture fixture = body.getFixtureList().get(0);
-        return fixture.getFilterData().categoryBits;
+        return categoryBits;
     }
     public void setCategoryBits(short categoryBits){
+        this.categoryBits = categoryBits;
         Fixture fixture = body.getFixtureList().get(0);
         Filter filter = fixture.getFilterData();
-        filter.maskBits = categoryBits;
+        filter.categoryBits = categoryBits;
         fixture.setFilterData(filter);
     }
 
+    /**
+     * @return whether this Entity's fixture is a sensor, which detects contacts without colliding
+     */
+    public boolean isSensor(){
+        return sensor;
+    }
+
     public boolean testCollisionMask(PhysicsEntity other){
         return (0 != (getMaskBits() & other.getCategoryBits()) && 0 != (getCategoryBits() & other.getMaskBits()));
     }
@@ -175,6 +277,10 @@ public abstract class PhysicsEntity extends Entity {
         }
     }
 
+    /**
+     * Contact callbacks. These are only called for the pairs of categories CustomContactListener listens to, so an
+     * override for a new pair must be added to its table.
+     */
     public void beginCollision(PhysicsEntity other, Contact contact) {
     }
 
@@ -63,6 +63,29 @@ public class Player extends Character {
     public static final float PLAYER_MAX_FLIGHT_TIME = 1;
 
 
+    /**
+     * The direction the Player is facing.
+     */
+    protected TextureSet.Facing facing = TextureSet.Facing.FRONT;
+
+    /**
+     * The state time for the animation. Set to 0 for not moving.
+     */
+    protected float stateTime = 0;
+
+    /**
+     * Current health and the maximum health of this Player.
+     */
+    protected int maximumHealth, currentHealth;
+
+    protected float rangedAttackTimer = 0f;
+    protected float meleeAttackTimer = 0f;
+
+    protected float dementedOffset = 0f;
+    protected float dementedLerpTimer = 0f;
+    protected float dementedLerpValue = 0f;
+    protected float dementedTimer = 0f;
+
     /**
      * Player's current score.
      */
@@ -153,6 +176,11 @@ public class Player extends Character {
      */
     private boolean clickedLastTick = false;
 
+    /**
+     * Whether melee or flying keys were pressed since the last simulation step, as a frame may run no steps or several.
+     */
+    private boolean meleePressed = false, flyPressed = false;
+
     /**
      * Initialises this Player at the specified coordinates and with the specified initial health.
      *
@@ -161,13 +189,14 @@ public class Player extends Character {
      * @param y      the initial y coordinate
      */
     public Player(Round parent, int x, int y) {
-        super(parent, x, y, PLAYER_HEALTH);
+        super(parent, x, y);
+        maximumHealth = currentHealth = PLAYER_HEALTH;
         enemyBits = MOB_BITS | PROJECTILE_BITS;
         RANGED_DAMAGE = 50;
         MELEE_ATTACK_COOLDOWN = 0.05f;
         RANGED_ATTACK_COOLDOWN = 0.5f;
         createDynamicBody(PLAYER_BITS, ALL_BITS, NO_GROUP, false);
-        createMeleeSensor(40f);
+        setMeleeRange(40f);
 
         projectileDrawPoint = new Vector2[]{
                 new Vector2(7 - boundsX, 26 - boundsY),  // Front
@@ -331,6 +360,75 @@ public class Player extends Character {
         return boundsY;
     }
 
+    @Override
+    public TextureSet.Facing getFacing() {
+        return facing;
+    }
+
+    @Override
+    public int getCurrentHealth() {
+        return currentHealth;
+    }
+
+    @Override
+    protected void setCurrentHealth(int health) {
+        currentHealth = health;
+    }
+
+    @Override
+    public int getMaximumHealth() {
+        return maximumHealth;
+    }
+
+    @Override
+    protected float getMeleeAttackTimer() {
+        return meleeAttackTimer;
+    }
+
+    @Override
+    protected void setMeleeAttackTimer(float time) {
+        meleeAttackTimer = time;
+    }
+
+    @Override
+    protected float getDementedTimer() {
+        return dementedTimer;
+    }
+
+    @Override
+    protected void setDementedTimer(float time) {
+        dementedTimer = time;
+    }
+
+    @Override
+    protected float getDementedOffset() {
+        return dementedOffset;
+    }
+
+    @Override
+    protected void updateState(float delta) {
+        meleeAttackTimer += delta;
+        rangedAttackTimer += delta;
+
+        if (isDemented()){
+            dementedTimer -= delta;
+            dementedLerpTimer += delta;
+            if (dementedLerpTimer > 1f) {
+                dementedLerpTimer = 0f;
+                dementedLerpValue = (float)((Math.random()-0.5)*2*(Math.PI*1.5f*getDementedFactor()));
+            }
+            dementedOffset = (dementedLerpValue-dementedOffset)*dementedLerpTimer;
+        }
+
+        // Update Player facing.
+        float velocityX = getVelocityX(), velocityY = getVelocityY();
+
+        if (Math.abs(velocityY) > Math.abs(velocityX))
+            facing = velocityY > 0 ?  TextureSet.Facing.BACK : TextureSet.Facing.FRONT;
+        else if (Math.abs(velocityY) < Math.abs(velocityX))
+            facing = velocityX > 0 ?  TextureSet.Facing.RIGHT : TextureSet.Facing.LEFT;
+    }
+
     @Override
     public boolean canBeDamaged(){
         return !(isFlying ||
@@ -412,6 +510,14 @@ public class Player extends Character {
         }
     }
 
+    /**
+     * Records keys pressed this frame, to be acted on by the next simulation step. Called once per frame.
+     */
+    public void pollInputs() {
+        meleePressed |= Gdx.input.isKeyJustPressed(Input.Keys.E);
+        flyPressed |= Gdx.input.isKeyJustPressed(Input.Keys.SPACE);
+    }
+
     /**
      * Checks the necessary inputs for shooting, meleeing and flying and performs the necessary actions
      * Shooting can only be done if enough time has passed between now and the previous shot (unless a cheat is used)
@@ -439,13 +545,15 @@ public class Player extends Character {
         }
         clickedLastTick = Gdx.input.isButtonPressed(Input.Buttons.LEFT);
 
-        if(Gdx.input.isKeyJustPressed(Input.Keys.E)){
+        if(meleePressed){
+            meleePressed = false;
             if(!isOnWater() && !isFlying)
                 doMeleeAttack();
         }
 
         // Press space to start flying, but only if flying isn't cooling down and we're moving.
-        if (Gdx.input.isKeyJustPressed(Input.Keys.SPACE)){
+        if (flyPressed){
+            flyPressed = false;
             if(isFlying){
                 disableFlying();
             }
@@ -503,15 +611,17 @@ public class Player extends Character {
         // Use the right texture set.
         TextureSet textureSet = isOnWater() ? Assets.playerSwimming : Assets.playerNormal;
 
-        spriteBatch.draw(Assets.playerShadow, getX()-2, getY()-6);//Draw the mobShadow under the player
+        float x = getRenderX(), y = getRenderY();
+
+        spriteBatch.draw(Assets.playerShadow, x-2, y-6);//Draw the mobShadow under the player
         if(isFlying)
-            spriteBatch.draw(Assets.playerFlying.getTexture(facing, 0), getX() - getBoundsX()-18, getY() - getBoundsY()+10);
+            spriteBatch.draw(Assets.playerFlying.getTexture(facing, 0), x - getBoundsX()-18, y - getBoundsY()+10);
         else {
             if(!isDamageFrames || isDamageFrames && damageFramesFrame)
                 if(isMeleeing)
-                    spriteBatch.draw(Assets.playerMelee.getTexture(facing, stateTime), getX() - getBoundsX()-16, getY() - getBoundsY());
+                    spriteBatch.draw(Assets.playerMelee.getTexture(facing, stateTime), x - getBoundsX()-16, y - getBoundsY());
                 else
-                    spriteBatch.draw(textureSet.getTexture(facing, stateTime), getX() - getBoundsX(), getY() - getBoundsY());
+                    spriteBatch.draw(textureSet.getTexture(facing, stateTime), x - getBoundsX(), y - getBoundsY());
         }
         damageFramesFrame=!damageFramesFrame;
     }
@@ -2,6 +2,7 @@ package com.superduckinvaders.game.entity;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g3d.particles.ParallelArray;
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.Contact;
 import com.superduckinvaders.game.Round;
@@ -40,16 +41,54 @@ public class Projectile extends PhysicsEntity {
      * @param owner           the owner of the projectile (i.e. the one who fired it)
      */
     public Projectile(Round parent, Vector2 pos, Vector2 velocity, int damage, PhysicsEntity owner) {
-        super(parent, pos);
+        this(parent);
+        init(pos, velocity, damage, owner);
+    }
+
+    /**
+     * Initialises this Projectile with an inactive body, ready to be fired by init. Used by the Round's projectile pool.
+     *
+     * @param parent the round this Projectile belongs to
+     */
+    public Projectile(Round parent) {
+        super(parent);
 
-        createDynamicBody(PROJECTILE_BITS, (short) ~owner.getCategoryBits(), NO_GROUP, false);
+        createDynamicBody(PROJECTILE_BITS, ALL_BITS, NO_GROUP, false);
         body.setBullet(true);
+        body.setActive(false);
+    }
 
+    /**
+     * Fires this Projectile, moving its body into place and making it active.
+     *
+     * @param pos      the bottom left corner to fire from
+     * @param velocity the velocity to fire at
+     * @param damage   how much damage the projectile deals
+     * @param owner    the owner of the projectile (i.e. the one who fired it)
+     */
+    public void init(Vector2 pos, Vector2 velocity, int damage, PhysicsEntity owner) {
+        // Filter and move the body while it is inactive, so the broad phase only has to place it once.
+        this.damage = damage;
+        setOwner(owner);
+        body.setTransform((pos.x + getWidth()/2) * METRES_PER_PIXEL, (pos.y + getHeight()/2) * METRES_PER_PIXEL, 0);
+        body.setLinearVelocity(0, 0);
+        body.setActive(true);
+        updateSnapshot();
+        previousX = getX();
+        previousY = getY();
+        removed = false;
 
         setVelocity(velocity);
+    }
 
-        this.damage = damage;
-        this.owner = owner;
+    /**
+     * Deactivates the body rather than destroying it, and hands this Projectile back to the pool.
+     */
+    @Override
+    public void dispose() {
+        body.setActive(false);
+        owner = null;
+        parent.getProjectilePool().free(this);
     }
 
     public void setDamage(int damage) {
@@ -90,8 +129,23 @@ public class Projectile extends PhysicsEntity {
 
     @Override
     public void beginCollision(PhysicsEntity other, Contact contact){
-        parent.createParticle(getX(), getY() , 0.6f, Assets.explosionAnimation);
+        explode(parent, getX(), getY(), other, owner, damage);
         removed = true;
+    }
+
+    /**
+     * Shows an explosion where a projectile hit something, and damages what it hit if that is a Character other than
+     * the one who fired it. Shared by projectiles with bodies and raycast projectiles.
+     *
+     * @param parent the round the projectile belongs to
+     * @param x      the x coordinate of the bottom left corner of the projectile
+     * @param y      the y coordinate of the bottom left corner of the projectile
+     * @param other  what the projectile hit, or null if it hit the map
+     * @param owner  the owner of the projectile
+     * @param damage how much damage the projectile deals
+     */
+    static void explode(Round parent, float x, float y, PhysicsEntity other, PhysicsEntity owner, int damage) {
+        parent.createParticle(x, y, 0.6f, Assets.explosionAnimation);
         if (other instanceof Character && other != owner) {
             ((Character) other).damage(damage);
         }
@@ -113,6 +167,6 @@ public class Projectile extends PhysicsEntity {
      */
     @Override
     public void render(SpriteBatch spriteBatch) {
-        spriteBatch.draw(Assets.projectile, getX(), getY(), Assets.projectile.getRegionWidth()/2, Assets.projectile.getRegionHeight()/2, Assets.projectile.getRegionWidth(), Assets.projectile.getRegionHeight(), 1,1 , getVelocity().angle());
+        spriteBatch.draw(Assets.projectile, getRenderX(), getRenderY(), Assets.projectile.getRegionWidth()/2, Assets.projectile.getRegionHeight()/2, Assets.projectile.getRegionWidth(), Assets.projectile.getRegionHeight(), 1,1 , MathUtils.atan2(getVelocityY(), getVelocityX()) * MathUtils.radiansToDegrees);
     }
 }
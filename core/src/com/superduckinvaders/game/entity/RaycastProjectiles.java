@@ -0,0 +1,238 @@
+package com.superduckinvaders.game.entity;
+
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.superduckinvaders.game.Round;
+import com.superduckinvaders.game.assets.Assets;
+import com.superduckinvaders.game.util.LineOfSight;
+import com.superduckinvaders.game.util.SpatialHash;
+
+import java.util.Arrays;
+
+/**
+ * Projectiles without bodies, for fast bullets fired in large numbers. Each one is a few floats in plain arrays, moved
+ * on every simulation step. The line it moves along is cast over the tile grid and tested against the characters
+ * near it, found through the Round's spatial hash, and the first thing it hits is hit in the same way as by a Projectile.
+ * They can not be deflected by melee attacks, as they are never in a melee sensor.
+ */
+public class RaycastProjectiles implements SpatialHash.Visitor<Entity> {
+
+    /**
+     * The round these projectiles belong to.
+     */
+    private final Round parent;
+
+    /**
+     * Line of sight over the map, for casting against walls.
+     */
+    private final LineOfSight lineOfSight;
+
+    /**
+     * The centre of each projectile before and after the last step, and its velocity, in pixels.
+     */
+    private float[] x, y, previousX, previousY, velocityX, velocityY;
+
+    /**
+     * How much damage each projectile deals, and which categories of body it can hit.
+     */
+    private int[] damage, maskBits;
+
+    /**
+     * Who fired each projectile.
+     */
+    private PhysicsEntity[] owner;
+
+    /**
+     * How many projectiles are in flight. They are kept at the front of the arrays.
+     */
+    private int count = 0;
+
+    /**
+     * The line being cast and what it has hit so far, for visit.
+     */
+    private float castX, castY, castDeltaX, castDeltaY, castFraction;
+    private int castMaskBits;
+    private PhysicsEntity castOwner;
+    private Character castHit;
+
+    /**
+     * Creates an empty set of raycast projectiles.
+     *
+     * @param parent      the round the projectiles belong to
+     * @param lineOfSight line of sight over the round's map
+     */
+    public RaycastProjectiles(Round parent, LineOfSight lineOfSight) {
+        this.parent = parent;
+        this.lineOfSight = lineOfSight;
+        resize(32);
+    }
+
+    /**
+     * Fires a projectile.
+     *
+     * @param pos      the bottom left corner to fire from
+     * @param velocity the velocity to fire at, in pixels per second
+     * @param damage   how much damage the projectile deals
+     * @param owner    the owner of the projectile (i.e. the one who fired it)
+     */
+    public void fire(Vector2 pos, Vector2 velocity, int damage, PhysicsEntity owner) {
+        if (count == x.length) {
+            resize(count * 2);
+        }
+        float half = getSize() / 2;
+        x[count] = previousX[count] = pos.x + half;
+        y[count] = previousY[count] = pos.y + half;
+        velocityX[count] = velocity.x;
+        velocityY[count] = velocity.y;
+        this.damage[count] = damage;
+        maskBits[count] = ~owner.getCategoryBits();
+        this.owner[count] = owner;
+        count++;
+    }
+
+    /**
+     * Moves every projectile on by one step, exploding the ones that hit a wall or a character on the way.
+     *
+     * @param delta the length of the step
+     */
+    public void update(float delta) {
+        if (count == 0) {
+            return;
+        }
+
+        SpatialHash<Entity> entities = parent.getSpatialHash();
+
+        float half = getSize() / 2;
+        int i = 0;
+        while (i < count) {
+            castX = previousX[i] = x[i];
+            castY = previousY[i] = y[i];
+            castDeltaX = velocityX[i] * delta;
+            castDeltaY = velocityY[i] * delta;
+            castFraction = lineOfSight.castRay(castX, castY, castX + castDeltaX, castY + castDeltaY);
+            castMaskBits = maskBits[i];
+            castOwner = owner[i];
+            castHit = null;
+
+            entities.queryRect(Math.min(castX, castX + castDeltaX) - half, Math.min(castY, castY + castDeltaY) - half,
+                    Math.max(castX, castX + castDeltaX) + half, Math.max(castY, castY + castDeltaY) + half, this);
+
+            if (castFraction <= 1) {
+                Projectile.explode(parent, castX + castDeltaX * castFraction - half,
+                        castY + castDeltaY * castFraction - half, castHit, owner[i], damage[i]);
+                remove(i);
+            } else {
+                x[i] += castDeltaX;
+                y[i] += castDeltaY;
+                i++;
+            }
+        }
+        castOwner = null;
+        castHit = null;
+    }
+
+    /**
+     * Tests the line being cast against a character's bounds, grown by half the projectile's size on every side, and
+     * keeps the character if it is hit before anything else found so far.
+     *
+     * @param entity an entity near the line
+     */
+    @Override
+    public void visit(Entity entity) {
+        if (!(entity instanceof Character) || entity == castOwner || entity.isRemoved()) {
+            return;
+        }
+        Character character = (Character) entity;
+        float half = getSize() / 2;
+        float near = 0, far = Math.min(1, castFraction);
+
+        // Slab test, one axis at a time.
+        float minX = character.getX() - half, maxX = character.getX() + character.getWidth() + half;
+        if (castDeltaX == 0) {
+            if (castX < minX || castX > maxX) {
+                return;
+            }
+        } else {
+            float t0 = (minX - castX) / castDeltaX, t1 = (maxX - castX) / castDeltaX;
+            near = Math.max(near, Math.min(t0, t1));
+            far = Math.min(far, Math.max(t0, t1));
+        }
+        float minY = character.getY() - half, maxY = character.getY() + character.getHeight() + half;
+        if (castDeltaY == 0) {
+            if (castY < minY || castY > maxY) {
+                return;
+            }
+        } else {
+            float t0 = (minY - castY) / castDeltaY, t1 = (maxY - castY) / castDeltaY;
+            near = Math.max(near, Math.min(t0, t1));
+            far = Math.min(far, Math.max(t0, t1));
+        }
+
+        // Only look at the body's filter once the line is known to hit, as it goes through JNI.
+        if (near <= far && (character.getCategoryBits() & castMaskBits) != 0
+                && (character.getMaskBits() & PhysicsEntity.PROJECTILE_BITS) != 0) {
+            castFraction = near;
+            castHit = character;
+        }
+    }
+
+    /**
+     * Renders every projectile, between where it was before and after the last step, rotated to the way it is going.
+     *
+     * @param spriteBatch the sprite batch on which to render
+     */
+    public void render(SpriteBatch spriteBatch) {
+        float alpha = parent.getInterpolationAlpha();
+        int width = Assets.projectile.getRegionWidth(), height = Assets.projectile.getRegionHeight();
+        for (int i = 0; i < count; i++) {
+            spriteBatch.draw(Assets.projectile,
+                    MathUtils.lerp(previousX[i], x[i], alpha) - width / 2f, MathUtils.lerp(previousY[i], y[i], alpha) - height / 2f,
+                    width / 2, height / 2, width, height, 1, 1,
+                    MathUtils.atan2(velocityY[i], velocityX[i]) * MathUtils.radiansToDegrees);
+        }
+    }
+
+    /**
+     * @return how many projectiles are in flight
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return the width and height of a projectile, the same as a Projectile's
+     */
+    private float getSize() {
+        return Assets.projectile.getRegionHeight();
+    }
+
+    /**
+     * Removes a projectile by moving the last one into its place.
+     */
+    private void remove(int i) {
+        count--;
+        x[i] = x[count];
+        y[i] = y[count];
+        previousX[i] = previousX[count];
+        previousY[i] = previousY[count];
+        velocityX[i] = velocityX[count];
+        velocityY[i] = velocityY[count];
+        damage[i] = damage[count];
+        maskBits[i] = maskBits[count];
+        owner[i] = owner[count];
+        owner[count] = null;
+    }
+
+    private void resize(int capacity) {
+        x = x == null ? new float[capacity] : Arrays.copyOf(x, capacity);
+        y = y == null ? new float[capacity] : Arrays.copyOf(y, capacity);
+        previousX = previousX == null ? new float[capacity] : Arrays.copyOf(previousX, capacity);
+        previousY = previousY == null ? new float[capacity] : Arrays.copyOf(previousY, capacity);
+        velocityX = velocityX == null ? new float[capacity] : Arrays.copyOf(velocityX, capacity);
+        velocityY = velocityY == null ? new float[capacity] : Arrays.copyOf(velocityY, capacity);
+        damage = damage == null ? new int[capacity] : Arrays.copyOf(damage, capacity);
+        maskBits = maskBits == null ? new int[capacity] : Arrays.copyOf(maskBits, capacity);
+        owner = owner == null ? new PhysicsEntity[capacity] : Arrays.copyOf(owner, capacity);
+    }
+}
@@ -7,7 +7,7 @@ import com.badlogic.gdx.physics.box2d.Manifold;
 import com.superduckinvaders.game.Round;
 
 /**
- * A water block. Lets the player know when to swim.
+ * A region of water. Characters pass through it; whether they swim is looked up with Round.isWater.
  */
 public class WaterEntity extends PhysicsEntity {
 
@@ -16,8 +16,8 @@ public class WaterEntity extends PhysicsEntity {
      * @param parent the parent round.
      * @param x      the initial x position.
      * @param y      the initial y position.
-     * @param width  the block's width.
-     * @param height the block's height.
+     * @param width  the region's width.
+     * @param height the region's height.
      */
     public WaterEntity(Round parent, float x, float y, float width, float height) {
         super(parent, x, y);
@@ -26,20 +26,6 @@ public class WaterEntity extends PhysicsEntity {
         createBody(BodyDef.BodyType.StaticBody, WATER_BITS, (short)(ALL_BITS ^ PROJECTILE_BITS), NO_GROUP, false);
     }
 
-    @Override
-    public void beginCollision(PhysicsEntity other, Contact contact){
-        if (other instanceof Character){
-            ((Character) other).waterBlockCount++;
-        }
-    }
-
-    @Override
-    public void endCollision(PhysicsEntity other, Contact contact){
-        if (other instanceof Character){
-            ((Character) other).waterBlockCount--;
-        }
-    }
-
     @Override
     public void preSolve(PhysicsEntity other, Contact contact, Manifold manifold) {
         super.preSolve(other, contact, manifold);
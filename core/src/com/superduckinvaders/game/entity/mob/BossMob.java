@@ -9,7 +9,8 @@ import com.superduckinvaders.game.objective.BossObjective;
 
 public class BossMob extends Mob {
     public BossMob(Round parent, float x, float y, int health, int speed, int score) {
-        super(parent, x, y, health, speed, score, Assets.bossBadGuy, Assets.bossBadGuy, Assets.bossShadow, new BossAI(parent));
+        // The boss's bursts are many fast bullets, so they are fired as raycast projectiles.
+        super(parent, x, y, health, speed, score, Assets.bossBadGuy, Assets.bossBadGuy, Assets.bossShadow, new BossAI(parent, true));
         disableCollision();
     }
 
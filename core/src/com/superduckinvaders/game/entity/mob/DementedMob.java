@@ -8,15 +8,7 @@ import com.superduckinvaders.game.Round;
 public class DementedMob extends MeleeMob {
     public DementedMob(Round parent, float x, float y, int health, int speed, int score) {
         super(parent, x, y, health, speed, score);
-    }
-
-    @Override
-    public boolean isDemented() {
-        return true;
-    }
-
-    @Override
-    public float getDementedFactor() {
-        return 1f;
+        // Demented for good, at full strength.
+        setDementedTimer(Float.POSITIVE_INFINITY);
     }
 }
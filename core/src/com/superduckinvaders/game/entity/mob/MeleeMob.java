@@ -11,7 +11,7 @@ import com.superduckinvaders.game.entity.Player;
 public class MeleeMob extends Mob {
     public MeleeMob(Round parent, float x, float y, int health, int speed, int score) {
         super(parent, x, y, health, speed, score, Assets.badGuyNormal, Assets.badGuySwimming, Assets.mobShadow, new ZombieAI(parent));
-        createMeleeSensor(25f);
+        setMeleeRange(25f);
     }
 
     public void update(float delta){
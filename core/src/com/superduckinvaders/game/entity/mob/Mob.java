@@ -1,7 +1,6 @@
 
 package com.superduckinvaders.game.entity.mob;
 
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.MathUtils;
@@ -23,7 +22,7 @@ public abstract class Mob extends Character {
      * The texture set to use for this Mob.
      */
     protected TextureSet walkingTextureSet, swimmingTextureSet;
-    protected Texture shadow;
+    protected TextureRegion shadow;
     
     /**
      * AI class for the mob
@@ -31,20 +30,16 @@ public abstract class Mob extends Character {
     private AI ai;
     
     /**
-     * checks whether mob should be updated
+     * The store holding this mob's health, speed, timers and facing, and this mob's slot in it, or -1 once disposed.
      */
-    private boolean active = false;
+    private final MobStore store;
+    int storeIndex;
 
     /**
      * The score this mob will give when killed
      */
     private int score;
 
-    /**
-     * speed of the mob in pixels per second
-     */
-    private int speed;
-
 
     /**
      * Create a Mob
@@ -58,13 +53,14 @@ public abstract class Mob extends Character {
      * @param swimmingTextureSet The textureset of the mob when on water
      * @param ai The ai for the mob
      */
-    public Mob(Round parent, float x, float y, int health, int speed, int score, TextureSet walkingTextureSet, TextureSet swimmingTextureSet, Texture shadow, AI ai) {
-        super(parent, x, y, health);
+    public Mob(Round parent, float x, float y, int health, int speed, int score, TextureSet walkingTextureSet, TextureSet swimmingTextureSet, TextureRegion shadow, AI ai) {
+        super(parent, x, y);
 
+        this.store = parent.getMobStore();
+        this.storeIndex = store.add(this, health, speed);
         this.walkingTextureSet = walkingTextureSet;
         this.swimmingTextureSet = swimmingTextureSet;
         this.shadow = shadow;
-        this.speed = speed;
         this.score = score;
         this.ai = ai;
 
@@ -92,11 +88,113 @@ public abstract class Mob extends Character {
      * @param newSpeed the updated speed
      */
     public void setSpeed(int newSpeed){
-        this.speed = newSpeed;
+        store.speed[storeIndex] = newSpeed;
     }
 
     public float getSpeed(){
-        return this.speed;
+        return store.speed[storeIndex];
+    }
+
+    /**
+     * Sets how long the MobStore moves this Mob on by on this step.
+     * @param stepDelta the time since this Mob was last updated, or 0 if it is not updated on this step
+     */
+    public void setStepDelta(float stepDelta) {
+        store.stepDelta[storeIndex] = stepDelta;
+    }
+
+    /**
+     * @return the time since this Mob was last updated if it is updated on this step, otherwise 0
+     */
+    public float getStepDelta() {
+        return store.stepDelta[storeIndex];
+    }
+
+    @Override
+    public TextureSet.Facing getFacing() {
+        return store.getFacing(storeIndex);
+    }
+
+    @Override
+    public int getCurrentHealth() {
+        return store.health[storeIndex];
+    }
+
+    @Override
+    protected void setCurrentHealth(int health) {
+        store.health[storeIndex] = health;
+    }
+
+    @Override
+    public int getMaximumHealth() {
+        return store.maximumHealth[storeIndex];
+    }
+
+    @Override
+    protected float getMeleeAttackTimer() {
+        return store.meleeAttackTimer[storeIndex];
+    }
+
+    @Override
+    protected void setMeleeAttackTimer(float time) {
+        store.meleeAttackTimer[storeIndex] = time;
+    }
+
+    /**
+     * @return the time since this Mob's last ranged attack, in seconds
+     */
+    protected float getRangedAttackTimer() {
+        return store.rangedAttackTimer[storeIndex];
+    }
+
+    /**
+     * @param time the new time since this Mob's last ranged attack, in seconds
+     */
+    protected void setRangedAttackTimer(float time) {
+        store.rangedAttackTimer[storeIndex] = time;
+    }
+
+    @Override
+    protected float getDementedTimer() {
+        return store.dementedTimer[storeIndex];
+    }
+
+    @Override
+    protected void setDementedTimer(float time) {
+        store.dementedTimer[storeIndex] = time;
+    }
+
+    @Override
+    protected float getDementedOffset() {
+        return store.dementedOffset[storeIndex];
+    }
+
+    /**
+     * Does nothing, as the MobStore moves on the timers, demented wander and facing of every mob updated on a step at once.
+     * @param delta how much time has passed since the last update
+     */
+    @Override
+    protected void updateState(float delta) {
+    }
+
+    /**
+     * Copies the body's position and velocity into this Mob, and the velocity into the MobStore.
+     */
+    @Override
+    public void updateSnapshot() {
+        super.updateSnapshot();
+        store.velocityX[storeIndex] = getVelocityX();
+        store.velocityY[storeIndex] = getVelocityY();
+    }
+
+    /**
+     * Destroys this Mob's body and gives up its slot in the MobStore. The Mob must not be used afterwards.
+     */
+    @Override
+    public void dispose() {
+        super.dispose();
+        store.remove(storeIndex);
+        storeIndex = -1;
     }
 
 
@@ -165,30 +263,22 @@ public abstract class Mob extends Character {
     }
 
     /**
-     * Updates the Mob. Checks for death, updates animation and movement using it's ai
+     * Updates the Mob. Checks for death. Its AI has already been run by the Round's AISystem, and its animation and
+     * timers moved on by the MobStore
      * @param delta how much time has passed since the last update
      */
     @Override
     public void update(float delta) {
-        ai.update(this, delta);
-
         // Chance of spawning a random powerup.
         if (isDead()) {
             onDeath();
         }
 
-        // Update animation state time.
-        if (!getVelocity().isZero(0.1f)) {
-            stateTime += delta;
-        } else {
-            stateTime = 0;
-        }
-
         super.update(delta);
     }
 
     public void applyVelocity(Vector2 destination){
-        Vector2 velocity = destination.sub(getCentre())
+        Vector2 velocity = destination.sub(getCentreX(), getCentreY())
                 .setLength(getSpeed());
 //        if (isStunned()){
 //            velocity.scl(0.4f);
@@ -202,15 +292,14 @@ public abstract class Mob extends Character {
      */
     @Override
     public void render(SpriteBatch spriteBatch) {
-        Vector2 pos = getPosition().cpy();
-
-        Vector2 shadowPos = getCentre().cpy().add(0, -getHeight()/2)
-                .add(-shadow.getWidth()/2, -shadow.getHeight()/2);
+        float x = getRenderX(), y = getRenderY();
+        float shadowX = x + getWidth()/2 - shadow.getRegionWidth()/2;
+        float shadowY = y - shadow.getRegionHeight()/2;
 
         TextureRegion texture = (isOnWater() ? swimmingTextureSet : walkingTextureSet)
-                .getTexture(facing, stateTime);
+                .getTexture(getFacing(), store.stateTime[storeIndex]);
 
-        spriteBatch.draw(shadow, shadowPos.x, shadowPos.y);
-        spriteBatch.draw(texture, pos.x, pos.y);
+        spriteBatch.draw(shadow, shadowX, shadowY);
+        spriteBatch.draw(texture, x, y);
     }
 }
@@ -0,0 +1,203 @@
+package com.superduckinvaders.game.entity.mob;
+
+import com.badlogic.gdx.math.Vector2;
+import com.superduckinvaders.game.assets.TextureSet;
+import com.superduckinvaders.game.entity.Character;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the state of every mob in a Round that changes each step, in parallel arrays indexed by the mob's slot.
+ * A Mob is a handle holding its slot, and reads and writes its state here. Slots are kept packed at the front of the
+ * arrays: removing a mob moves the last mob into its slot and tells that mob its new slot.
+ * The timers, animation time, demented wander and facing of every mob updated on a step are moved on together in update, as
+ * plain loops over the arrays, rather than by each Mob in turn.
+ */
+public class MobStore {
+
+    /**
+     * The facings, by index, to turn the stored indices back into Facings.
+     */
+    private static final TextureSet.Facing[] FACINGS = TextureSet.Facing.values();
+
+    /**
+     * The mob in each slot.
+     */
+    Mob[] mobs;
+
+    /**
+     * The current and maximum health and the speed of each mob.
+     */
+    int[] health, maximumHealth, speed;
+
+    /**
+     * The velocity of each mob as of the last simulation step, in pixels per second.
+     */
+    float[] velocityX, velocityY;
+
+    /**
+     * The animation state time of each mob, and the time since its last melee and ranged attacks.
+     */
+    float[] stateTime, meleeAttackTimer, rangedAttackTimer;
+
+    /**
+     * How long each mob is still demented for, and the angle its movement is turned by while it is.
+     */
+    float[] dementedTimer, dementedOffset, dementedLerpTimer, dementedLerpValue;
+
+    /**
+     * The index of the direction each mob is facing.
+     */
+    byte[] facing;
+
+    /**
+     * How long to move each mob on by on this step, or 0 if it is not updated on this step.
+     */
+    float[] stepDelta;
+
+    /**
+     * How many mobs there are. They fill the first slots.
+     */
+    private int count = 0;
+
+    /**
+     * Creates an empty MobStore.
+     */
+    public MobStore() {
+        resize(64);
+    }
+
+    /**
+     * Adds a mob, with full health, standing still and facing forwards.
+     *
+     * @param mob    the mob
+     * @param health the maximum (and initial) health of the mob
+     * @param speed  the speed of the mob in pixels per second
+     * @return the mob's slot
+     */
+    public int add(Mob mob, int health, int speed) {
+        if (count == mobs.length) {
+            resize(count * 2);
+        }
+        int i = count++;
+        mobs[i] = mob;
+        this.health[i] = maximumHealth[i] = health;
+        this.speed[i] = speed;
+        velocityX[i] = velocityY[i] = 0;
+        stateTime[i] = meleeAttackTimer[i] = rangedAttackTimer[i] = 0;
+        dementedTimer[i] = dementedOffset[i] = dementedLerpTimer[i] = dementedLerpValue[i] = 0;
+        facing[i] = (byte) TextureSet.Facing.FRONT.index();
+        stepDelta[i] = 0;
+        return i;
+    }
+
+    /**
+     * Removes the mob in a slot, moving the last mob into it.
+     *
+     * @param i the slot to empty
+     */
+    public void remove(int i) {
+        int last = --count;
+        if (i != last) {
+            mobs[i] = mobs[last];
+            health[i] = health[last];
+            maximumHealth[i] = maximumHealth[last];
+            speed[i] = speed[last];
+            velocityX[i] = velocityX[last];
+            velocityY[i] = velocityY[last];
+            stateTime[i] = stateTime[last];
+            meleeAttackTimer[i] = meleeAttackTimer[last];
+            rangedAttackTimer[i] = rangedAttackTimer[last];
+            dementedTimer[i] = dementedTimer[last];
+            dementedOffset[i] = dementedOffset[last];
+            dementedLerpTimer[i] = dementedLerpTimer[last];
+            dementedLerpValue[i] = dementedLerpValue[last];
+            facing[i] = facing[last];
+            stepDelta[i] = stepDelta[last];
+            if (mobs[i] != null) {
+                mobs[i].storeIndex = i;
+            }
+        }
+        mobs[last] = null;
+    }
+
+    /**
+     * Moves on the timers, animation time, demented wander and facing of every mob updated on this step, each by its
+     * own step delta. Mobs further from the player are updated less often, by longer steps.
+     */
+    public void update() {
+        int count = this.count;
+
+        for (int i = 0; i < count; i++) {
+            meleeAttackTimer[i] += stepDelta[i];
+            rangedAttackTimer[i] += stepDelta[i];
+        }
+
+        for (int i = 0; i < count; i++) {
+            if (stepDelta[i] > 0) {
+                stateTime[i] = Vector2.len2(velocityX[i], velocityY[i]) >= 0.1f ? stateTime[i] + stepDelta[i] : 0;
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            float delta = stepDelta[i];
+            if (delta <= 0 || dementedTimer[i] <= 0) {
+                continue;
+            }
+            dementedTimer[i] -= delta;
+            dementedLerpTimer[i] += delta;
+            if (dementedLerpTimer[i] > 1f) {
+                dementedLerpTimer[i] = 0f;
+                dementedLerpValue[i] = (float) ((Math.random() - 0.5) * 2 * (Math.PI * 1.5f * Character.dementedFactor(dementedTimer[i])));
+            }
+            dementedOffset[i] = (dementedLerpValue[i] - dementedOffset[i]) * dementedLerpTimer[i];
+        }
+
+        for (int i = 0; i < count; i++) {
+            if (stepDelta[i] <= 0) {
+                continue;
+            }
+            float absX = Math.abs(velocityX[i]), absY = Math.abs(velocityY[i]);
+            if (absY > absX) {
+                facing[i] = (byte) (velocityY[i] > 0 ? TextureSet.Facing.BACK : TextureSet.Facing.FRONT).index();
+            } else if (absY < absX) {
+                facing[i] = (byte) (velocityX[i] > 0 ? TextureSet.Facing.RIGHT : TextureSet.Facing.LEFT).index();
+            }
+        }
+    }
+
+    /**
+     * @return how many mobs there are
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Gets the direction the mob in a slot is facing.
+     *
+     * @param i the slot
+     * @return the direction
+     */
+    TextureSet.Facing getFacing(int i) {
+        return FACINGS[facing[i]];
+    }
+
+    private void resize(int capacity) {
+        mobs = mobs == null ? new Mob[capacity] : Arrays.copyOf(mobs, capacity);
+        health = health == null ? new int[capacity] : Arrays.copyOf(health, capacity);
+        maximumHealth = maximumHealth == null ? new int[capacity] : Arrays.copyOf(maximumHealth, capacity);
+        speed = speed == null ? new int[capacity] : Arrays.copyOf(speed, capacity);
+        velocityX = velocityX == null ? new float[capacity] : Arrays.copyOf(velocityX, capacity);
+        velocityY = velocityY == null ? new float[capacity] : Arrays.copyOf(velocityY, capacity);
+        stateTime = stateTime == null ? new float[capacity] : Arrays.copyOf(stateTime, capacity);
+        meleeAttackTimer = meleeAttackTimer == null ? new float[capacity] : Arrays.copyOf(meleeAttackTimer, capacity);
+        rangedAttackTimer = rangedAttackTimer == null ? new float[capacity] : Arrays.copyOf(rangedAttackTimer, capacity);
+        dementedTimer = dementedTimer == null ? new float[capacity] : Arrays.copyOf(dementedTimer, capacity);
+        dementedOffset = dementedOffset == null ? new float[capacity] : Arrays.copyOf(dementedOffset, capacity);
+        dementedLerpTimer = dementedLerpTimer == null ? new float[capacity] : Arrays.copyOf(dementedLerpTimer, capacity);
+        dementedLerpValue = dementedLerpValue == null ? new float[capacity] : Arrays.copyOf(dementedLerpValue, capacity);
+        facing = facing == null ? new byte[capacity] : Arrays.copyOf(facing, capacity);
+        stepDelta = stepDelta == null ? new float[capacity] : Arrays.copyOf(stepDelta, capacity);
+    }
+}
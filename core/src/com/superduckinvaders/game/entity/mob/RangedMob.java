@@ -25,10 +25,10 @@ public class RangedMob extends Mob {
         float distanceFromPlayer = distanceTo(playerPos);
 
         //Update timers
-        if(rangedAttackTimer > RANGED_ATTACK_COOLDOWN && distanceFromPlayer <= RANGE) {
+        if(getRangedAttackTimer() > RANGED_ATTACK_COOLDOWN && distanceFromPlayer <= RANGE) {
             if (parent.rayCast(getCentre(), playerPos)) {
                 fireAt(vectorTo(playerPos).setLength(PROJECTILE_SPEED));
-                rangedAttackTimer = 0;
+                setRangedAttackTimer(0);
             }
         }
     }
@@ -10,10 +10,9 @@ import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.glutils.FrameBuffer;
 import com.badlogic.gdx.graphics.glutils.ShaderProgram;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
-import com.badlogic.gdx.maps.tiled.TiledMapTile;
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
 import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
-import com.badlogic.gdx.maps.tiled.TiledMapTileSet;
-import com.badlogic.gdx.maps.tiled.renderers.OrthogonalTiledMapRenderer;
+import com.badlogic.gdx.maps.tiled.tiles.AnimatedTiledMapTile;
 import com.badlogic.gdx.math.Matrix4;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
@@ -23,17 +22,19 @@ import com.badlogic.gdx.utils.viewport.FitViewport;
 import com.badlogic.gdx.utils.viewport.Viewport;
 import com.superduckinvaders.game.DuckGame;
 import com.superduckinvaders.game.Round;
+import com.superduckinvaders.game.ai.PathScheduler;
 import com.superduckinvaders.game.ai.PathfindingAI;
 import com.superduckinvaders.game.assets.Assets;
+import com.superduckinvaders.game.ecs.Mappers;
 import com.superduckinvaders.game.entity.*;
 import com.superduckinvaders.game.entity.mob.*;
+import com.superduckinvaders.game.util.CustomContactListener;
 import com.superduckinvaders.game.util.KeySequenceListener;
+import com.superduckinvaders.game.util.TileChunkCache;
+import com.superduckinvaders.game.util.TrackedPool;
 import com.superduckinvaders.game.ui.Minimap;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Screen for interaction with the game.
@@ -55,9 +56,14 @@ public class GameScreen extends ScreenAdapter {
     public Viewport uiViewport;
 
     /**
-     * The renderer for the tile map.
+     * The tile map's layers that never change, baked into chunks, with the water tiles left out of the base layer.
      */
-    public OrthogonalTiledMapRenderer mapRenderer;
+    private TileChunkCache tileCache;
+
+    /**
+     * The groups of layers in the tile cache, drawn under the water, over the water and over entities.
+     */
+    private int belowWaterGroup, aboveWaterGroup, overhangGroup;
 
     /**
      * The sprite batches for rendering.
@@ -74,21 +80,6 @@ public class GameScreen extends ScreenAdapter {
      */
     private final float PLAYER_CAMERA_BOUND = 8f;
 
-    /**
-     * A list of water cells in the map.
-     */
-    ArrayList<TiledMapTileLayer.Cell> waterCellsInScene;
-
-    /**
-     * A map of water tiles.
-     */
-    Map<String,TiledMapTile> waterTiles;
-
-    /**
-     * The time that has elapsed since the animation.
-     */
-    float elapsedSinceAnimation = 0.0f;
-
     /**
      * A timer for the current round.
      */
@@ -99,9 +90,10 @@ public class GameScreen extends ScreenAdapter {
      */
     private int level;
 
-    //initialise lists once for efficiency
-    public List<Mob> mobs = new ArrayList<>();
-    public List<Mob> dementedMobs = new ArrayList<>();
+    /**
+     * How far off screen an entity can be and still have part of its sprite, shadow or health bar on screen, in pixels.
+     */
+    private static final float CULL_MARGIN = 64;
 
     Box2DDebugRenderer debugRenderer;
     Matrix4 debugMatrix;
@@ -109,7 +101,7 @@ public class GameScreen extends ScreenAdapter {
     ShapeRenderer shapeRenderer;
 
     ShaderProgram shaderDistort;
-    ShaderProgram shaderColor;
+    TileChunkCache.Shader shaderColor;
 
     FrameBuffer frameBuffer;
     FrameBuffer accFrameBuffer;
@@ -118,6 +110,11 @@ public class GameScreen extends ScreenAdapter {
 
     float shaderTimer = 0f;
 
+    /**
+     * How many draw calls and texture binds the last frame made, counted by the GL profiler when debugging.
+     */
+    private int lastDrawCalls = 0, lastTextureBindings = 0;
+
 
 
 
@@ -143,13 +140,11 @@ public class GameScreen extends ScreenAdapter {
 
         minimap = new Minimap(this, 20, 20, 250, 250);
 
-        minimap.initialise(spriteBatch);
-
         shaderDistort = new ShaderProgram(Gdx.files.internal("shaders/default.vsh"), Gdx.files.internal("shaders/distort.fsh"));
         if (!shaderDistort.isCompiled())
             System.out.print(shaderDistort.getLog());
 
-        shaderColor = new ShaderProgram(Gdx.files.internal("shaders/default.vsh"), Gdx.files.internal("shaders/colour.fsh"));
+        shaderColor = new TileChunkCache.Shader(Gdx.files.internal("shaders/default.vsh"), Gdx.files.internal("shaders/colour.fsh"));
         if (!shaderColor.isCompiled())
             System.out.print(shaderColor.getLog());
 
@@ -159,40 +154,15 @@ public class GameScreen extends ScreenAdapter {
 //        camera.zoom -= 0.5;
 
 
-        mapRenderer = new OrthogonalTiledMapRenderer(round.getMap(), spriteBatch);
-
-        // We created a second set of tiles for Water animations
-        // For the record, this is bad for performance, use a single tileset if you can help it
-        // Get a reference to the tileset named "Water"
-        TiledMapTileSet tileset =  round.getMap().getTileSets().getTileSet("Tileset");
+        TiledMapTileLayer baseLayer = round.getBaseLayer();
+        tileCache = new TileChunkCache(baseLayer.getWidth(), baseLayer.getHeight(), round.getTileWidth(), round.getTileHeight());
+        belowWaterGroup = tileCache.addGroup(round.getWaterGrid(), baseLayer);
+        aboveWaterGroup = tileCache.addGroup(null, round.getCollisionLayer(), round.getWaterEdgeLayer(), round.getObstaclesLayer());
+        overhangGroup = tileCache.addGroup(null, round.getOverhangLayer());
+        tileCache.build();
 
-
-        // Now we are going to loop through all of the tiles in the Water tileset
-        // and get any TiledMapTile with the property "WaterFrame" set
-        // We then store it in a map with the frame as the key and the Tile as the value
-        waterTiles = new HashMap<>();
-        for(TiledMapTile tile:tileset){
-            Object property = tile.getProperties().get("water");
-            if(property != null)
-                waterTiles.put((String)property,tile);
-        }
-
-        // Now we want to get a reference to every single cell ( Tile instance ) in the map
-        // that refers to a water cell.  Loop through the entire world, checking if a cell's tile
-        // contains the WaterFrame property.  If it does, add to the waterCellsInScene array
-        // Note, this only pays attention to the very first layer of tiles.
-        // If you want to support animation across multiple layers you will have to loop through each
-        waterCellsInScene = new ArrayList<>();
-        TiledMapTileLayer layer = (TiledMapTileLayer) round.getMap().getLayers().get(0);
-        for(int x = 0; x < layer.getWidth();x++){
-            for(int y = 0; y < layer.getHeight();y++){
-                TiledMapTileLayer.Cell cell = layer.getCell(x,y);
-                Object property = cell.getTile().getProperties().get("water");
-                if(property != null){
-                    waterCellsInScene.add(cell);
-                }
-            }
-        }
+        // The minimap bakes its image of the map from the tile cache.
+        minimap.initialise(spriteBatch);
     }
 
     /**
@@ -200,6 +170,10 @@ public class GameScreen extends ScreenAdapter {
      */
     @Override
     public void show() {
+        if (DuckGame.DEBUGGING) {
+            GLProfiler.enable();
+        }
+
         // Setup input
         InputMultiplexer inputMultiplexer = new InputMultiplexer();
 
@@ -261,23 +235,53 @@ public class GameScreen extends ScreenAdapter {
 //        fbBatch = new SpriteBatch();
     }
 
-    public void renderMapLower(){
-        // Render base and collision layers.
-        mapRenderer.renderTileLayer(round.getBaseLayer());
-        mapRenderer.renderTileLayer(round.getCollisionLayer());
-        mapRenderer.renderTileLayer(round.getWaterEdgeLayer());
-
-        // Render randomly-chosen obstacles layer.
-        if (round.getObstaclesLayer() != null) {
-            mapRenderer.renderTileLayer(round.getObstaclesLayer());
-        }
+    /**
+     * Draws the map under entities: the base layer, the water, then the collision, water edge and obstacles layers.
+     * The batch must not be drawing.
+     *
+     * @param camera the camera to draw with
+     * @param shader the shader to draw with, or null for the default
+     */
+    public void renderMapLower(OrthographicCamera camera, TileChunkCache.Shader shader) {
+        float x = camera.position.x - camera.viewportWidth * camera.zoom / 2;
+        float y = camera.position.y - camera.viewportHeight * camera.zoom / 2;
+        float width = camera.viewportWidth * camera.zoom, height = camera.viewportHeight * camera.zoom;
+
+        beginTileCache(camera, shader);
+        tileCache.draw(belowWaterGroup, x, y, width, height);
+        tileCache.end();
+
+        // Water is the only thing that changes, so it is drawn as it is now.
+        spriteBatch.setShader(shader);
+        spriteBatch.setProjectionMatrix(camera.combined);
+        spriteBatch.begin();
+        tileCache.drawCells(spriteBatch, round.getBaseLayer(), round.getWaterGrid(), x, y, width, height);
+        spriteBatch.end();
 
+        beginTileCache(camera, shader);
+        tileCache.draw(aboveWaterGroup, x, y, width, height);
+        tileCache.end();
     }
 
-    public void renderMapOverhang(){
+    /**
+     * Draws the overhang layer, over entities. The batch must not be drawing.
+     *
+     * @param camera the camera to draw with
+     * @param shader the shader to draw with, or null for the default
+     */
+    public void renderMapOverhang(OrthographicCamera camera, TileChunkCache.Shader shader) {
+        beginTileCache(camera, shader);
+        tileCache.draw(overhangGroup, camera.position.x - camera.viewportWidth * camera.zoom / 2,
+                camera.position.y - camera.viewportHeight * camera.zoom / 2,
+                camera.viewportWidth * camera.zoom, camera.viewportHeight * camera.zoom);
+        tileCache.end();
+    }
 
-        if (round.getOverhangLayer() != null) {
-            mapRenderer.renderTileLayer(round.getOverhangLayer());
+    private void beginTileCache(OrthographicCamera camera, TileChunkCache.Shader shader) {
+        tileCache.begin(camera.combined, shader);
+        // The colour shader is bound now, so its factor is set for the map as the batch sets it for entities.
+        if (shader == shaderColor) {
+            shaderColor.setUniformf("factor", round.getPlayer().getDementedFactor());
         }
     }
 
@@ -292,6 +296,27 @@ public class GameScreen extends ScreenAdapter {
         Assets.font.draw(spriteBatch, "Score: " + round.getPlayer().getScore(), 10, 680);
         Assets.font.draw(spriteBatch, Gdx.graphics.getFramesPerSecond() + " FPS", DuckGame.GAME_WIDTH-10, DuckGame.GAME_HEIGHT-10, 0, Align.right, false);
 
+        if (DuckGame.DEBUGGING) {
+            PathScheduler paths = round.getPathScheduler();
+            Assets.font.draw(spriteBatch, String.format("Paths: %d queued, %.1f ms wait", paths.getQueueDepth(), paths.getAverageWait()),
+                    DuckGame.GAME_WIDTH-10, DuckGame.GAME_HEIGHT-40, 0, Align.right, false);
+            TrackedPool<Projectile> projectiles = round.getProjectilePool();
+            Assets.font.draw(spriteBatch, String.format("Projectiles: %d live, %d peak, %d reused, %d made, %d raycast",
+                    projectiles.getInUse(), projectiles.getHighWater(), projectiles.getHits(), projectiles.getMisses(),
+                    round.getRaycastProjectiles().getCount()),
+                    DuckGame.GAME_WIDTH-10, DuckGame.GAME_HEIGHT-70, 0, Align.right, false);
+            CustomContactListener contacts = round.getContactListener();
+            Assets.font.draw(spriteBatch, String.format("Contacts: %d heard, %d ignored, %d mob-world",
+                    contacts.getHeardCount(), contacts.getIgnoredCount(),
+                    contacts.getContactCount(PhysicsEntity.MOB_BITS, PhysicsEntity.WORLD_BITS)),
+                    DuckGame.GAME_WIDTH-10, DuckGame.GAME_HEIGHT-100, 0, Align.right, false);
+            Assets.font.draw(spriteBatch, String.format("GL: %d draw calls, %d texture binds", lastDrawCalls, lastTextureBindings),
+                    DuckGame.GAME_WIDTH-10, DuckGame.GAME_HEIGHT-130, 0, Align.right, false);
+            Assets.font.draw(spriteBatch, String.format("Entities: %d drawn of %d", round.getRenderSystem().getVisibleCount(),
+                    round.getRenderSystem().getCount()),
+                    DuckGame.GAME_WIDTH-10, DuckGame.GAME_HEIGHT-160, 0, Align.right, false);
+        }
+
         // Draw stamina bar (for flight);
         spriteBatch.draw(Assets.staminaEmpty, 1080, 10);
         if (round.getPlayer().getFlyingTimer() > 0) {
@@ -319,42 +344,59 @@ public class GameScreen extends ScreenAdapter {
         // Draw round text at start of round.
         if (roundTimer < 3f) {
             roundTimer += delta;
-            spriteBatch.draw(Assets.roundText, (DuckGame.GAME_WIDTH - Assets.roundText.getWidth() - Assets.roundNums[level].getWidth())/2,
-                    (DuckGame.GAME_HEIGHT - Assets.roundText.getHeight())/2);
-            spriteBatch.draw(Assets.roundNums[level], (DuckGame.GAME_WIDTH + Assets.roundText.getWidth())/2,
-                    (DuckGame.GAME_HEIGHT - Assets.roundText.getHeight())/2);
+            spriteBatch.draw(Assets.roundText, (DuckGame.GAME_WIDTH - Assets.roundText.getRegionWidth() - Assets.roundNums[level].getRegionWidth())/2,
+                    (DuckGame.GAME_HEIGHT - Assets.roundText.getRegionHeight())/2);
+            spriteBatch.draw(Assets.roundNums[level], (DuckGame.GAME_WIDTH + Assets.roundText.getRegionWidth())/2,
+                    (DuckGame.GAME_HEIGHT - Assets.roundText.getRegionHeight())/2);
         }
     }
 
     public void renderHealthBars(){
-        //Render health bars above enemies
-        for (Mob mob : mobs) {
-            float offsetX = mob.getX() * 2 - mob.getWidth() / 2;
-            float offsetY = mob.getY() * 2 + mob.getHeight() * 2;
-
-            // don't like but cba fixing - damn you pochard.
-            if (mob instanceof BossMob) {
-                offsetX += 40;
-                offsetY += 15;
-            } else if (mob instanceof RangedMob) {
-                offsetX -= 5;
-                offsetY += 30;
-            } else {
-                offsetX -= 17;
-                offsetY += 10;
+        //Render health bars above enemies on screen
+        List<com.badlogic.ashley.core.Entity> visible = round.getRenderSystem().getVisible();
+        for (int i = 0; i < visible.size(); i++) {
+            Entity entity = Mappers.ENTITY.get(visible.get(i)).entity;
+            if (entity instanceof Mob && !entity.isRemoved()) {
+                renderHealthBar((Mob) entity);
             }
+        }
+    }
 
-            spriteBatch.draw(Assets.healthEmpty, offsetX, offsetY);
-            Assets.healthFull.setRegionWidth((int) Math.max(0, ((float) mob.getCurrentHealth() / mob.getMaximumHealth()) * 100));
-            spriteBatch.draw(Assets.healthFull, offsetX, offsetY);
+    /**
+     * Renders the health bar above a mob on screen.
+     *
+     * @param mob the mob
+     */
+    private void renderHealthBar(Mob mob) {
+        float offsetX = mob.getRenderX() * 2 - mob.getWidth() / 2;
+        float offsetY = mob.getRenderY() * 2 + mob.getHeight() * 2;
+
+        // don't like but cba fixing - damn you pochard.
+        if (mob instanceof BossMob) {
+            offsetX += 40;
+            offsetY += 15;
+        } else if (mob instanceof RangedMob) {
+            offsetX -= 5;
+            offsetY += 30;
+        } else {
+            offsetX -= 17;
+            offsetY += 10;
         }
+
+        spriteBatch.draw(Assets.healthEmpty, offsetX, offsetY);
+        Assets.healthFull.setRegionWidth((int) Math.max(0, ((float) mob.getCurrentHealth() / mob.getMaximumHealth()) * 100));
+        spriteBatch.draw(Assets.healthFull, offsetX, offsetY);
     }
 
     public void renderPathfinding(){
         shapeRenderer.setProjectionMatrix(camera.combined.cpy());
         shapeRenderer.begin(ShapeRenderer.ShapeType.Line);
 
-        for (Mob mob : mobs) {
+        for (com.badlogic.ashley.core.Entity ecsEntity : round.getAISystem().getMobs()) {
+            Mob mob = Mappers.AI.get(ecsEntity).mob;
+            if (!(mob.getAI() instanceof PathfindingAI)) {
+                continue;
+            }
             PathfindingAI.Coordinate c = ((PathfindingAI) mob.getAI()).target;
             List<PathfindingAI.SearchNode> l = ((PathfindingAI) mob.getAI()).path_DEBUG;
             shapeRenderer.setColor(1, 0, 1, 1);
@@ -395,10 +437,17 @@ public class GameScreen extends ScreenAdapter {
      */
     @Override
     public void render(float delta) {
+        if (DuckGame.DEBUGGING) {
+            lastDrawCalls = GLProfiler.drawCalls;
+            lastTextureBindings = GLProfiler.textureBindings;
+            GLProfiler.reset();
+        }
+
         round.update(delta);
         updateShaderUniforms(delta);
         minimap.updatePosition(round.getPlayer().getCentre());
-        updateWaterAnimations(delta);
+        // Move the animated water tiles on, as the map renderer did when it drew them.
+        AnimatedTiledMapTile.updateAnimationBaseTime();
         // Centre the camera on the player.
         updateCamera();
 
@@ -415,48 +464,37 @@ public class GameScreen extends ScreenAdapter {
         debugMatrix.scale(PhysicsEntity.PIXELS_PER_METRE, PhysicsEntity.PIXELS_PER_METRE, 1f);
 
 
-        mobs.clear();
-        dementedMobs.clear();
-
         boolean isDemented = round.getPlayer().isDemented();
         float playerDementedFactor = round.getPlayer().getDementedFactor();
 
-        // Draw all entities.
-        spriteBatch.begin();
-
-        spriteBatch.setShader(isDemented ? shaderColor : null);
-        shaderColor.setUniformf("factor", playerDementedFactor);
-
+        renderMapLower(camera, isDemented ? shaderColor : null);
 
-        mapRenderer.setView(camera);
-        renderMapLower();
+        // Only entities on screen are drawn, and only mobs on screen get health bars.
+        round.getRenderSystem().cull(camera.position.x - camera.viewportWidth * camera.zoom / 2 - CULL_MARGIN,
+                camera.position.y - camera.viewportHeight * camera.zoom / 2 - CULL_MARGIN,
+                camera.viewportWidth * camera.zoom + CULL_MARGIN * 2, camera.viewportHeight * camera.zoom + CULL_MARGIN * 2);
 
+        // Draw all entities.
+        spriteBatch.setShader(isDemented ? shaderColor : null);
         spriteBatch.setProjectionMatrix(camera.combined.cpy());
+        spriteBatch.begin();
+        shaderColor.setUniformf("factor", playerDementedFactor);
 
-        for (Entity entity : round.getEntities()) {
-            if (entity instanceof Mob) {
-                Mob mob = (Mob)entity;
-                mobs.add(mob);
-
-                if (mob.isDemented()) {
-                    dementedMobs.add(mob);
-                    continue; // do not render demented mobs yet
-                }
-            }
-
-            entity.render(spriteBatch);
-        }
+        // Demented mobs are drawn after everything else, with their own shader.
+        round.getRenderSystem().render(spriteBatch, false);
 
         spriteBatch.setShader(shaderColor);
         shaderColor.setUniformf("factor", 1);
-        for (Mob mob : dementedMobs)
-            mob.render(spriteBatch);
+        round.getRenderSystem().render(spriteBatch, true);
 
         spriteBatch.setShader(isDemented ? shaderColor : null);
         shaderColor.setUniformf("factor", playerDementedFactor);
+        round.getRaycastProjectiles().render(spriteBatch);
+        spriteBatch.end();
 
-        renderMapOverhang();
+        renderMapOverhang(camera, isDemented ? shaderColor : null);
 
+        spriteBatch.begin();
 
         spriteBatch.setProjectionMatrix(camera.combined.cpy().scl(0.5f));
         round.floatyNumbersManager.render(spriteBatch);
@@ -516,30 +554,6 @@ public class GameScreen extends ScreenAdapter {
         viewport.apply();
     }
 
-    /**
-     * Called every half a second to update animated water tiles.
-     */
-    private void updateWaterAnimations(float delta){
-        // Wait for half a second to elapse then call updateWaterAnimations
-        // This could certainly be handled using an Action if you are using Scene2D
-        elapsedSinceAnimation += delta;
-        if(elapsedSinceAnimation > 0.5f){
-            for(TiledMapTileLayer.Cell cell : waterCellsInScene){
-                String property = (String) cell.getTile().getProperties().get("water");
-                Integer currentAnimationFrame = Integer.parseInt(property);
-
-                currentAnimationFrame++;
-                if(currentAnimationFrame > waterTiles.size())
-                    currentAnimationFrame = 1;
-
-                TiledMapTile newTile = waterTiles.get(currentAnimationFrame.toString());
-                cell.setTile(newTile);
-            }
-            elapsedSinceAnimation = 0.0f;
-        }
-    }
-
-
     /**
      * Updates the camera to be constrained to the player and to stay within the map.
      */
@@ -551,16 +565,16 @@ public class GameScreen extends ScreenAdapter {
         Vector2 playerSize = player.getSize();
 
 //      Constrain camera to player
-        if ((player.getX() + player.getWidth() > camera.position.x + camera.viewportWidth / PLAYER_CAMERA_BOUND))
-            camera.position.x = ((player.getX() + player.getWidth())) - (camera.viewportWidth / PLAYER_CAMERA_BOUND);
-        if ((player.getX() < camera.position.x - camera.viewportWidth / PLAYER_CAMERA_BOUND))
-            camera.position.x = (player.getX()) + (camera.viewportWidth / PLAYER_CAMERA_BOUND);
+        if ((player.getRenderX() + player.getWidth() > camera.position.x + camera.viewportWidth / PLAYER_CAMERA_BOUND))
+            camera.position.x = ((player.getRenderX() + player.getWidth())) - (camera.viewportWidth / PLAYER_CAMERA_BOUND);
+        if ((player.getRenderX() < camera.position.x - camera.viewportWidth / PLAYER_CAMERA_BOUND))
+            camera.position.x = (player.getRenderX()) + (camera.viewportWidth / PLAYER_CAMERA_BOUND);
 
 
-        if ((player.getY() + player.getHeight() > camera.position.y + camera.viewportHeight / PLAYER_CAMERA_BOUND))
-            camera.position.y = ((player.getY() + player.getHeight())) - (camera.viewportHeight / PLAYER_CAMERA_BOUND);
-        if ((player.getY() < camera.position.y - camera.viewportHeight / PLAYER_CAMERA_BOUND))
-            camera.position.y = (player.getY()) + (camera.viewportHeight / PLAYER_CAMERA_BOUND);
+        if ((player.getRenderY() + player.getHeight() > camera.position.y + camera.viewportHeight / PLAYER_CAMERA_BOUND))
+            camera.position.y = ((player.getRenderY() + player.getHeight())) - (camera.viewportHeight / PLAYER_CAMERA_BOUND);
+        if ((player.getRenderY() < camera.position.y - camera.viewportHeight / PLAYER_CAMERA_BOUND))
+            camera.position.y = (player.getRenderY()) + (camera.viewportHeight / PLAYER_CAMERA_BOUND);
 
 //      Constrain camera to map
         if (camera.position.x + camera.viewportWidth / 2f > round.getMapWidth())
@@ -593,7 +607,8 @@ public class GameScreen extends ScreenAdapter {
      */
     @Override
     public void dispose() {
-        mapRenderer.dispose();
+        tileCache.dispose();
+        minimap.dispose();
         spriteBatch.dispose();
         shaderColor.dispose();
         shaderDistort.dispose();
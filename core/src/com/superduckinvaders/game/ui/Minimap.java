@@ -6,22 +6,35 @@ import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.glutils.FrameBuffer;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
-import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.BufferUtils;
+import com.badlogic.gdx.utils.Disposable;
 import com.badlogic.gdx.utils.viewport.Viewport;
 import com.superduckinvaders.game.DuckGame;
 import com.superduckinvaders.game.screen.GameScreen;
 import com.superduckinvaders.game.assets.Assets;
+import com.superduckinvaders.game.util.SpatialHash;
+import com.superduckinvaders.game.entity.Entity;
+import com.superduckinvaders.game.entity.Player;
 import com.superduckinvaders.game.entity.mob.Mob;
 
+import java.nio.ByteBuffer;
+
 /**
  * Created by james on 19/04/16.
  */
-public class Minimap {
+public class Minimap implements Disposable {
 
     static float UPDATE_FOW_INTERVAL = 1/25f;
 
+    static float MOB_DOT_RADIUS = 10f;
+
+    /**
+     * The biggest the baked map image can be on either side, in pixels.
+     */
+    static int MAX_MAP_TEXTURE_SIZE = 4096;
+
     float FOWCounter = 0;
 
     GameScreen gameScreen;
@@ -42,14 +55,57 @@ public class Minimap {
     int mapWidth;
     int mapHeight;
     int maskScale = 8;
-    
+
     int maskWidth;
     int maskHeight;
 
-    FrameBuffer maskBuffer;
+    /**
+     * The whole map drawn once at the size it is shown on the minimap.
+     */
+    FrameBuffer mapImage;
+
+    /**
+     * How opaque the fog is over each maskScale by maskScale patch of the map, row by row from the bottom. The fog
+     * starts opaque and is multiplied by the radius image around the player, as the mask used to be blended.
+     */
+    byte[] fog;
+
+    /**
+     * The radius image's alpha, row by row, to multiply the fog by.
+     */
+    byte[] radius;
+    int radiusWidth;
+    int radiusHeight;
+
+    /**
+     * The fog as a white texture with the fog as its alpha, and the rows of it that have changed since it was last
+     * uploaded, or -1 if none have.
+     */
+    Texture fogTexture;
+    int dirtyRowMin = -1;
+    int dirtyRowMax = -1;
+
+    /**
+     * Holds the changed rows of the fog as luminance and alpha while they are uploaded.
+     */
+    ByteBuffer fogUpload;
 
     FrameBuffer mapBuffer;
 
+    /**
+     * The shape renderer the mob dots are being drawn with.
+     */
+    ShapeRenderer dotRenderer;
+
+    /**
+     * Draws a dot for each mob the spatial hash finds on the minimap. Made once, so it makes no garbage.
+     */
+    SpatialHash.Visitor<Entity> renderMobDot = entity -> {
+        if (entity instanceof Mob && !entity.isRemoved()) {
+            dotRenderer.circle(entity.getCentreX(), entity.getCentreY(), MOB_DOT_RADIUS);
+            dotRenderer.x(entity.getCentreX(), entity.getCentreY(), MOB_DOT_RADIUS / 2);
+        }
+    };
 
 
     public Minimap(GameScreen gameScreen, int x, int y, int width, int height){
@@ -74,7 +130,7 @@ public class Minimap {
 
         mapWidth = gameScreen.getRound().getMapWidth();
         mapHeight = gameScreen.getRound().getMapHeight();
-        
+
         maskWidth = mapWidth / maskScale;
         maskHeight = mapHeight / maskScale;
 
@@ -85,18 +141,48 @@ public class Minimap {
         mapBuffer = new FrameBuffer(Pixmap.Format.RGBA8888, width, height, false);
     }
 
+    /**
+     * Bakes the map image and makes the fog. Must be called once the GameScreen can draw the map.
+     *
+     * @param spriteBatch the sprite batch
+     */
     public void initialise(SpriteBatch spriteBatch){
-        maskBuffer = new FrameBuffer(Pixmap.Format.RGBA8888, maskWidth, maskHeight, false);
-        Pixmap pixmap = new Pixmap(maskWidth, maskHeight, Pixmap.Format.RGBA8888);
+        // The map is shown a view's width of it across the minimap, inside a 3 pixel border.
+        float scale = (width - 6) / (viewport.getWorldWidth() * camera.zoom);
+        mapImage = new FrameBuffer(Pixmap.Format.RGBA8888,
+                Math.min(MAX_MAP_TEXTURE_SIZE, MathUtils.ceil(mapWidth * scale)),
+                Math.min(MAX_MAP_TEXTURE_SIZE, MathUtils.ceil(mapHeight * scale)), false);
+
+        OrthographicCamera mapCamera = new OrthographicCamera(mapWidth, mapHeight);
+        mapCamera.position.set(mapWidth / 2f, mapHeight / 2f, 0);
+        mapCamera.update();
+
+        mapImage.begin();
+        Gdx.gl.glClearColor(0, 0, 0, 0);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+        gameScreen.renderMapLower(mapCamera, null);
+        gameScreen.renderMapOverhang(mapCamera, null);
+        mapImage.end();
+
+        Pixmap radiusImage = Assets.minimapRadius;
+        radiusWidth = radiusImage.getWidth();
+        radiusHeight = radiusImage.getHeight();
+        radius = new byte[radiusWidth * radiusHeight];
+        for (int i = 0; i < radiusWidth; i++) {
+            for (int j = 0; j < radiusHeight; j++) {
+                radius[j * radiusWidth + i] = (byte) radiusImage.getPixel(i, j);
+            }
+        }
+
+        fog = new byte[maskWidth * maskHeight];
+        java.util.Arrays.fill(fog, (byte) 0xff);
+        fogUpload = BufferUtils.newByteBuffer(fog.length * 2);
+
+        Pixmap pixmap = new Pixmap(maskWidth, maskHeight, Pixmap.Format.LuminanceAlpha);
         pixmap.setColor(1, 1, 1, 1);
         pixmap.fill();
-
-        maskBuffer.begin();
-        spriteBatch.begin();
-        spriteBatch.setProjectionMatrix(new Matrix4().setToOrtho2D(0, 0, maskBuffer.getWidth(), maskBuffer.getHeight()));
-        spriteBatch.draw(new Texture(pixmap), 0, 0, maskWidth, maskHeight);
-        spriteBatch.end();
-        maskBuffer.end();
+        fogTexture = new Texture(pixmap);
+        fogTexture.setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
         pixmap.dispose();
     }
 
@@ -114,40 +200,67 @@ public class Minimap {
         viewport.update(width, height, center);
     }
 
+    /**
+     * Clears the fog around the player, by multiplying it by the radius image centred on them.
+     */
+    void clearFog() {
+        int left = (int) position.x / maskScale - radiusWidth / 2;
+        int bottom = (int) position.y / maskScale - radiusHeight / 2;
+        for (int j = Math.max(0, -bottom); j < radiusHeight && bottom + j < maskHeight; j++) {
+            boolean changed = false;
+            int row = (bottom + j) * maskWidth;
+            for (int i = Math.max(0, -left); i < radiusWidth && left + i < maskWidth; i++) {
+                int before = fog[row + left + i] & 0xff;
+                int after = (before * (radius[j * radiusWidth + i] & 0xff) + 127) / 255;
+                if (after != before) {
+                    fog[row + left + i] = (byte) after;
+                    changed = true;
+                }
+            }
+            if (changed) {
+                dirtyRowMin = dirtyRowMin < 0 ? bottom + j : Math.min(dirtyRowMin, bottom + j);
+                dirtyRowMax = Math.max(dirtyRowMax, bottom + j);
+            }
+        }
+    }
+
+    /**
+     * Uploads the rows of fog that have changed to the fog texture.
+     */
+    void uploadFog() {
+        if (dirtyRowMin < 0) {
+            return;
+        }
+        fogUpload.clear();
+        for (int i = dirtyRowMin * maskWidth; i < (dirtyRowMax + 1) * maskWidth; i++) {
+            fogUpload.put((byte) 0xff);
+            fogUpload.put(fog[i]);
+        }
+        fogUpload.flip();
+
+        fogTexture.bind();
+        Gdx.gl.glPixelStorei(GL20.GL_UNPACK_ALIGNMENT, 1);
+        Gdx.gl.glTexSubImage2D(GL20.GL_TEXTURE_2D, 0, 0, dirtyRowMin, maskWidth, dirtyRowMax - dirtyRowMin + 1,
+                GL20.GL_LUMINANCE_ALPHA, GL20.GL_UNSIGNED_BYTE, fogUpload);
+        dirtyRowMin = dirtyRowMax = -1;
+    }
+
     public void render(float delta, ShapeRenderer shapeRenderer, SpriteBatch spriteBatch){
         FOWCounter += delta;
         while (FOWCounter>UPDATE_FOW_INTERVAL) {
             FOWCounter -= UPDATE_FOW_INTERVAL;
-            int rWidth = Assets.minimapRadius.getWidth();
-            int rHeight = Assets.minimapRadius.getHeight();
-
-            spriteBatch.setProjectionMatrix(new Matrix4().setToOrtho2D(0, 0, maskBuffer.getWidth(), maskBuffer.getHeight()));
-            spriteBatch.setBlendFunction(GL20.GL_DST_COLOR, GL20.GL_ZERO);
-
-            maskBuffer.begin();
-            spriteBatch.begin();
-            spriteBatch.draw(Assets.minimapRadius, (int) position.x / maskScale - rWidth / 2, (int) position.y / maskScale - rHeight / 2, rWidth, rHeight, 0, 0, 1, 1);
-            spriteBatch.end();
-            maskBuffer.end();
-
-            spriteBatch.setBlendFunction(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+            clearFog();
         }
+        uploadFog();
 
 
         gameScreen.uiViewport.apply();
 
         mapBuffer.begin();
-        Gdx.gl.glEnable(GL20.GL_BLEND);
-        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
-        shapeRenderer.setProjectionMatrix(new Matrix4().setToOrtho2D(0, 0, width, height));
-        shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
-        shapeRenderer.setColor(0.4f, 0.4f, 0.4f, 1f);
 
         //Minimap underlay
-        shapeRenderer.rect(0, 0, width, height);
-
-        shapeRenderer.end();
-        Gdx.gl.glDisable(GL20.GL_BLEND);
+        Gdx.gl.glClearColor(0.4f, 0.4f, 0.4f, 1f);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
 
 
         viewport.setScreenBounds(3,
@@ -156,19 +269,18 @@ public class Minimap {
                 height-6);
         viewport.apply();
 
+        spriteBatch.setShader(null);
+        spriteBatch.setProjectionMatrix(camera.combined);
         spriteBatch.begin();
 
-        gameScreen.mapRenderer.setView(camera);
+        spriteBatch.draw(mapImage.getColorBufferTexture(), 0, 0, mapWidth, mapHeight, 0, 0, 1, 1);
 
-        gameScreen.renderMapLower();
-        gameScreen.renderMapOverhang();
-
-        Vector2 playerPos = gameScreen.getRound().getPlayer().getPosition();
+        Player player = gameScreen.getRound().getPlayer();
         int playerWidth = Assets.minimapHead.getRegionWidth()*4;
         int playerHeight = Assets.minimapHead.getRegionHeight()*4;
 
         spriteBatch.setColor(Color.WHITE);
-        spriteBatch.draw(Assets.minimapHead, playerPos.x-playerWidth/2, playerPos.y-playerHeight/2, playerWidth, playerHeight);
+        spriteBatch.draw(Assets.minimapHead, player.getX()-playerWidth/2, player.getY()-playerHeight/2, playerWidth, playerHeight);
         spriteBatch.end();
 
 
@@ -176,26 +288,19 @@ public class Minimap {
         shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
         shapeRenderer.setColor(0.9f, 0.2f, 0.2f, 0.8f);
 
-        for (Mob mob : gameScreen.mobs) {
-                Vector2 pos = mob.getCentre();
-                shapeRenderer.circle(pos.x, pos.y, 10f);
-                shapeRenderer.x(pos.x, pos.y, 5f);
-        }
+        dotRenderer = shapeRenderer;
+        float halfWidth = camera.viewportWidth * camera.zoom / 2 + MOB_DOT_RADIUS;
+        float halfHeight = camera.viewportHeight * camera.zoom / 2 + MOB_DOT_RADIUS;
+        gameScreen.getRound().getSpatialHash().queryRect(camera.position.x - halfWidth, camera.position.y - halfHeight,
+                camera.position.x + halfWidth, camera.position.y + halfHeight, renderMobDot);
         shapeRenderer.end();
 
         spriteBatch.begin();
-        spriteBatch.draw(maskBuffer.getColorBufferTexture(), 0, 0, mapWidth, mapHeight, 0, 0, 1, 1);
+        spriteBatch.draw(fogTexture, 0, 0, mapWidth, mapHeight, 0, 0, 1, 1);
         spriteBatch.flush();
 
         mapBuffer.end();
 
-        Vector3 screenPos = gameScreen.uiViewport.project(new Vector3(x, y, 0));
-
-        // strange maths to accommodate non-uniform projections.
-        Vector3 screenSize = gameScreen.uiViewport.project(
-                new Vector3(x+playerWidth, y+playerHeight, 0)
-        ).sub(screenPos);
-
         spriteBatch.setProjectionMatrix(gameScreen.uiCamera.combined.cpy());
 
         spriteBatch.setColor(1, 1, 1, 0.8f);
@@ -204,4 +309,11 @@ public class Minimap {
         spriteBatch.setColor(Color.WHITE);
 
     }
+
+    @Override
+    public void dispose() {
+        mapBuffer.dispose();
+        mapImage.dispose();
+        fogTexture.dispose();
+    }
 }
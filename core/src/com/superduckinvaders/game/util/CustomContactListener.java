@@ -3,64 +3,175 @@ package com.superduckinvaders.game.util;
 import com.badlogic.gdx.physics.box2d.*;
 import com.superduckinvaders.game.entity.PhysicsEntity;
 
+import static com.superduckinvaders.game.entity.PhysicsEntity.*;
+
 /**
- * Helper class to make contact checks between two PhysicsEntities easier.
+ * Routes contacts between two PhysicsEntities to the entities' contact methods.
+ * A table of category pairs, built from the PhysicsEntity category bits, says which callbacks each pair of categories
+ * listens for. Contacts between pairs that listen for nothing, such as projectiles hitting items or water touching
+ * walls, return as soon as the categories of the two fixtures are known, which are kept on the entities rather than
+ * read through JNI. Nothing is allocated per contact.
+ * Also counts how many contacts begin between each pair of categories.
  */
 public class CustomContactListener implements ContactListener {
+
+    /**
+     * The callbacks a pair of categories can listen for.
+     */
+    private static final byte BEGIN = 1, END = 1 << 1, PRE_SOLVE = 1 << 2, POST_SOLVE = 1 << 3;
+
+    /**
+     * How many category bits there are, one per bit of a short.
+     */
+    private static final int CATEGORIES = 16;
+
+    /**
+     * The callbacks each pair of categories listens for, indexed by category pair.
+     */
+    private final byte[] events = new byte[CATEGORIES * CATEGORIES];
+
+    /**
+     * How many contacts have begun between each pair of categories, indexed by category pair with the lower category
+     * first.
+     */
+    private final long[] contactCounts = new long[CATEGORIES * CATEGORIES];
+
+    /**
+     * How many contacts have begun between pairs that listen for something, and between pairs that do not.
+     */
+    private long heard = 0, ignored = 0;
+
+    /**
+     * Creates a CustomContactListener, with the pairs each entity's contact methods are written for.
+     */
+    public CustomContactListener() {
+        // Projectiles explode on whatever they hit.
+        listen(PROJECTILE_BITS, ALL_BITS, BEGIN);
+        // Characters with collision disabled turn off their contacts, and the player remembers what it flew into.
+        listen(PLAYER_BITS, ALL_BITS, (byte) (BEGIN | END | PRE_SOLVE));
+        listen(MOB_BITS, ALL_BITS, PRE_SOLVE);
+        // Water lets characters walk over it. Mobs and the player listen for this already.
+        listen(WATER_BITS, (short) (PLAYER_BITS | MOB_BITS), PRE_SOLVE);
+        // Items are picked up by the player.
+        listen(ITEM_BITS, PLAYER_BITS, BEGIN);
+    }
+
+    /**
+     * Makes contacts between two sets of categories call some callbacks, on both entities.
+     *
+     * @param categoriesA the first set of category bits
+     * @param categoriesB the second set of category bits
+     * @param callbacks   the callbacks to call
+     */
+    private void listen(short categoriesA, short categoriesB, byte callbacks) {
+        for (int a = 0; a < CATEGORIES; a++) {
+            for (int b = 0; b < CATEGORIES; b++) {
+                if ((categoriesA & (1 << a)) != 0 && (categoriesB & (1 << b)) != 0) {
+                    events[a * CATEGORIES + b] |= callbacks;
+                    events[b * CATEGORIES + a] |= callbacks;
+                }
+            }
+        }
+    }
+
     @Override
     public void beginContact(Contact contact) {
-        applyCallback(contact,
-                (PhysicsEntity ea, PhysicsEntity eb, boolean sensorA, boolean sensorB) -> {
-                    if (sensorA) {
-                        ea.beginSensorContact(eb, contact);
-                    } else if (!sensorB) {
-                        ea.beginCollision(eb, contact);
-                    }
-                }
-        );
+        PhysicsEntity a = (PhysicsEntity) contact.getFixtureA().getUserData();
+        PhysicsEntity b = (PhysicsEntity) contact.getFixtureB().getUserData();
+        if (a == null || b == null) {
+            return;
+        }
+        int categoryA = category(a), categoryB = category(b);
+        contactCounts[Math.min(categoryA, categoryB) * CATEGORIES + Math.max(categoryA, categoryB)]++;
+        if ((events[categoryA * CATEGORIES + categoryB] & BEGIN) == 0) {
+            ignored++;
+            return;
+        }
+        heard++;
+        beginContact(a, b, contact);
+        beginContact(b, a, contact);
+    }
+
+    private static void beginContact(PhysicsEntity entity, PhysicsEntity other, Contact contact) {
+        if (entity.isSensor()) {
+            entity.beginSensorContact(other, contact);
+        } else if (!other.isSensor()) {
+            entity.beginCollision(other, contact);
+        }
     }
 
     @Override
     public void endContact(Contact contact) {
-        applyCallback(contact,
-                (PhysicsEntity ea, PhysicsEntity eb, boolean sensorA, boolean sensorB) -> {
-                    if (sensorA) {
-                        ea.endSensorContact(eb, contact);
-                    } else if (!sensorB) {
-                        ea.endCollision(eb, contact);
-                    }
-                }
-        );
+        PhysicsEntity a = (PhysicsEntity) contact.getFixtureA().getUserData();
+        PhysicsEntity b = (PhysicsEntity) contact.getFixtureB().getUserData();
+        if (a == null || b == null || (events[category(a) * CATEGORIES + category(b)] & END) == 0) {
+            return;
+        }
+        endContact(a, b, contact);
+        endContact(b, a, contact);
+    }
+
+    private static void endContact(PhysicsEntity entity, PhysicsEntity other, Contact contact) {
+        if (entity.isSensor()) {
+            entity.endSensorContact(other, contact);
+        } else if (!other.isSensor()) {
+            entity.endCollision(other, contact);
+        }
     }
 
     @Override
     public void preSolve(Contact contact, Manifold manifold) {
-        applyCallback(contact,
-                (PhysicsEntity ea, PhysicsEntity eb, boolean sensorA, boolean sensorB) -> ea.preSolve(eb, contact, manifold)
-        );
+        PhysicsEntity a = (PhysicsEntity) contact.getFixtureA().getUserData();
+        PhysicsEntity b = (PhysicsEntity) contact.getFixtureB().getUserData();
+        if (a == null || b == null || (events[category(a) * CATEGORIES + category(b)] & PRE_SOLVE) == 0) {
+            return;
+        }
+        a.preSolve(b, contact, manifold);
+        b.preSolve(a, contact, manifold);
     }
 
     @Override
     public void postSolve(Contact contact, ContactImpulse contactImpulse) {
-        applyCallback(contact,
-                (PhysicsEntity ea, PhysicsEntity eb, boolean sensorA, boolean sensorB) -> ea.postSolve(eb, contact, contactImpulse)
-        );
+        PhysicsEntity a = (PhysicsEntity) contact.getFixtureA().getUserData();
+        PhysicsEntity b = (PhysicsEntity) contact.getFixtureB().getUserData();
+        if (a == null || b == null || (events[category(a) * CATEGORIES + category(b)] & POST_SOLVE) == 0) {
+            return;
+        }
+        a.postSolve(b, contact, contactImpulse);
+        b.postSolve(a, contact, contactImpulse);
     }
 
-    public void applyCallback(Contact contact, Callback cb) {
-        Fixture fixtureA = contact.getFixtureA();
-        Fixture fixtureB = contact.getFixtureB();
-        Object a = fixtureA.getBody().getUserData();
-        Object b = fixtureB.getBody().getUserData();
-        if (a instanceof PhysicsEntity && b instanceof PhysicsEntity) {
-            PhysicsEntity ea = (PhysicsEntity) a;
-            PhysicsEntity eb = (PhysicsEntity) b;
-            cb.callback(ea, eb, fixtureA.isSensor(), fixtureB.isSensor());
-            cb.callback(eb, ea, fixtureB.isSensor(), fixtureA.isSensor());
-        }
+    /**
+     * @return the index of the lowest category bit of an entity
+     */
+    private static int category(PhysicsEntity entity) {
+        return Integer.numberOfTrailingZeros(entity.getCategoryBits() | (1 << (CATEGORIES - 1)));
+    }
+
+    /**
+     * Gets how many contacts have begun between two categories.
+     *
+     * @param categoryA one category's bits
+     * @param categoryB the other category's bits
+     * @return the number of contacts, whether or not the pair listens for them
+     */
+    public long getContactCount(short categoryA, short categoryB) {
+        int a = Integer.numberOfTrailingZeros(categoryA | (1 << (CATEGORIES - 1)));
+        int b = Integer.numberOfTrailingZeros(categoryB | (1 << (CATEGORIES - 1)));
+        return contactCounts[Math.min(a, b) * CATEGORIES + Math.max(a, b)];
+    }
+
+    /**
+     * @return how many contacts have begun between pairs of categories that listen for them
+     */
+    public long getHeardCount() {
+        return heard;
     }
 
-    interface Callback {
-        void callback(PhysicsEntity entity, PhysicsEntity other, boolean sensorA, boolean sensorB);
+    /**
+     * @return how many contacts have begun between pairs of categories that listen for nothing when they begin
+     */
+    public long getIgnoredCount() {
+        return ignored;
     }
 }
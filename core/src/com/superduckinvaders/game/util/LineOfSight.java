@@ -0,0 +1,238 @@
+package com.superduckinvaders.game.util;
+
+import com.badlogic.gdx.math.MathUtils;
+
+/**
+ * Answers line of sight queries against the map's solid tiles by walking the tiles of an OccupancyGrid, without going through
+ * Box2D. Lines are walked as a supercover, so a line passing exactly through the corner where four tiles meet is blocked
+ * if either of the tiles on its sides is solid, and cannot slip diagonally between two solid tiles.
+ * Box2D raycasts are only needed where moving bodies can get in the way.
+ * Safe to use from worker threads. The answers canSeeCorner remembers are kept from frame to frame, which is only
+ * right because Round.setTileSolid, the one way tiles change, drops the ones through a changed tile with invalidate.
+ */
+public class LineOfSight {
+
+    /**
+     * How close, as a fraction of the line, two tile edge crossings must be to count as the line crossing a corner.
+     */
+    private static final float CORNER_EPSILON = 1e-5f;
+
+    /**
+     * The occupancy grid of the map.
+     */
+    private final OccupancyGrid grid;
+
+    /**
+     * The size of one tile in pixels.
+     */
+    private final int tileWidth, tileHeight;
+
+    /**
+     * Creates a LineOfSight.
+     *
+     * @param grid the occupancy grid of the map
+     */
+    public LineOfSight(OccupancyGrid grid) {
+        this.grid = grid;
+        this.tileWidth = grid.getTileWidth();
+        this.tileHeight = grid.getTileHeight();
+    }
+
+    /**
+     * @return the occupancy grid of the map
+     */
+    public OccupancyGrid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Tests if a line crosses no solid tile, by walking every tile the line touches.
+     *
+     * @param x0 the start x in pixels
+     * @param y0 the start y in pixels
+     * @param x1 the end x in pixels
+     * @param y1 the end y in pixels
+     * @return whether the line is clear
+     */
+    public boolean rayIsClear(float x0, float y0, float x1, float y1) {
+        return castRay(x0, y0, x1, y1) == Float.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Finds how far along a line it first enters a solid tile, walking tiles in the same way as rayIsClear.
+     *
+     * @param x0 the start x in pixels
+     * @param y0 the start y in pixels
+     * @param x1 the end x in pixels
+     * @param y1 the end y in pixels
+     * @return the fraction of the line, from 0 to 1, at which it enters a solid tile, or positive infinity if it is clear
+     */
+    public float castRay(float x0, float y0, float x1, float y1) {
+        float fx0 = x0 / tileWidth, fy0 = y0 / tileHeight;
+        float dx = x1 / tileWidth - fx0, dy = y1 / tileHeight - fy0;
+
+        int x = MathUtils.floor(fx0);
+        int y = MathUtils.floor(fy0);
+        int stepX = dx > 0 ? 1 : -1;
+        int stepY = dy > 0 ? 1 : -1;
+        int steps = Math.abs(MathUtils.floor(x1 / tileWidth) - x) + Math.abs(MathUtils.floor(y1 / tileHeight) - y);
+
+        // How far along the line, from 0 to 1, it takes to cross one tile, and to reach the next tile edge.
+        float deltaX = dx == 0 ? Float.POSITIVE_INFINITY : Math.abs(1 / dx);
+        float deltaY = dy == 0 ? Float.POSITIVE_INFINITY : Math.abs(1 / dy);
+        float nextX = dx == 0 ? Float.POSITIVE_INFINITY : (dx > 0 ? x + 1 - fx0 : fx0 - x) * deltaX;
+        float nextY = dy == 0 ? Float.POSITIVE_INFINITY : (dy > 0 ? y + 1 - fy0 : fy0 - y) * deltaY;
+
+        if (grid.isBlocked(x, y)) {
+            return 0;
+        }
+        while (steps > 0) {
+            float edge;
+            if (Math.abs(nextX - nextY) < CORNER_EPSILON) {
+                // Through a corner: both tiles beside it count, then on to the diagonal tile.
+                edge = Math.min(nextX, nextY);
+                if (grid.isBlocked(x + stepX, y) || grid.isBlocked(x, y + stepY)) {
+                    return edge;
+                }
+                nextX += deltaX;
+                nextY += deltaY;
+                x += stepX;
+                y += stepY;
+                steps -= 2;
+            } else if (nextX < nextY) {
+                edge = nextX;
+                nextX += deltaX;
+                x += stepX;
+                steps--;
+            } else {
+                edge = nextY;
+                nextY += deltaY;
+                y += stepY;
+                steps--;
+            }
+            if (grid.isBlocked(x, y)) {
+                return edge;
+            }
+        }
+        return Float.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Tests if the corners and centre of a box can all see a point.
+     *
+     * @param x       the x of the centre of the box in pixels
+     * @param y       the y of the centre of the box in pixels
+     * @param width   the width of the box in pixels
+     * @param height  the height of the box in pixels
+     * @param targetX the x of the point in pixels
+     * @param targetY the y of the point in pixels
+     * @return whether none of the lines cross a solid tile
+     */
+    public boolean canSee(float x, float y, float width, float height, float targetX, float targetY) {
+        float hw = width / 2, hh = height / 2;
+        return rayIsClear(x, y, targetX, targetY)
+                && rayIsClear(x + hw, y + hh, targetX, targetY) && rayIsClear(x - hw, y + hh, targetX, targetY)
+                && rayIsClear(x - hw, y - hh, targetX, targetY) && rayIsClear(x + hw, y - hh, targetX, targetY);
+    }
+
+    /**
+     * Tests if a box centred on one tile corner can see another tile corner, remembering the answer.
+     * The clearance grid keeps one answer per corner, for the last goal asked about from that corner, so every mob of
+     * the same size searching towards the player shares them. An answer lasts until another goal is asked about from the
+     * corner or invalidate drops it, not just for one frame, as the player often stays on one corner for many frames.
+     *
+     * @param clearance the clearance grid for the box's size
+     * @param x         the corner x the box is centred on
+     * @param y         the corner y the box is centred on
+     * @param goalX     the corner x of the goal
+     * @param goalY     the corner y of the goal
+     * @return whether the box can see the goal
+     */
+    public boolean canSeeCorner(OccupancyGrid.Clearance clearance, int x, int y, int goalX, int goalY) {
+        int corner = y * clearance.getWidth() + x;
+        int key = (goalY * clearance.getWidth() + goalX + 1) << 1;
+
+        int entry = clearance.sight[corner];
+        if ((entry & ~1) == key) {
+            return (entry & 1) != 0;
+        }
+        boolean visible = canSee(x * tileWidth, y * tileHeight, clearance.getBoxWidth(), clearance.getBoxHeight(),
+                goalX * tileWidth, goalY * tileHeight);
+        clearance.sight[corner] = key | (visible ? 1 : 0);
+        return visible;
+    }
+
+    /**
+     * Drops the answers canSeeCorner remembers, in every clearance grid, for lines that could pass through a range of
+     * tiles. Call from the game thread after the tiles change. A search already running may still store one answer
+     * worked out from the old tiles, just as it keeps using the old ChunkGraph.Graph.
+     *
+     * @param tileX0 the first tile x
+     * @param tileY0 the first tile y
+     * @param tileX1 the last tile x
+     * @param tileY1 the last tile y
+     */
+    public void invalidate(int tileX0, int tileY0, int tileX1, int tileY1) {
+        for (OccupancyGrid.Clearance clearance : grid.getClearances()) {
+            invalidate(clearance, tileX0, tileY0, tileX1, tileY1);
+        }
+    }
+
+    private void invalidate(OccupancyGrid.Clearance clearance, int tileX0, int tileY0, int tileX1, int tileY1) {
+        // Lines start from the box's corners, so they reach this far either side of the corner they are kept at.
+        int reachX = clearance.getBoxWidth() / tileWidth / 2 + 1;
+        int reachY = clearance.getBoxHeight() / tileHeight / 2 + 1;
+        int width = clearance.getWidth();
+        int[] sight = clearance.sight;
+
+        for (int corner = 0; corner < sight.length; corner++) {
+            int entry = sight[corner];
+            if (entry == 0) {
+                continue;
+            }
+            int goal = (entry >>> 1) - 1;
+            int x = corner % width, y = corner / width;
+            int goalX = goal % width, goalY = goal / width;
+            if (Math.max(x, goalX) + reachX >= tileX0 && Math.min(x, goalX) - reachX <= tileX1
+                    && Math.max(y, goalY) + reachY >= tileY0 && Math.min(y, goalY) - reachY <= tileY1) {
+                sight[corner] = 0;
+            }
+        }
+    }
+
+    /**
+     * Tests if a box can slide in a straight line to another position without overlapping a solid tile.
+     * Lines are walked from the corners and centre of the box, and from points along its edges no more than a tile
+     * apart, so no tile can fit between them, and the box is checked where it ends up.
+     *
+     * @param x       the x of the centre of the box in pixels
+     * @param y       the y of the centre of the box in pixels
+     * @param width   the width of the box in pixels
+     * @param height  the height of the box in pixels
+     * @param targetX the x the centre moves to in pixels
+     * @param targetY the y the centre moves to in pixels
+     * @return whether the box can get there
+     */
+    public boolean pathIsClear(float x, float y, float width, float height, float targetX, float targetY) {
+        float hw = width / 2, hh = height / 2;
+        if (grid.collideArea(targetX - hw, targetY - hh, width, height) || !rayIsClear(x, y, targetX, targetY)) {
+            return false;
+        }
+
+        int stepsX = Math.max(1, MathUtils.ceil(width / tileWidth));
+        int stepsY = Math.max(1, MathUtils.ceil(height / tileHeight));
+        for (int i = 0; i <= stepsX; i++) {
+            float offsetX = -hw + width * i / stepsX;
+            for (int j = 0; j <= stepsY; j++) {
+                if (i != 0 && i != stepsX && j != 0 && j != stepsY) {
+                    continue;
+                }
+                float offsetY = -hh + height * j / stepsY;
+                if (!rayIsClear(x + offsetX, y + offsetY, targetX + offsetX, targetY + offsetY)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,305 @@
+package com.superduckinvaders.game.util;
+
+import com.badlogic.gdx.math.MathUtils;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Answers collision queries against the static map from a grid of solid tiles, without going through Box2D.
+ * Everything outside the map counts as solid, as the map edges are walled off.
+ * Tiles only change through setBlocked, on the game thread. Queries are safe to make from worker threads; one made while
+ * a tile changes may see the tile either way.
+ */
+public class OccupancyGrid {
+
+    /**
+     * The solid tiles.
+     */
+    private final TileGrid solid;
+
+    /**
+     * The size of the map in tiles.
+     */
+    private final int width, height;
+
+    /**
+     * The size of one tile in pixels.
+     */
+    private final int tileWidth, tileHeight;
+
+    /**
+     * Summed area table of solid tiles: entry (x, y) holds how many tiles below and to the left of (x, y) are solid.
+     */
+    private final int[] solidSums;
+
+    /**
+     * Clearance grids already built, keyed by size.
+     */
+    private final Map<Long, Clearance> clearances = new HashMap<>();
+
+    /**
+     * Creates an OccupancyGrid.
+     *
+     * @param solid      which tiles are solid
+     * @param tileWidth  the width of one tile in pixels
+     * @param tileHeight the height of one tile in pixels
+     */
+    public OccupancyGrid(TileGrid solid, int tileWidth, int tileHeight) {
+        this.solid = solid;
+        this.width = solid.getWidth();
+        this.height = solid.getHeight();
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+
+        solidSums = new int[(width + 1) * (height + 1)];
+        for (int y = 1; y <= height; y++) {
+            int rowSum = 0;
+            for (int x = 1; x <= width; x++) {
+                rowSum += solid.get(x - 1, y - 1) ? 1 : 0;
+                solidSums[y * (width + 1) + x] = solidSums[(y - 1) * (width + 1) + x] + rowSum;
+            }
+        }
+    }
+
+    /**
+     * @return the width of the map in tiles
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return the height of the map in tiles
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return the width of one tile in pixels
+     */
+    public int getTileWidth() {
+        return tileWidth;
+    }
+
+    /**
+     * @return the height of one tile in pixels
+     */
+    public int getTileHeight() {
+        return tileHeight;
+    }
+
+    /**
+     * Gets whether a tile is solid.
+     *
+     * @param x the tile x
+     * @param y the tile y
+     * @return whether the tile is solid or outside the map
+     */
+    public boolean isBlocked(int x, int y) {
+        return !solid.inBounds(x, y) || solid.get(x, y);
+    }
+
+    /**
+     * Gets whether any tile in a range of tiles is solid.
+     *
+     * @param x0 the first tile x
+     * @param y0 the first tile y
+     * @param x1 one past the last tile x
+     * @param y1 one past the last tile y
+     * @return whether any tile in the range is solid or outside the map
+     */
+    public boolean anyBlocked(int x0, int y0, int x1, int y1) {
+        if (x0 < 0 || y0 < 0 || x1 > width || y1 > height) {
+            return true;
+        }
+        if (x0 >= x1 || y0 >= y1) {
+            return false;
+        }
+        int stride = width + 1;
+        return solidSums[y1 * stride + x1] - solidSums[y0 * stride + x1]
+                - solidSums[y1 * stride + x0] + solidSums[y0 * stride + x0] > 0;
+    }
+
+    /**
+     * Makes a tile solid or clear, and updates the clearance grids built so far to match.
+     * Only call this from the game thread.
+     *
+     * @param x       the tile x
+     * @param y       the tile y
+     * @param blocked whether the tile is now solid
+     */
+    public void setBlocked(int x, int y, boolean blocked) {
+        if (!solid.inBounds(x, y) || solid.get(x, y) == blocked) {
+            return;
+        }
+        solid.set(x, y, blocked);
+
+        // The tile is counted in every sum above and to the right of it.
+        int change = blocked ? 1 : -1;
+        int stride = width + 1;
+        for (int sy = y + 1; sy <= height; sy++) {
+            for (int sx = x + 1; sx <= width; sx++) {
+                solidSums[sy * stride + sx] += change;
+            }
+        }
+
+        for (Clearance clearance : clearances.values()) {
+            clearance.tileChanged(x, y);
+        }
+    }
+
+    /**
+     * Tests if a point is on a solid tile.
+     *
+     * @param x the x position in pixels
+     * @param y the y position in pixels
+     * @return whether the point is on a solid tile
+     */
+    public boolean collidePoint(float x, float y) {
+        return isBlocked(MathUtils.floor(x / tileWidth), MathUtils.floor(y / tileHeight));
+    }
+
+    /**
+     * Tests if a rectangle overlaps any solid tile. Touching a tile's edge does not count.
+     *
+     * @param x      the x position of the bottom left corner in pixels
+     * @param y      the y position of the bottom left corner in pixels
+     * @param width  the width in pixels
+     * @param height the height in pixels
+     * @return whether the rectangle overlaps a solid tile
+     */
+    public boolean collideArea(float x, float y, float width, float height) {
+        return anyBlocked(MathUtils.floor(x / tileWidth), MathUtils.floor(y / tileHeight),
+                MathUtils.ceil((x + width) / tileWidth), MathUtils.ceil((y + height) / tileHeight));
+    }
+
+    /**
+     * Gets the clearance grid for things of a certain size, building it the first time it is asked for.
+     * Only call this from the game thread. The grids it returns can be read from any thread.
+     *
+     * @param width  the width in pixels
+     * @param height the height in pixels
+     * @return the clearance grid
+     */
+    public Clearance getClearance(float width, float height) {
+        int w = MathUtils.ceil(width);
+        int h = MathUtils.ceil(height);
+        Long key = ((long) w << 32) | h;
+
+        Clearance clearance = clearances.get(key);
+        if (clearance == null) {
+            clearance = new Clearance(w, h);
+            clearances.put(key, clearance);
+        }
+        return clearance;
+    }
+
+    /**
+     * @return the clearance grids built so far
+     */
+    public Collection<Clearance> getClearances() {
+        return clearances.values();
+    }
+
+    /**
+     * Which tile corners a box of one size can be centred on without overlapping a solid tile.
+     * Tile corner (x, y) is at pixel (x * tileWidth, y * tileHeight), the points PathfindingAI moves between.
+     */
+    public class Clearance {
+
+        /**
+         * The size of the box in pixels.
+         */
+        private final int boxWidth, boxHeight;
+
+        /**
+         * Which corners are blocked.
+         */
+        private final TileGrid blocked;
+
+        /**
+         * The answers LineOfSight.canSeeCorner remembers, one per corner: the goal corner's index plus one, shifted up
+         * a bit, with whether it can be seen in the lowest bit, or 0 for no answer.
+         * Worker threads read and write these without locking. That race is harmless: the goal and the answer are
+         * packed into one int, and int reads and writes are atomic, so a reader sees either a whole answer or none. At
+         * worst two threads work out the same answer twice, or one answer replaces another.
+         */
+        final int[] sight;
+
+        private Clearance(int boxWidth, int boxHeight) {
+            this.boxWidth = boxWidth;
+            this.boxHeight = boxHeight;
+
+            blocked = new TileGrid(width + 1, height + 1);
+            findBlocked(0, 0, width, height);
+            sight = new int[(width + 1) * (height + 1)];
+        }
+
+        /**
+         * Works out again which corners are blocked around a tile that has changed. A box centred on a corner reaches
+         * half its size either side, so corners that far from the tile are checked too.
+         *
+         * @param x the tile x
+         * @param y the tile y
+         */
+        private void tileChanged(int x, int y) {
+            int reachX = boxWidth / tileWidth / 2 + 1;
+            int reachY = boxHeight / tileHeight / 2 + 1;
+            findBlocked(Math.max(0, x - reachX), Math.max(0, y - reachY),
+                    Math.min(width, x + 1 + reachX), Math.min(height, y + 1 + reachY));
+        }
+
+        /**
+         * Works out which corners in a range are blocked.
+         */
+        private void findBlocked(int x0, int y0, int x1, int y1) {
+            for (int x = x0; x <= x1; x++) {
+                for (int y = y0; y <= y1; y++) {
+                    blocked.set(x, y, collideArea(x * tileWidth - boxWidth / 2f, y * tileHeight - boxHeight / 2f, boxWidth, boxHeight));
+                }
+            }
+        }
+
+        /**
+         * @return how many tile corners there are across the map
+         */
+        public int getWidth() {
+            return blocked.getWidth();
+        }
+
+        /**
+         * @return how many tile corners there are up the map
+         */
+        public int getHeight() {
+            return blocked.getHeight();
+        }
+
+        /**
+         * @return the width of the box in pixels
+         */
+        public int getBoxWidth() {
+            return boxWidth;
+        }
+
+        /**
+         * @return the height of the box in pixels
+         */
+        public int getBoxHeight() {
+            return boxHeight;
+        }
+
+        /**
+         * Gets whether the box can be centred on a tile corner.
+         *
+         * @param x the corner x, in tiles
+         * @param y the corner y, in tiles
+         * @return whether the box fits there
+         */
+        public boolean canStand(int x, int y) {
+            return blocked.inBounds(x, y) && !blocked.get(x, y);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.superduckinvaders.game.util;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Keeps a list of entities in render order, by y as Entity.EntityComparator orders them, from one frame to the next.
+ * The y of each entity is read once per sort into a float array and the list is insertion sorted on those keys, which is
+ * close to linear as entities only move a little between frames. If many entities have been added since the last sort,
+ * as on the first frame, the list is fully sorted instead.
+ *
+ * @param <T> the type of item sorted, either a game entity or an engine entity standing for one
+ */
+public class RenderOrder<T> {
+
+    /**
+     * Gives the y to sort an item by.
+     *
+     * @param <T> the type of item sorted
+     */
+    public interface Key<T> {
+        /**
+         * @param item the item
+         * @return the y of the item
+         */
+        float get(T item);
+    }
+
+    /**
+     * The fraction of the list that can be new since the last sort before it is fully sorted instead.
+     */
+    private static final float FULL_SORT_FRACTION = 0.25f;
+
+    /**
+     * How far an entity is moved back one place at a time before a binary search is used to find its place.
+     */
+    private static final int LINEAR_STEPS = 8;
+
+    /**
+     * The entities as they were in the list, the y of each, and the order to put them in, while sorting.
+     */
+    private Object[] unsorted = new Object[64];
+    private float[] keys = new float[64];
+    private int[] order = new int[64];
+
+    /**
+     * How many entities there were after the last sort.
+     */
+    private int lastSize = 0;
+
+    /**
+     * Gives the y of each item.
+     */
+    private final Key<? super T> sortKey;
+
+    /**
+     * Sorts for when many entities are new.
+     */
+    private final Comparator<T> comparator;
+
+    /**
+     * Creates a RenderOrder.
+     *
+     * @param sortKey gives the y to sort each item by
+     */
+    public RenderOrder(Key<? super T> sortKey) {
+        this.sortKey = sortKey;
+        this.comparator = (a, b) -> Float.compare(sortKey.get(a), sortKey.get(b));
+    }
+
+    /**
+     * Sorts a list of entities into render order.
+     *
+     * @param entities the entities, which should be a random access list such as an ArrayList
+     */
+    @SuppressWarnings("unchecked")
+    public void sort(List<T> entities) {
+        int size = entities.size();
+        if (size - lastSize > size * FULL_SORT_FRACTION) {
+            entities.sort(comparator);
+            lastSize = size;
+            return;
+        }
+        lastSize = size;
+
+        if (keys.length < size) {
+            int capacity = Math.max(size, keys.length * 2);
+            unsorted = new Object[capacity];
+            keys = new float[capacity];
+            order = new int[capacity];
+        }
+        for (int i = 0; i < size; i++) {
+            T entity = entities.get(i);
+            unsorted[i] = entity;
+            keys[i] = sortKey.get(entity);
+            order[i] = i;
+        }
+
+        // Sort the keys and indices rather than the entities, as moving primitives is cheaper than moving references.
+        boolean changed = false;
+        for (int i = 1; i < size; i++) {
+            float key = keys[i];
+            if (key >= keys[i - 1]) {
+                continue;
+            }
+            changed = true;
+            int index = order[i];
+            int j = i - 1;
+            // Most entities only move a few places, so step back one at a time first.
+            while (j >= 0 && keys[j] > key && i - j <= LINEAR_STEPS) {
+                keys[j + 1] = keys[j];
+                order[j + 1] = order[j];
+                j--;
+            }
+            if (j >= 0 && keys[j] > key) {
+                // Far out of place, as new entities at the end of the list are: find the place and shift in one copy.
+                int low = 0, high = j;
+                while (low < high) {
+                    int middle = (low + high) >>> 1;
+                    if (keys[middle] > key) {
+                        high = middle;
+                    } else {
+                        low = middle + 1;
+                    }
+                }
+                System.arraycopy(keys, low, keys, low + 1, j + 1 - low);
+                System.arraycopy(order, low, order, low + 1, j + 1 - low);
+                j = low - 1;
+            }
+            keys[j + 1] = key;
+            order[j + 1] = index;
+        }
+
+        if (changed) {
+            for (int i = 0; i < size; i++) {
+                entities.set(i, (T) unsorted[order[i]]);
+            }
+        }
+        Arrays.fill(unsorted, 0, size, null);
+    }
+}
@@ -0,0 +1,235 @@
+package com.superduckinvaders.game.util;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.superduckinvaders.game.entity.Entity;
+
+import java.util.Arrays;
+
+/**
+ * A uniform grid of cells over the map, each listing the entities whose bounds overlap it, so entities near a point or
+ * a line can be found without looking at every entity. Entities are added with their bounds as they are at the time,
+ * so the hash is cleared and filled again whenever they move.
+ * Cells are kept as linked lists in plain int arrays, which only grow, so filling and querying make no garbage.
+ * Queries must not be nested: a visitor should collect what it needs rather than query again.
+ *
+ * @param <T> the type of entity stored
+ */
+public class SpatialHash<T extends Entity> {
+
+    /**
+     * The cell size Round uses, in pixels, a few times the size of a mob.
+     */
+    public static final float DEFAULT_CELL_SIZE = 64;
+
+    /**
+     * Called for each entity a query finds.
+     *
+     * @param <T> the type of entity stored
+     */
+    public interface Visitor<T> {
+        /**
+         * @param entity an entity whose bounds overlap the query
+         */
+        void visit(T entity);
+    }
+
+    /**
+     * The size of one cell in pixels.
+     */
+    private final float cellSize;
+
+    /**
+     * The size of the grid in cells.
+     */
+    private final int width, height;
+
+    /**
+     * The first entry in each cell, or -1 if the cell is empty.
+     */
+    private final int[] cellHead;
+
+    /**
+     * For each entry, the next entry in the same cell or -1, and which entity it is.
+     */
+    private int[] entryNext, entryEntity;
+    private int entryCount = 0;
+
+    /**
+     * The entities added, with their bounds when added and the last query that found them.
+     */
+    private Object[] entities;
+    private float[] minX, minY, maxX, maxY;
+    private int[] lastQuery;
+    private int entityCount = 0;
+
+    /**
+     * Counts queries, so each entity is visited once per query even when it spans several cells.
+     */
+    private int query = 0;
+
+    /**
+     * Creates an empty SpatialHash.
+     *
+     * @param mapWidth  the width of the map in pixels
+     * @param mapHeight the height of the map in pixels
+     * @param cellSize  the size of one cell in pixels
+     */
+    public SpatialHash(float mapWidth, float mapHeight, float cellSize) {
+        this.cellSize = cellSize;
+        this.width = Math.max(1, MathUtils.ceil(mapWidth / cellSize));
+        this.height = Math.max(1, MathUtils.ceil(mapHeight / cellSize));
+        this.cellHead = new int[width * height];
+        Arrays.fill(cellHead, -1);
+
+        entryNext = new int[64];
+        entryEntity = new int[64];
+        entities = new Object[32];
+        minX = new float[32];
+        minY = new float[32];
+        maxX = new float[32];
+        maxY = new float[32];
+        lastQuery = new int[32];
+    }
+
+    /**
+     * Removes every entity.
+     */
+    public void clear() {
+        Arrays.fill(cellHead, -1);
+        Arrays.fill(entities, 0, entityCount, null);
+        entryCount = 0;
+        entityCount = 0;
+    }
+
+    /**
+     * Adds an entity to every cell its bounds overlap. Entities off the map are kept in the edge cells.
+     *
+     * @param entity the entity to add
+     */
+    public void insert(T entity) {
+        insert(entity, entity.getX(), entity.getY(), entity.getWidth(), entity.getHeight());
+    }
+
+    /**
+     * Adds an entity to every cell the given bounds overlap, for when its bounds are already known.
+     *
+     * @param entity the entity to add
+     * @param x      the x coordinate of the entity's bottom left corner
+     * @param y      the y coordinate of the entity's bottom left corner
+     * @param width  the width of the entity
+     * @param height the height of the entity
+     */
+    public void insert(T entity, float x, float y, float width, float height) {
+        if (entityCount == entities.length) {
+            int capacity = entityCount * 2;
+            entities = Arrays.copyOf(entities, capacity);
+            minX = Arrays.copyOf(minX, capacity);
+            minY = Arrays.copyOf(minY, capacity);
+            maxX = Arrays.copyOf(maxX, capacity);
+            maxY = Arrays.copyOf(maxY, capacity);
+            lastQuery = Arrays.copyOf(lastQuery, capacity);
+        }
+        int index = entityCount++;
+        entities[index] = entity;
+        minX[index] = x;
+        minY[index] = y;
+        maxX[index] = x + width;
+        maxY[index] = y + height;
+        lastQuery[index] = query;
+
+        int cellX1 = cellX(maxX[index]), cellY1 = cellY(maxY[index]);
+        for (int cx = cellX(x); cx <= cellX1; cx++) {
+            for (int cy = cellY(y); cy <= cellY1; cy++) {
+                if (entryCount == entryNext.length) {
+                    entryNext = Arrays.copyOf(entryNext, entryCount * 2);
+                    entryEntity = Arrays.copyOf(entryEntity, entryCount * 2);
+                }
+                int cell = cy * this.width + cx;
+                entryNext[entryCount] = cellHead[cell];
+                entryEntity[entryCount] = index;
+                cellHead[cell] = entryCount++;
+            }
+        }
+    }
+
+    /**
+     * Visits every entity whose bounds overlap a rectangle, once each, in no particular order.
+     *
+     * @param x0      the left of the rectangle in pixels
+     * @param y0      the bottom of the rectangle in pixels
+     * @param x1      the right of the rectangle in pixels
+     * @param y1      the top of the rectangle in pixels
+     * @param visitor called for each entity found
+     */
+    @SuppressWarnings("unchecked")
+    public void queryRect(float x0, float y0, float x1, float y1, Visitor<? super T> visitor) {
+        query++;
+        int cellX1 = cellX(x1), cellY1 = cellY(y1);
+        for (int x = cellX(x0); x <= cellX1; x++) {
+            for (int y = cellY(y0); y <= cellY1; y++) {
+                for (int entry = cellHead[y * width + x]; entry != -1; entry = entryNext[entry]) {
+                    int index = entryEntity[entry];
+                    if (lastQuery[index] != query && minX[index] <= x1 && maxX[index] >= x0
+                            && minY[index] <= y1 && maxY[index] >= y0) {
+                        lastQuery[index] = query;
+                        visitor.visit((T) entities[index]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Visits every entity whose bounds come within a distance of a point, once each, in no particular order.
+     *
+     * @param x       the x of the point in pixels
+     * @param y       the y of the point in pixels
+     * @param radius  the distance in pixels
+     * @param visitor called for each entity found
+     */
+    @SuppressWarnings("unchecked")
+    public void queryRadius(float x, float y, float radius, Visitor<? super T> visitor) {
+        query++;
+        float radius2 = radius * radius;
+        int cellX1 = cellX(x + radius), cellY1 = cellY(y + radius);
+        for (int cx = cellX(x - radius); cx <= cellX1; cx++) {
+            for (int cy = cellY(y - radius); cy <= cellY1; cy++) {
+                for (int entry = cellHead[cy * width + cx]; entry != -1; entry = entryNext[entry]) {
+                    int index = entryEntity[entry];
+                    if (lastQuery[index] == query) {
+                        continue;
+                    }
+                    // Distance from the point to the nearest point of the bounds.
+                    float dx = Math.max(0, Math.max(minX[index] - x, x - maxX[index]));
+                    float dy = Math.max(0, Math.max(minY[index] - y, y - maxY[index]));
+                    if (dx * dx + dy * dy <= radius2) {
+                        lastQuery[index] = query;
+                        visitor.visit((T) entities[index]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return how many entities have been added since the last clear
+     */
+    public int size() {
+        return entityCount;
+    }
+
+    /**
+     * @return the size of one cell in pixels
+     */
+    public float getCellSize() {
+        return cellSize;
+    }
+
+    private int cellX(float x) {
+        return MathUtils.clamp(MathUtils.floor(x / cellSize), 0, width - 1);
+    }
+
+    private int cellY(float y) {
+        return MathUtils.clamp(MathUtils.floor(y / cellSize), 0, height - 1);
+    }
+}
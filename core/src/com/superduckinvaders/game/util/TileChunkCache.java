@@ -0,0 +1,354 @@
+package com.superduckinvaders.game.util;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.maps.tiled.TiledMapTile;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+
+/**
+ * Bakes tile layers that never change into a SpriteCache once, in square chunks of tiles, so drawing them costs one
+ * draw call per visible chunk rather than a quad per visible cell submitted to a batch every frame.
+ * Layers are baked in groups. Each group is drawn as a whole, so layers that must be drawn under and over something
+ * that changes, such as water or entities, go in separate groups. Cells that change can be left out of a group and
+ * drawn each frame with drawCells.
+ * Cells are laid out as OrthogonalTiledMapRenderer lays them out, with the same flips and rotations.
+ */
+public class TileChunkCache implements Disposable {
+
+    /**
+     * The width and height of a chunk in tiles.
+     */
+    public static final int CHUNK_TILES = 32;
+
+    /**
+     * The number of floats per vertex, and per quad as a batch draws it and as the cache stores it without indices.
+     */
+    private static final int VERTEX_SIZE = 5, QUAD_SIZE = 4 * VERTEX_SIZE, TRIANGLES_SIZE = 6 * VERTEX_SIZE;
+
+    /**
+     * The size of the map in tiles and of a tile in pixels.
+     */
+    private final int widthInTiles, heightInTiles;
+    private final float tileWidth, tileHeight;
+
+    /**
+     * How many chunks there are across and up the map.
+     */
+    private final int chunksX, chunksY;
+
+    /**
+     * The layers in each group and the cells to leave out of each, or null to bake every cell.
+     */
+    private final Array<TiledMapTileLayer[]> groupLayers = new Array<>();
+    private final Array<TileGrid> groupSkips = new Array<>();
+
+    /**
+     * The cache id of each chunk of each group, indexed by group then by chunk row by row, or -1 if it is empty.
+     */
+    private int[][] cacheIds;
+
+    /**
+     * The baked chunks, made by build.
+     */
+    private SpriteCache cache;
+
+    /**
+     * One quad, and the same quad as two triangles.
+     */
+    private final float[] quad = new float[QUAD_SIZE], triangles = new float[TRIANGLES_SIZE];
+
+    /**
+     * Creates an empty TileChunkCache.
+     *
+     * @param widthInTiles  the width of the map in tiles
+     * @param heightInTiles the height of the map in tiles
+     * @param tileWidth     the width of a tile in pixels
+     * @param tileHeight    the height of a tile in pixels
+     */
+    public TileChunkCache(int widthInTiles, int heightInTiles, float tileWidth, float tileHeight) {
+        this.widthInTiles = widthInTiles;
+        this.heightInTiles = heightInTiles;
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+        this.chunksX = (widthInTiles + CHUNK_TILES - 1) / CHUNK_TILES;
+        this.chunksY = (heightInTiles + CHUNK_TILES - 1) / CHUNK_TILES;
+    }
+
+    /**
+     * Adds a group of layers to bake together, drawn in the order given. Must be called before build.
+     *
+     * @param skip   the cells to leave out, or null to bake every cell
+     * @param layers the layers, of which null ones are skipped
+     * @return the group's index, for drawing it
+     */
+    public int addGroup(TileGrid skip, TiledMapTileLayer... layers) {
+        groupLayers.add(layers);
+        groupSkips.add(skip);
+        return groupLayers.size - 1;
+    }
+
+    /**
+     * Bakes every group into the cache.
+     */
+    public void build() {
+        int size = 0;
+        for (int group = 0; group < groupLayers.size; group++) {
+            for (TiledMapTileLayer layer : groupLayers.get(group)) {
+                size += layer == null ? 0 : countCells(layer, groupSkips.get(group));
+            }
+        }
+        // Without indices the cache has no limit on its size, which a whole map would go over.
+        cache = new SpriteCache(Math.max(1, size), false);
+
+        cacheIds = new int[groupLayers.size][chunksX * chunksY];
+        for (int group = 0; group < groupLayers.size; group++) {
+            for (int chunk = 0; chunk < chunksX * chunksY; chunk++) {
+                cacheIds[group][chunk] = bakeChunk(groupLayers.get(group), groupSkips.get(group), chunk % chunksX, chunk / chunksX);
+            }
+        }
+    }
+
+    private int countCells(TiledMapTileLayer layer, TileGrid skip) {
+        int count = 0;
+        for (int x = 0; x < widthInTiles; x++) {
+            for (int y = 0; y < heightInTiles; y++) {
+                TiledMapTileLayer.Cell cell = layer.getCell(x, y);
+                if (cell != null && cell.getTile() != null && (skip == null || !skip.get(x, y))) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Bakes one chunk of a group, with each layer's rows drawn from the top down as the map renderer does.
+     *
+     * @return the chunk's cache id, or -1 if it has no cells
+     */
+    private int bakeChunk(TiledMapTileLayer[] layers, TileGrid skip, int chunkX, int chunkY) {
+        int x0 = chunkX * CHUNK_TILES, x1 = Math.min(x0 + CHUNK_TILES, widthInTiles);
+        int y0 = chunkY * CHUNK_TILES, y1 = Math.min(y0 + CHUNK_TILES, heightInTiles);
+        boolean empty = true;
+        cache.beginCache();
+        for (TiledMapTileLayer layer : layers) {
+            if (layer == null) {
+                continue;
+            }
+            float color = Color.toFloatBits(1, 1, 1, layer.getOpacity());
+            for (int y = y1 - 1; y >= y0; y--) {
+                for (int x = x0; x < x1; x++) {
+                    TiledMapTileLayer.Cell cell = layer.getCell(x, y);
+                    if (cell == null || cell.getTile() == null || (skip != null && skip.get(x, y))) {
+                        continue;
+                    }
+                    cellQuad(cell, x * tileWidth, y * tileHeight, color, quad);
+                    toTriangles(quad, triangles);
+                    cache.add(cell.getTile().getTextureRegion().getTexture(), triangles, 0, TRIANGLES_SIZE);
+                    empty = false;
+                }
+            }
+        }
+        int id = cache.endCache();
+        return empty ? -1 : id;
+    }
+
+    /**
+     * Starts drawing groups. Blending is turned on, as layers over the base have see-through tiles.
+     *
+     * @param projection the projection to draw with, such as the camera's combined matrix
+     * @param shader     the shader to draw with, which must have a u_projTrans uniform, or null for the default
+     */
+    public void begin(Matrix4 projection, Shader shader) {
+        cache.setShader(shader);
+        cache.setProjectionMatrix(projection);
+        cache.begin();
+        Gdx.gl.glEnable(GL20.GL_BLEND);
+        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+    }
+
+    /**
+     * Draws the chunks of a group that overlap an area. Must be called between begin and end.
+     *
+     * @param group  the group's index
+     * @param x      the x coordinate of the bottom left corner of the area in pixels
+     * @param y      the y coordinate of the bottom left corner of the area in pixels
+     * @param width  the width of the area in pixels
+     * @param height the height of the area in pixels
+     */
+    public void draw(int group, float x, float y, float width, float height) {
+        float chunkWidth = CHUNK_TILES * tileWidth, chunkHeight = CHUNK_TILES * tileHeight;
+        int cx0 = Math.max(0, MathUtils.floor(x / chunkWidth)), cx1 = Math.min(chunksX - 1, MathUtils.floor((x + width) / chunkWidth));
+        int cy0 = Math.max(0, MathUtils.floor(y / chunkHeight)), cy1 = Math.min(chunksY - 1, MathUtils.floor((y + height) / chunkHeight));
+        int[] ids = cacheIds[group];
+        for (int cy = cy0; cy <= cy1; cy++) {
+            for (int cx = cx0; cx <= cx1; cx++) {
+                int id = ids[cy * chunksX + cx];
+                if (id >= 0) {
+                    cache.draw(id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finishes drawing groups.
+     */
+    public void end() {
+        cache.end();
+        Gdx.gl.glDisable(GL20.GL_BLEND);
+    }
+
+    /**
+     * Draws the cells of a layer that are set in a grid and overlap an area with a batch, with the tiles they have now.
+     * For cells left out of the cache because they change.
+     *
+     * @param batch  the batch, which must be drawing
+     * @param layer  the layer to draw cells from
+     * @param only   the cells to draw
+     * @param x      the x coordinate of the bottom left corner of the area in pixels
+     * @param y      the y coordinate of the bottom left corner of the area in pixels
+     * @param width  the width of the area in pixels
+     * @param height the height of the area in pixels
+     */
+    public void drawCells(Batch batch, TiledMapTileLayer layer, TileGrid only, float x, float y, float width, float height) {
+        int x0 = Math.max(0, MathUtils.floor(x / tileWidth)), x1 = Math.min(widthInTiles - 1, MathUtils.floor((x + width) / tileWidth));
+        int y0 = Math.max(0, MathUtils.floor(y / tileHeight)), y1 = Math.min(heightInTiles - 1, MathUtils.floor((y + height) / tileHeight));
+        float color = Color.toFloatBits(1, 1, 1, layer.getOpacity());
+        for (int ty = y1; ty >= y0; ty--) {
+            for (int tx = x0; tx <= x1; tx++) {
+                if (!only.get(tx, ty)) {
+                    continue;
+                }
+                TiledMapTileLayer.Cell cell = layer.getCell(tx, ty);
+                if (cell != null && cell.getTile() != null) {
+                    cellQuad(cell, tx * tileWidth, ty * tileHeight, color, quad);
+                    batch.draw(cell.getTile().getTextureRegion().getTexture(), quad, 0, QUAD_SIZE);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return how many chunks across all groups have cells
+     */
+    public int getChunkCount() {
+        int count = 0;
+        for (int[] ids : cacheIds) {
+            for (int id : ids) {
+                count += id >= 0 ? 1 : 0;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Works out the quad for a cell as OrthogonalTiledMapRenderer does, as x, y, colour, u and v for the bottom left,
+     * top left, top right and bottom right corners.
+     *
+     * @param cell  the cell
+     * @param x     the x coordinate of the cell in pixels
+     * @param y     the y coordinate of the cell in pixels
+     * @param color the packed colour of the cell
+     * @param out   the array to write the quad into
+     */
+    static void cellQuad(TiledMapTileLayer.Cell cell, float x, float y, float color, float[] out) {
+        TiledMapTile tile = cell.getTile();
+        TextureRegion region = tile.getTextureRegion();
+        float x1 = x + tile.getOffsetX(), y1 = y + tile.getOffsetY();
+        float x2 = x1 + region.getRegionWidth(), y2 = y1 + region.getRegionHeight();
+        float u1 = region.getU(), v1 = region.getV2(), u2 = region.getU2(), v2 = region.getV();
+
+        // Texture coordinates of the corners, bottom left, top left, top right and bottom right.
+        float ua = u1, va = v1, ub = u1, vb = v2, uc = u2, vc = v2, ud = u2, vd = v1, temp;
+        if (cell.getFlipHorizontally()) {
+            temp = ua; ua = uc; uc = temp;
+            temp = ub; ub = ud; ud = temp;
+        }
+        if (cell.getFlipVertically()) {
+            temp = va; va = vc; vc = temp;
+            temp = vb; vb = vd; vd = temp;
+        }
+        switch (cell.getRotation()) {
+            case TiledMapTileLayer.Cell.ROTATE_90:
+                temp = va; va = vb; vb = vc; vc = vd; vd = temp;
+                temp = ua; ua = ub; ub = uc; uc = ud; ud = temp;
+                break;
+            case TiledMapTileLayer.Cell.ROTATE_180:
+                temp = ua; ua = uc; uc = temp;
+                temp = ub; ub = ud; ud = temp;
+                temp = va; va = vc; vc = temp;
+                temp = vb; vb = vd; vd = temp;
+                break;
+            case TiledMapTileLayer.Cell.ROTATE_270:
+                temp = va; va = vd; vd = vc; vc = vb; vb = temp;
+                temp = ua; ua = ud; ud = uc; uc = ub; ub = temp;
+                break;
+        }
+
+        setVertex(out, 0, x1, y1, color, ua, va);
+        setVertex(out, 1, x1, y2, color, ub, vb);
+        setVertex(out, 2, x2, y2, color, uc, vc);
+        setVertex(out, 3, x2, y1, color, ud, vd);
+    }
+
+    private static void setVertex(float[] out, int vertex, float x, float y, float color, float u, float v) {
+        int i = vertex * VERTEX_SIZE;
+        out[i] = x;
+        out[i + 1] = y;
+        out[i + 2] = color;
+        out[i + 3] = u;
+        out[i + 4] = v;
+    }
+
+    /**
+     * Turns a quad into the two triangles the cache stores when it has no indices.
+     */
+    private static void toTriangles(float[] quad, float[] out) {
+        System.arraycopy(quad, 0, out, 0, 3 * VERTEX_SIZE);
+        System.arraycopy(quad, 2 * VERTEX_SIZE, out, 3 * VERTEX_SIZE, 2 * VERTEX_SIZE);
+        System.arraycopy(quad, 0, out, 5 * VERTEX_SIZE, VERTEX_SIZE);
+    }
+
+    @Override
+    public void dispose() {
+        if (cache != null) {
+            cache.dispose();
+        }
+    }
+
+    /**
+     * A shader that can draw a TileChunkCache as well as a SpriteBatch. SpriteCache sets u_proj and u_trans as well as
+     * u_projTrans on a shader it is given, which shaders written for SpriteBatch do not have, so matrices the shader
+     * does not have are skipped here rather than failing, as they would with ShaderProgram.pedantic on.
+     */
+    public static class Shader extends ShaderProgram {
+
+        /**
+         * Creates a Shader and compiles it.
+         *
+         * @param vertexShader   the vertex shader's source file
+         * @param fragmentShader the fragment shader's source file
+         */
+        public Shader(FileHandle vertexShader, FileHandle fragmentShader) {
+            super(vertexShader, fragmentShader);
+        }
+
+        @Override
+        public void setUniformMatrix(String name, Matrix4 matrix, boolean transpose) {
+            if (hasUniform(name)) {
+                super.setUniformMatrix(name, matrix, transpose);
+            }
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.superduckinvaders.game.util;
+
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.math.Rectangle;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A compact bitset with one bit per map tile.
+ */
+public class TileGrid {
+
+    /**
+     * Decides whether a map cell should be set in a TileGrid.
+     */
+    public interface CellFilter {
+        boolean accept(TiledMapTileLayer.Cell cell);
+    }
+
+    /**
+     * Accepts every non-empty cell.
+     */
+    public static final CellFilter ANY_CELL = (TiledMapTileLayer.Cell cell) -> true;
+
+    /**
+     * The size of this TileGrid in tiles.
+     */
+    private final int width, height;
+
+    /**
+     * The bits of this TileGrid, row by row from the bottom left.
+     */
+    private final long[] bits;
+
+    /**
+     * Creates an empty TileGrid.
+     *
+     * @param width  the width in tiles
+     * @param height the height in tiles
+     */
+    public TileGrid(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.bits = new long[(width * height + 63) >> 6];
+    }
+
+    /**
+     * Creates a TileGrid with a bit set for every accepted cell in any of the given layers.
+     * Null layers are skipped.
+     *
+     * @param width  the width in tiles
+     * @param height the height in tiles
+     * @param filter which cells to set
+     * @param layers the layers to read
+     * @return the new TileGrid
+     */
+    public static TileGrid fromLayers(int width, int height, CellFilter filter, TiledMapTileLayer... layers) {
+        TileGrid grid = new TileGrid(width, height);
+        for (TiledMapTileLayer layer : layers) {
+            if (layer == null) {
+                continue;
+            }
+            int w = Math.min(width, layer.getWidth());
+            int h = Math.min(height, layer.getHeight());
+            for (int x = 0; x < w; x++) {
+                for (int y = 0; y < h; y++) {
+                    TiledMapTileLayer.Cell cell = layer.getCell(x, y);
+                    if (cell != null && cell.getTile() != null && filter.accept(cell)) {
+                        grid.set(x, y, true);
+                    }
+                }
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * @return the width of this TileGrid in tiles
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return the height of this TileGrid in tiles
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @param x the tile x
+     * @param y the tile y
+     * @return whether the tile is inside this TileGrid
+     */
+    public boolean inBounds(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    /**
+     * Gets the bit for a tile. Tiles outside the grid are reported as unset.
+     *
+     * @param x the tile x
+     * @param y the tile y
+     * @return whether the tile is set
+     */
+    public boolean get(int x, int y) {
+        if (!inBounds(x, y)) {
+            return false;
+        }
+        int i = y * width + x;
+        return (bits[i >> 6] & (1L << i)) != 0;
+    }
+
+    /**
+     * Sets the bit for a tile. Tiles outside the grid are ignored.
+     *
+     * @param x     the tile x
+     * @param y     the tile y
+     * @param value the new value
+     */
+    public void set(int x, int y, boolean value) {
+        if (!inBounds(x, y)) {
+            return;
+        }
+        int i = y * width + x;
+        if (value) {
+            bits[i >> 6] |= (1L << i);
+        } else {
+            bits[i >> 6] &= ~(1L << i);
+        }
+    }
+
+    /**
+     * @return how many tiles are set
+     */
+    public int count() {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Greedily covers every set tile with as few axis-aligned rectangles as it can.
+     * Each rectangle is grown right as far as possible, then up while every tile in the next row is set.
+     *
+     * @return the rectangles, in tile units
+     */
+    public List<Rectangle> toRectangles() {
+        List<Rectangle> rectangles = new ArrayList<>();
+        TileGrid covered = new TileGrid(width, height);
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (!get(x, y) || covered.get(x, y)) {
+                    continue;
+                }
+
+                int w = 1;
+                while (x + w < width && get(x + w, y) && !covered.get(x + w, y)) {
+                    w++;
+                }
+
+                int h = 1;
+                grow:
+                while (y + h < height) {
+                    for (int i = x; i < x + w; i++) {
+                        if (!get(i, y + h) || covered.get(i, y + h)) {
+                            break grow;
+                        }
+                    }
+                    h++;
+                }
+
+                for (int j = y; j < y + h; j++) {
+                    for (int i = x; i < x + w; i++) {
+                        covered.set(i, j, true);
+                    }
+                }
+                rectangles.add(new Rectangle(x, y, w, h));
+            }
+        }
+        return rectangles;
+    }
+}
@@ -0,0 +1,67 @@
+package com.superduckinvaders.game.util;
+
+import com.badlogic.gdx.utils.Pool;
+
+/**
+ * A Pool that counts how often it can hand out a free object rather than making a new one, and the most objects it
+ * has had out at once.
+ *
+ * @param <T> the type of object pooled
+ */
+public abstract class TrackedPool<T> extends Pool<T> {
+
+    /**
+     * How many objects were handed out from the free ones, and how many had to be made.
+     */
+    private int hits = 0, misses = 0;
+
+    /**
+     * How many objects are out now, and the most there have been out at once.
+     */
+    private int inUse = 0, highWater = 0;
+
+    @Override
+    public T obtain() {
+        if (getFree() > 0) {
+            hits++;
+        } else {
+            misses++;
+        }
+        highWater = Math.max(highWater, ++inUse);
+        return super.obtain();
+    }
+
+    @Override
+    public void free(T object) {
+        inUse--;
+        super.free(object);
+    }
+
+    /**
+     * @return how many objects have been handed out without making a new one
+     */
+    public int getHits() {
+        return hits;
+    }
+
+    /**
+     * @return how many objects have been made because none were free
+     */
+    public int getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return how many objects are out now
+     */
+    public int getInUse() {
+        return inUse;
+    }
+
+    /**
+     * @return the most objects there have been out at once
+     */
+    public int getHighWater() {
+        return highWater;
+    }
+}
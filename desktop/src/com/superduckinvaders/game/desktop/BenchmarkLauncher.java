@@ -0,0 +1,48 @@
+package com.superduckinvaders.game.desktop;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.lwjgl.LwjglApplication;
+import com.badlogic.gdx.backends.lwjgl.LwjglApplicationConfiguration;
+import com.superduckinvaders.game.assets.Assets;
+import com.superduckinvaders.game.desktop.benchmark.ActivityBenchmark;
+import com.superduckinvaders.game.desktop.benchmark.EnvironmentBodiesBenchmark;
+import com.superduckinvaders.game.desktop.benchmark.HierarchicalBenchmark;
+import com.superduckinvaders.game.desktop.benchmark.JumpPointBenchmark;
+import com.superduckinvaders.game.desktop.benchmark.LineOfSightBenchmark;
+import com.superduckinvaders.game.desktop.benchmark.MobStoreBenchmark;
+import com.superduckinvaders.game.desktop.benchmark.PathfindingBenchmark;
+import com.superduckinvaders.game.desktop.benchmark.ProjectileBenchmark;
+import com.superduckinvaders.game.desktop.benchmark.RenderOrderBenchmark;
+import com.superduckinvaders.game.desktop.benchmark.SpatialHashBenchmark;
+
+/**
+ * Runs the performance benchmarks and prints their results. Run with "gradle desktop:benchmark".
+ */
+public class BenchmarkLauncher {
+	public static void main (String[] arg) {
+		LwjglApplicationConfiguration config = new LwjglApplicationConfiguration();
+		config.width = 320;
+		config.height = 180;
+		config.title = "Benchmarks";
+		new LwjglApplication(new ApplicationAdapter() {
+			@Override
+			public void create() {
+				// Benchmarks run on the GL thread as loading maps needs a context.
+				new EnvironmentBodiesBenchmark().run();
+				new JumpPointBenchmark().run();
+				new HierarchicalBenchmark().run();
+				new LineOfSightBenchmark().run();
+				new SpatialHashBenchmark().run();
+				new RenderOrderBenchmark().run();
+
+				Assets.load();
+				new PathfindingBenchmark("FinalMaps/RoadMap.tmx").run();
+				new ProjectileBenchmark("FinalMaps/RoadMap.tmx").run();
+				new MobStoreBenchmark("FinalMaps/RoadMap.tmx").run();
+				new ActivityBenchmark("FinalMaps/RoadMap.tmx").run();
+				Gdx.app.exit();
+			}
+		}, config);
+	}
+}
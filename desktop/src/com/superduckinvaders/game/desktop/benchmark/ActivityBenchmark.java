@@ -0,0 +1,149 @@
+package com.superduckinvaders.game.desktop.benchmark;
+
+import com.badlogic.ashley.core.PooledEngine;
+import com.badlogic.gdx.maps.MapLayer;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.TmxMapLoader;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.superduckinvaders.game.Round;
+import com.superduckinvaders.game.ecs.ActivityComponent;
+import com.superduckinvaders.game.ecs.ActivitySystem;
+import com.superduckinvaders.game.ecs.Mappers;
+import com.superduckinvaders.game.ecs.PhysicsSystem;
+import com.superduckinvaders.game.ecs.SpatialHashSystem;
+import com.superduckinvaders.game.ecs.TransformSystem;
+import com.superduckinvaders.game.entity.mob.Mob;
+
+/**
+ * Measures what putting far away mobs to sleep saves, on a map made of 4 by 4 copies of the given map with mobs
+ * spread over all of it, every one walking. Each mob count is stepped first with every body awake, as before the
+ * ActivitySystem, then with the ActivitySystem sorting the mobs into tiers on every step.
+ * Reports the time per step of the physics and transform systems in each case, the time the tier pass takes, and how
+ * many mobs end up in each tier. AI and entity updates are left out, as they need a running game.
+ * Needs the assets loaded.
+ */
+public class ActivityBenchmark {
+
+    /**
+     * How many mobs to measure with.
+     */
+    private static final int[] COUNTS = {500, 2000, 5000};
+
+    /**
+     * How many copies of the map to put side by side and one above another.
+     */
+    private static final int COPIES = 4;
+
+    /**
+     * How many steps to time, after the warm up steps.
+     */
+    private static final int STEPS = 300, WARM_UP_STEPS = 60;
+
+    /**
+     * How fast the mobs walk, in pixels per second.
+     */
+    private static final float SPEED = 60;
+
+    /**
+     * The map to copy.
+     */
+    private final String mapPath;
+
+    public ActivityBenchmark(String mapPath) {
+        this.mapPath = mapPath;
+    }
+
+    public void run() {
+        System.out.println("== Activity tiers on " + COPIES + "x" + COPIES + " " + mapPath + ", ms per step");
+        System.out.println(String.format("%8s %10s %10s %10s %8s %8s %8s",
+                "mobs", "all awake", "tiered", "tiers", "active", "coarse", "dormant"));
+        TiledMap source = new TmxMapLoader().load(mapPath);
+        TiledMap map = repeat(source, COPIES);
+        for (int count : COUNTS) {
+            report(map, count);
+        }
+        source.dispose();
+    }
+
+    private void report(TiledMap map, int count) {
+        MathUtils.random.setSeed(count);
+        Round round = new Round(null, map, count, false);
+        // One step with nothing in the engine yet adds the player and mobs to it.
+        round.update(Round.STEP_TIME);
+
+        PooledEngine engine = round.getEngine();
+        PhysicsSystem physicsSystem = engine.getSystem(PhysicsSystem.class);
+        TransformSystem transformSystem = engine.getSystem(TransformSystem.class);
+        SpatialHashSystem spatialHashSystem = engine.getSystem(SpatialHashSystem.class);
+        ActivitySystem activitySystem = engine.getSystem(ActivitySystem.class);
+
+        Vector2 velocity = new Vector2();
+        for (com.badlogic.ashley.core.Entity ecsEntity : round.getAISystem().getMobs()) {
+            Mob mob = Mappers.AI.get(ecsEntity).mob;
+            mob.setVelocity(velocity.set(SPEED, 0).setAngle(MathUtils.random(360f)));
+        }
+
+        long awakeTime = 0, tieredTime = 0, tierTime = 0;
+        for (int step = 0; step < WARM_UP_STEPS + STEPS; step++) {
+            long start = System.nanoTime();
+            physicsSystem.update(Round.STEP_TIME);
+            transformSystem.update(Round.STEP_TIME);
+            awakeTime += step >= WARM_UP_STEPS ? System.nanoTime() - start : 0;
+        }
+        for (int step = 0; step < WARM_UP_STEPS + STEPS; step++) {
+            long start = System.nanoTime();
+            physicsSystem.update(Round.STEP_TIME);
+            transformSystem.update(Round.STEP_TIME);
+            spatialHashSystem.update(Round.STEP_TIME);
+            long tierStart = System.nanoTime();
+            activitySystem.update(Round.STEP_TIME);
+            long end = System.nanoTime();
+            if (step >= WARM_UP_STEPS) {
+                tieredTime += end - start;
+                tierTime += end - tierStart;
+            }
+        }
+
+        int[] tiers = new int[ActivityComponent.Tier.values().length];
+        for (com.badlogic.ashley.core.Entity ecsEntity : round.getAISystem().getMobs()) {
+            tiers[Mappers.ACTIVITY.get(ecsEntity).tier.ordinal()]++;
+        }
+        System.out.println(String.format("%8d %10.3f %10.3f %10.3f %8d %8d %8d", round.getAISystem().getMobs().size(),
+                awakeTime / 1e6 / STEPS, tieredTime / 1e6 / STEPS, tierTime / 1e6 / STEPS,
+                tiers[ActivityComponent.Tier.ACTIVE.ordinal()], tiers[ActivityComponent.Tier.COARSE.ordinal()],
+                tiers[ActivityComponent.Tier.DORMANT.ordinal()]));
+        round.world.dispose();
+    }
+
+    /**
+     * Makes a map of copies of another map, sharing its tiles. Only tile layers are copied.
+     *
+     * @param source the map to copy
+     * @param copies how many copies to put side by side and one above another
+     * @return the bigger map
+     */
+    private static TiledMap repeat(TiledMap source, int copies) {
+        TiledMap map = new TiledMap();
+        map.getProperties().putAll(source.getProperties());
+        for (MapLayer layer : source.getLayers()) {
+            if (!(layer instanceof TiledMapTileLayer)) {
+                continue;
+            }
+            TiledMapTileLayer sourceLayer = (TiledMapTileLayer) layer;
+            int width = sourceLayer.getWidth(), height = sourceLayer.getHeight();
+            TiledMapTileLayer copy = new TiledMapTileLayer(width * copies, height * copies,
+                    (int) sourceLayer.getTileWidth(), (int) sourceLayer.getTileHeight());
+            copy.setName(sourceLayer.getName());
+            copy.setVisible(sourceLayer.isVisible());
+            for (int x = 0; x < width * copies; x++) {
+                for (int y = 0; y < height * copies; y++) {
+                    copy.setCell(x, y, sourceLayer.getCell(x % width, y % height));
+                }
+            }
+            map.getLayers().add(copy);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,116 @@
+package com.superduckinvaders.game.desktop.benchmark;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.TmxMapLoader;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.*;
+import com.superduckinvaders.game.entity.PhysicsEntity;
+import com.superduckinvaders.game.util.TileGrid;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares one static body per solid tile against merged rectangle bodies on every map in FinalMaps, once with each
+ * obstacles layer a round could choose.
+ * Reports the static body count and the average time of world.step with a crowd of moving boxes.
+ */
+public class EnvironmentBodiesBenchmark {
+
+    /**
+     * How many moving boxes to add to the world.
+     */
+    private static final int DYNAMIC_BODIES = 200;
+
+    /**
+     * How many steps to time, after the warm up steps.
+     */
+    private static final int STEPS = 600, WARM_UP_STEPS = 60;
+
+    public void run() {
+        System.out.println("== Environment bodies: per tile vs merged rectangles");
+        System.out.println(String.format("%-20s %-10s %-9s %8s %12s", "map", "obstacles", "mode", "bodies", "step (ms)"));
+
+        TmxMapLoader loader = new TmxMapLoader();
+        for (FileHandle file : Gdx.files.internal("FinalMaps").list(".tmx")) {
+            TiledMap map = loader.load(file.path());
+            TiledMapTileLayer base = (TiledMapTileLayer) map.getLayers().get("Base");
+
+            // A round picks one obstacles layer at random, so measure each one it could pick.
+            int layers = 0;
+            while (map.getLayers().get(String.format("Obstacles%d", layers)) != null) {
+                layers++;
+            }
+            for (int layer = 0; layer < Math.max(1, layers); layer++) {
+                String obstacles = layers == 0 ? "none" : String.format("Obstacles%d", layer);
+                TileGrid solid = TileGrid.fromLayers(base.getWidth(), base.getHeight(), TileGrid.ANY_CELL,
+                        (TiledMapTileLayer) map.getLayers().get("Collision"),
+                        (TiledMapTileLayer) map.getLayers().get(obstacles));
+
+                List<Rectangle> perTile = new ArrayList<>();
+                for (int x = 0; x < solid.getWidth(); x++) {
+                    for (int y = 0; y < solid.getHeight(); y++) {
+                        if (solid.get(x, y)) {
+                            perTile.add(new Rectangle(x, y, 1, 1));
+                        }
+                    }
+                }
+
+                report(file.name(), obstacles, "per tile", solid, perTile, base.getTileWidth());
+                report(file.name(), obstacles, "merged", solid, solid.toRectangles(), base.getTileWidth());
+            }
+            map.dispose();
+        }
+    }
+
+    private void report(String mapName, String obstacles, String mode, TileGrid solid, List<Rectangle> rectangles, float tileSize) {
+        World world = new World(Vector2.Zero.cpy(), true);
+        for (Rectangle r : rectangles) {
+            createBox(world, BodyDef.BodyType.StaticBody, r.x * tileSize, r.y * tileSize, r.width * tileSize, r.height * tileSize);
+        }
+        int staticBodies = world.getBodyCount();
+
+        // Same seed for both modes so the crowd starts in the same places.
+        MathUtils.random.setSeed(mapName.hashCode());
+        for (int i = 0; i < DYNAMIC_BODIES; ) {
+            int x = MathUtils.random(solid.getWidth() - 1);
+            int y = MathUtils.random(solid.getHeight() - 1);
+            if (!solid.get(x, y)) {
+                Body body = createBox(world, BodyDef.BodyType.DynamicBody, x * tileSize, y * tileSize, 14, 14);
+                body.setLinearVelocity(MathUtils.random(-5f, 5f), MathUtils.random(-5f, 5f));
+                i++;
+            }
+        }
+
+        for (int i = 0; i < WARM_UP_STEPS; i++) {
+            world.step(1 / 60f, 6, 2);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < STEPS; i++) {
+            world.step(1 / 60f, 6, 2);
+        }
+        double stepMillis = (System.nanoTime() - start) / 1e6 / STEPS;
+
+        System.out.println(String.format("%-20s %-10s %-9s %8d %12.4f", mapName, obstacles, mode, staticBodies, stepMillis));
+        world.dispose();
+    }
+
+    private Body createBox(World world, BodyDef.BodyType type, float x, float y, float width, float height) {
+        BodyDef bodyDef = new BodyDef();
+        bodyDef.type = type;
+        bodyDef.position.set((x + width / 2) * PhysicsEntity.METRES_PER_PIXEL, (y + height / 2) * PhysicsEntity.METRES_PER_PIXEL);
+
+        PolygonShape shape = new PolygonShape();
+        shape.setAsBox(width / 2 * PhysicsEntity.METRES_PER_PIXEL, height / 2 * PhysicsEntity.METRES_PER_PIXEL);
+
+        Body body = world.createBody(bodyDef);
+        body.createFixture(shape, 1f);
+        shape.dispose();
+        return body;
+    }
+}
@@ -0,0 +1,165 @@
+package com.superduckinvaders.game.desktop.benchmark;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.TmxMapLoader;
+import com.badlogic.gdx.math.MathUtils;
+import com.superduckinvaders.game.ai.ChunkGraph;
+import com.superduckinvaders.game.ai.GridSearch;
+import com.superduckinvaders.game.ai.HierarchicalSearch;
+import com.superduckinvaders.game.ai.JumpPointSearch;
+import com.superduckinvaders.game.ai.PathfindingAI;
+import com.superduckinvaders.game.util.LineOfSight;
+import com.superduckinvaders.game.util.OccupancyGrid;
+import com.superduckinvaders.game.util.TileGrid;
+
+/**
+ * Compares hierarchical pathfinding with the depth limited A* PathfindingAI uses by default and with a full Jump Point
+ * Search, between random pairs of corners on every map in FinalMaps and on a map made of 4 by 4 copies of RoadMap.
+ * Reports how often each finds a path, how long queries take, how much longer the hierarchical paths are on average
+ * than the shortest ones, and how long it takes to build the chunk graph and to rebuild it after one tile changes.
+ */
+public class HierarchicalBenchmark {
+
+    /**
+     * How many random start and goal pairs to search between on each map.
+     */
+    private static final int PAIRS = 500;
+
+    /**
+     * The mob size to search for, in pixels.
+     */
+    private static final int MOB_SIZE = 16;
+
+    /**
+     * How many copies of RoadMap across and up the large map.
+     */
+    private static final int LARGE_MAP_COPIES = 4;
+
+    public void run() {
+        System.out.println("== Hierarchical pathfinding over " + PAIRS + " random pairs");
+        System.out.println(String.format("%-22s %7s %6s %9s %10s %10s %9s %9s %9s %9s %9s %9s",
+                "map", "corners", "nodes", "build ms", "rebuild ms", "A*40 found", "JPS found", "HPA found",
+                "A*40 ms", "JPS ms", "HPA ms", "HPA/JPS"));
+
+        TmxMapLoader loader = new TmxMapLoader();
+        for (FileHandle file : Gdx.files.internal("FinalMaps").list(".tmx")) {
+            TiledMap map = loader.load(file.path());
+            report(file.name(), loadSolid(map), map);
+            if (file.name().equals("RoadMap.tmx")) {
+                report("RoadMap.tmx x" + LARGE_MAP_COPIES * LARGE_MAP_COPIES, repeat(loadSolid(map), LARGE_MAP_COPIES), map);
+            }
+            map.dispose();
+        }
+    }
+
+    private void report(String mapName, TileGrid solid, TiledMap map) {
+        TiledMapTileLayer base = (TiledMapTileLayer) map.getLayers().get("Base");
+        OccupancyGrid grid = new OccupancyGrid(solid, (int) base.getTileWidth(), (int) base.getTileHeight());
+        OccupancyGrid.Clearance clearance = grid.getClearance(MOB_SIZE, MOB_SIZE);
+        LineOfSight sight = new LineOfSight(grid);
+        int width = clearance.getWidth(), height = clearance.getHeight();
+
+        long start = System.nanoTime();
+        ChunkGraph chunkGraph = new ChunkGraph(sight, clearance, ChunkGraph.DEFAULT_CHUNK_SIZE);
+        float buildTime = (System.nanoTime() - start) / 1e6f;
+
+        // Flip the middle tile, time the rebuild, then flip it back so the searches run on the map as it was.
+        int tileX = grid.getWidth() / 2, tileY = grid.getHeight() / 2;
+        boolean wasBlocked = grid.isBlocked(tileX, tileY);
+        grid.setBlocked(tileX, tileY, !wasBlocked);
+        sight.invalidate(tileX, tileY, tileX, tileY);
+        chunkGraph.tilesChanged(tileX, tileY, tileX, tileY);
+        chunkGraph.rebuildDirty();
+        float rebuildTime = chunkGraph.getLastRebuildTime();
+
+        grid.setBlocked(tileX, tileY, wasBlocked);
+        sight.invalidate(tileX, tileY, tileX, tileY);
+        chunkGraph.tilesChanged(tileX, tileY, tileX, tileY);
+        chunkGraph.rebuildDirty();
+
+        GridSearch limited = new GridSearch(width, height);
+        JumpPointSearch full = new JumpPointSearch(width, height);
+        HierarchicalSearch hierarchical = new HierarchicalSearch(width, height);
+
+        MathUtils.random.setSeed(mapName.hashCode());
+        int foundLimited = 0, foundFull = 0, foundHierarchical = 0;
+        double costRatio = 0;
+        long timeLimited = 0, timeFull = 0, timeHierarchical = 0;
+
+        for (int i = 0; i < PAIRS; i++) {
+            int startX, startY, goalX, goalY;
+            do {
+                startX = MathUtils.random(width - 1);
+                startY = MathUtils.random(height - 1);
+            } while (!clearance.canStand(startX, startY));
+            do {
+                goalX = MathUtils.random(width - 1);
+                goalY = MathUtils.random(height - 1);
+            } while (!clearance.canStand(goalX, goalY));
+
+            long queryStart = System.nanoTime();
+            if (limited.search(sight, clearance, startX, startY, goalX, goalY, PathfindingAI.PATHFINDING_ITERATION_LIMIT, false)) {
+                foundLimited++;
+            }
+            timeLimited += System.nanoTime() - queryStart;
+
+            queryStart = System.nanoTime();
+            boolean found = full.search(sight, clearance, startX, startY, goalX, goalY, Float.MAX_VALUE, false);
+            timeFull += System.nanoTime() - queryStart;
+
+            queryStart = System.nanoTime();
+            boolean foundHere = hierarchical.search(chunkGraph, startX, startY, goalX, goalY);
+            timeHierarchical += System.nanoTime() - queryStart;
+
+            if (found) {
+                foundFull++;
+            }
+            if (foundHere) {
+                foundHierarchical++;
+                if (found && full.getPathCost() > 0) {
+                    costRatio += hierarchical.getPathCost() / full.getPathCost();
+                }
+            }
+        }
+
+        System.out.println(String.format("%-22s %7d %6d %9.1f %10.2f %10d %9d %9d %9.3f %9.3f %9.3f %9.3f",
+                mapName, width * height, chunkGraph.getNodeCount(), buildTime, rebuildTime,
+                foundLimited, foundFull, foundHierarchical,
+                timeLimited / 1e6 / PAIRS, timeFull / 1e6 / PAIRS, timeHierarchical / 1e6 / PAIRS,
+                costRatio / Math.max(1, foundHierarchical)));
+    }
+
+    private TileGrid loadSolid(TiledMap map) {
+        TiledMapTileLayer base = (TiledMapTileLayer) map.getLayers().get("Base");
+        return TileGrid.fromLayers(base.getWidth(), base.getHeight(), TileGrid.ANY_CELL,
+                (TiledMapTileLayer) map.getLayers().get("Collision"),
+                (TiledMapTileLayer) map.getLayers().get("Obstacles0"));
+    }
+
+    /**
+     * Makes a larger map out of copies of a smaller one, with a gap knocked through each shared edge wall.
+     */
+    private TileGrid repeat(TileGrid tile, int copies) {
+        int width = tile.getWidth(), height = tile.getHeight();
+        TileGrid large = new TileGrid(width * copies, height * copies);
+        for (int x = 0; x < large.getWidth(); x++) {
+            for (int y = 0; y < large.getHeight(); y++) {
+                large.set(x, y, tile.get(x % width, y % height));
+            }
+        }
+        for (int i = 1; i < copies; i++) {
+            for (int j = 0; j < copies; j++) {
+                for (int gap = -3; gap <= 3; gap++) {
+                    for (int edge = -2; edge < 2; edge++) {
+                        large.set(i * width + edge, j * height + height / 2 + gap, false);
+                        large.set(j * width + width / 2 + gap, i * height + edge, false);
+                    }
+                }
+            }
+        }
+        return large;
+    }
+}
@@ -0,0 +1,103 @@
+package com.superduckinvaders.game.desktop.benchmark;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.TmxMapLoader;
+import com.badlogic.gdx.math.MathUtils;
+import com.superduckinvaders.game.ai.GridSearch;
+import com.superduckinvaders.game.ai.JumpPointSearch;
+import com.superduckinvaders.game.util.LineOfSight;
+import com.superduckinvaders.game.util.OccupancyGrid;
+import com.superduckinvaders.game.util.TileGrid;
+
+/**
+ * Compares how many corners JumpPointSearch and 8 direction GridSearch expand, and how long they take, on every map in
+ * FinalMaps. The 4 direction GridSearch PathfindingAI uses by default is included for comparison.
+ * That the searches agree is checked by JumpPointSearchTest.
+ */
+public class JumpPointBenchmark {
+
+    /**
+     * How many random start and goal pairs to search between on each map.
+     */
+    private static final int PAIRS = 500;
+
+    /**
+     * The mob sizes to search for, in pixels.
+     */
+    private static final int[] MOB_SIZES = {16, 32};
+
+    public void run() {
+        System.out.println("== Jump Point Search vs A* over " + PAIRS + " random pairs, corners expanded / ms per search");
+        System.out.println(String.format("%-20s %5s %10s %12s %12s %12s",
+                "map", "size", "reachable", "A*4 exp/ms", "A*8 exp/ms", "JPS exp/ms"));
+
+        TmxMapLoader loader = new TmxMapLoader();
+        for (FileHandle file : Gdx.files.internal("FinalMaps").list(".tmx")) {
+            TiledMap map = loader.load(file.path());
+            TiledMapTileLayer base = (TiledMapTileLayer) map.getLayers().get("Base");
+            TileGrid solid = TileGrid.fromLayers(base.getWidth(), base.getHeight(), TileGrid.ANY_CELL,
+                    (TiledMapTileLayer) map.getLayers().get("Collision"),
+                    (TiledMapTileLayer) map.getLayers().get("Obstacles0"));
+            OccupancyGrid grid = new OccupancyGrid(solid, (int) base.getTileWidth(), (int) base.getTileHeight());
+
+            for (int size : MOB_SIZES) {
+                report(file.name(), grid, grid.getClearance(size, size));
+            }
+            map.dispose();
+        }
+    }
+
+    private void report(String mapName, OccupancyGrid grid, OccupancyGrid.Clearance clearance) {
+        LineOfSight sight = new LineOfSight(grid);
+        int width = clearance.getWidth(), height = clearance.getHeight();
+        GridSearch aStar4 = new GridSearch(width, height);
+        GridSearch aStar8 = new GridSearch(width, height);
+        aStar8.setDiagonal(true);
+        JumpPointSearch jps = new JumpPointSearch(width, height);
+
+        MathUtils.random.setSeed(mapName.hashCode() + clearance.getBoxWidth());
+        int reachable = 0;
+        long expanded4 = 0, expanded8 = 0, expandedJps = 0, time4 = 0, time8 = 0, timeJps = 0;
+
+        for (int i = 0; i < PAIRS; i++) {
+            int startX, startY, goalX, goalY;
+            do {
+                startX = MathUtils.random(width - 1);
+                startY = MathUtils.random(height - 1);
+            } while (!clearance.canStand(startX, startY));
+            do {
+                goalX = MathUtils.random(width - 1);
+                goalY = MathUtils.random(height - 1);
+            } while (!clearance.canStand(goalX, goalY));
+
+            long start = System.nanoTime();
+            aStar4.search(sight, clearance, startX, startY, goalX, goalY, Float.MAX_VALUE, false);
+            time4 += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            boolean found8 = aStar8.search(sight, clearance, startX, startY, goalX, goalY, Float.MAX_VALUE, false);
+            time8 += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            jps.search(sight, clearance, startX, startY, goalX, goalY, Float.MAX_VALUE, false);
+            timeJps += System.nanoTime() - start;
+
+            expanded4 += aStar4.getExpanded();
+            expanded8 += aStar8.getExpanded();
+            expandedJps += jps.getExpanded();
+
+            if (found8) {
+                reachable++;
+            }
+        }
+
+        System.out.println(String.format("%-20s %5d %10d %5.0f/%6.3f %5.0f/%6.3f %5.0f/%6.3f",
+                mapName, clearance.getBoxWidth(), reachable,
+                (float) expanded4 / PAIRS, time4 / 1e6 / PAIRS,
+                (float) expanded8 / PAIRS, time8 / 1e6 / PAIRS,
+                (float) expandedJps / PAIRS, timeJps / 1e6 / PAIRS));
+    }
+}
@@ -0,0 +1,162 @@
+package com.superduckinvaders.game.desktop.benchmark;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.TmxMapLoader;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.physics.box2d.PolygonShape;
+import com.badlogic.gdx.physics.box2d.World;
+import com.superduckinvaders.game.entity.PhysicsEntity;
+import com.superduckinvaders.game.util.LineOfSight;
+import com.superduckinvaders.game.util.OccupancyGrid;
+import com.superduckinvaders.game.util.RayCast;
+import com.superduckinvaders.game.util.TileGrid;
+
+/**
+ * Compares line of sight from a mob's corners and centre done with five Box2D raycasts against the grid walk in
+ * LineOfSight, between random pairs of points on every map in FinalMaps.
+ * Reports how long each takes, how often they agree, and how long the remembered corner to corner queries that
+ * searches make take the first time and once remembered.
+ */
+public class LineOfSightBenchmark {
+
+    /**
+     * How many random pairs of points to test on each map.
+     */
+    private static final int PAIRS = 20000;
+
+    /**
+     * How far apart the points in a pair can be, in tiles.
+     */
+    private static final int MAX_DISTANCE = 20;
+
+    /**
+     * The mob size to test for, in pixels.
+     */
+    private static final int MOB_SIZE = 14;
+
+    public void run() {
+        System.out.println("== Line of sight over " + PAIRS + " random pairs");
+        System.out.println(String.format("%-20s %10s %10s %8s %10s %10s %10s",
+                "map", "box2d us", "grid us", "agree", "grid no", "corner us", "cached us"));
+
+        TmxMapLoader loader = new TmxMapLoader();
+        for (FileHandle file : Gdx.files.internal("FinalMaps").list(".tmx")) {
+            TiledMap map = loader.load(file.path());
+            TiledMapTileLayer base = (TiledMapTileLayer) map.getLayers().get("Base");
+            TileGrid solid = TileGrid.fromLayers(base.getWidth(), base.getHeight(), TileGrid.ANY_CELL,
+                    (TiledMapTileLayer) map.getLayers().get("Collision"),
+                    (TiledMapTileLayer) map.getLayers().get("Obstacles0"));
+            report(file.name(), solid, (int) base.getTileWidth(), (int) base.getTileHeight());
+            map.dispose();
+        }
+    }
+
+    private void report(String mapName, TileGrid solid, int tileWidth, int tileHeight) {
+        World world = new World(Vector2.Zero.cpy(), true);
+        for (Rectangle r : solid.toRectangles()) {
+            createBox(world, r.x * tileWidth, r.y * tileHeight, r.width * tileWidth, r.height * tileHeight);
+        }
+        OccupancyGrid grid = new OccupancyGrid(solid, tileWidth, tileHeight);
+        LineOfSight sight = new LineOfSight(grid);
+
+        float[] points = new float[PAIRS * 4];
+        MathUtils.random.setSeed(mapName.hashCode());
+        for (int i = 0; i < PAIRS; i++) {
+            float x, y, targetX, targetY;
+            do {
+                x = MathUtils.random(solid.getWidth() * tileWidth);
+                y = MathUtils.random(solid.getHeight() * tileHeight);
+            } while (grid.collideArea(x - MOB_SIZE / 2f, y - MOB_SIZE / 2f, MOB_SIZE, MOB_SIZE));
+            do {
+                targetX = x + MathUtils.random(-MAX_DISTANCE, MAX_DISTANCE) * tileWidth + MathUtils.random(tileWidth);
+                targetY = y + MathUtils.random(-MAX_DISTANCE, MAX_DISTANCE) * tileHeight + MathUtils.random(tileHeight);
+            } while (grid.collidePoint(targetX, targetY));
+            points[i * 4] = x;
+            points[i * 4 + 1] = y;
+            points[i * 4 + 2] = targetX;
+            points[i * 4 + 3] = targetY;
+        }
+
+        boolean[] box2dResults = new boolean[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            // Warm up both.
+            box2dCanSee(world, points[i * 4], points[i * 4 + 1], points[i * 4 + 2], points[i * 4 + 3]);
+            sight.canSee(points[i * 4], points[i * 4 + 1], MOB_SIZE, MOB_SIZE, points[i * 4 + 2], points[i * 4 + 3]);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < PAIRS; i++) {
+            box2dResults[i] = box2dCanSee(world, points[i * 4], points[i * 4 + 1], points[i * 4 + 2], points[i * 4 + 3]);
+        }
+        long box2dTime = System.nanoTime() - start;
+
+        int agree = 0, blocked = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < PAIRS; i++) {
+            boolean visible = sight.canSee(points[i * 4], points[i * 4 + 1], MOB_SIZE, MOB_SIZE, points[i * 4 + 2], points[i * 4 + 3]);
+            agree += visible == box2dResults[i] ? 1 : 0;
+            blocked += visible ? 0 : 1;
+        }
+        long gridTime = System.nanoTime() - start;
+
+        // Every corner a mob can stand on, towards one goal, as a search towards the player would ask.
+        OccupancyGrid.Clearance clearance = grid.getClearance(MOB_SIZE, MOB_SIZE);
+        int goalX = clearance.getWidth() / 2, goalY = clearance.getHeight() / 2;
+        long[] cornerTimes = new long[2];
+        int corners = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            start = System.nanoTime();
+            for (int x = 0; x < clearance.getWidth(); x++) {
+                for (int y = 0; y < clearance.getHeight(); y++) {
+                    if (clearance.canStand(x, y)) {
+                        sight.canSeeCorner(clearance, x, y, goalX, goalY);
+                        corners += pass == 0 ? 1 : 0;
+                    }
+                }
+            }
+            cornerTimes[pass] = System.nanoTime() - start;
+        }
+
+        System.out.println(String.format("%-20s %10.3f %10.3f %7.2f%% %10d %10.3f %10.3f",
+                mapName, box2dTime / 1e3 / PAIRS, gridTime / 1e3 / PAIRS, 100f * agree / PAIRS, blocked,
+                cornerTimes[0] / 1e3 / corners, cornerTimes[1] / 1e3 / corners));
+        world.dispose();
+    }
+
+    /**
+     * Line of sight from the corners and centre of a mob to a point, the way Round did it with Box2D.
+     */
+    private boolean box2dCanSee(World world, float x, float y, float targetX, float targetY) {
+        float half = MOB_SIZE / 2f;
+        return rayCast(world, x, y, targetX, targetY)
+                && rayCast(world, x + half, y + half, targetX, targetY) && rayCast(world, x - half, y + half, targetX, targetY)
+                && rayCast(world, x - half, y - half, targetX, targetY) && rayCast(world, x + half, y - half, targetX, targetY);
+    }
+
+    private boolean rayCast(World world, float x0, float y0, float x1, float y1) {
+        if (x0 == x1 && y0 == y1) {
+            // Box2D will not cast a ray of no length.
+            return true;
+        }
+        RayCast.RayCastCB callback = new RayCast.RayCastCB(PhysicsEntity.ALL_BITS);
+        world.rayCast(callback, new Vector2(x0, y0).scl(PhysicsEntity.METRES_PER_PIXEL),
+                new Vector2(x1, y1).scl(PhysicsEntity.METRES_PER_PIXEL));
+        return callback.clear;
+    }
+
+    private void createBox(World world, float x, float y, float width, float height) {
+        BodyDef bodyDef = new BodyDef();
+        bodyDef.type = BodyDef.BodyType.StaticBody;
+        bodyDef.position.set((x + width / 2) * PhysicsEntity.METRES_PER_PIXEL, (y + height / 2) * PhysicsEntity.METRES_PER_PIXEL);
+
+        PolygonShape shape = new PolygonShape();
+        shape.setAsBox(width / 2 * PhysicsEntity.METRES_PER_PIXEL, height / 2 * PhysicsEntity.METRES_PER_PIXEL);
+        world.createBody(bodyDef).createFixture(shape, 1f);
+        shape.dispose();
+    }
+}
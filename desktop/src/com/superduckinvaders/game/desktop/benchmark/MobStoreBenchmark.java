@@ -0,0 +1,139 @@
+package com.superduckinvaders.game.desktop.benchmark;
+
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TmxMapLoader;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.superduckinvaders.game.Round;
+import com.superduckinvaders.game.assets.TextureSet;
+import com.superduckinvaders.game.entity.Character;
+import com.superduckinvaders.game.entity.mob.MeleeMob;
+import com.superduckinvaders.game.entity.mob.Mob;
+import com.superduckinvaders.game.entity.mob.MobStore;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compares moving on the timers, animation time, demented wander and facing of every mob with MobStore's loops over
+ * parallel arrays against doing the same work one object at a time, with the fields laid out as Character had them.
+ * The store is filled by making real mobs in a Round. The objects are made mixed in with other garbage and visited in
+ * shuffled order, as mobs spawned over a round are. Every mob is walking and one in ten is demented.
+ * Reports the time per step of each. Needs the assets loaded.
+ */
+public class MobStoreBenchmark {
+
+    /**
+     * How many mobs to measure with.
+     */
+    private static final int[] COUNTS = {1000, 10000, 50000};
+
+    /**
+     * How many steps to time, after the warm up steps.
+     */
+    private static final int STEPS = 500, WARM_UP_STEPS = 1000;
+
+    /**
+     * The map to make the mobs on.
+     */
+    private final String mapPath;
+
+    public MobStoreBenchmark(String mapPath) {
+        this.mapPath = mapPath;
+    }
+
+    public void run() {
+        System.out.println("== Mob state: objects vs MobStore arrays, us per step");
+        System.out.println(String.format("%8s %12s %12s", "mobs", "objects", "MobStore"));
+        TiledMap map = new TmxMapLoader().load(mapPath);
+        for (int count : COUNTS) {
+            report(map, count);
+        }
+        map.dispose();
+    }
+
+    private void report(TiledMap map, int count) {
+        MathUtils.random.setSeed(count);
+        Round round = new Round(null, map, 0, false);
+        MobStore store = round.getMobStore();
+        List<ObjectMob> objects = new ArrayList<>();
+        List<Object> garbage = new ArrayList<>();
+        Vector2 velocity = new Vector2();
+        for (int i = 0; i < count; i++) {
+            Mob mob = new MeleeMob(round, MathUtils.random(round.getMapWidth() - 32), MathUtils.random(round.getMapHeight() - 32), 100, 100, 15);
+            mob.setStepDelta(Round.STEP_TIME);
+            mob.setVelocity(velocity.set(100, 0).setAngle(MathUtils.random(360f)));
+            mob.updateSnapshot();
+
+            ObjectMob object = new ObjectMob();
+            object.velocityX = mob.getVelocityX();
+            object.velocityY = mob.getVelocityY();
+            if (i % 10 == 0) {
+                mob.setDemented(true);
+                object.dementedTimer = 10;
+            }
+            objects.add(object);
+            garbage.add(new float[MathUtils.random(4, 32)]);
+        }
+        Collections.shuffle(objects, MathUtils.random);
+
+        long objectTime = 0, storeTime = 0;
+        for (int step = 0; step < WARM_UP_STEPS + STEPS; step++) {
+            long start = System.nanoTime();
+            for (ObjectMob object : objects) {
+                object.update(Round.STEP_TIME);
+            }
+            long objectEnd = System.nanoTime();
+            store.update();
+            long storeEnd = System.nanoTime();
+
+            if (step >= WARM_UP_STEPS) {
+                objectTime += objectEnd - start;
+                storeTime += storeEnd - objectEnd;
+            }
+        }
+        garbage.clear();
+        round.world.dispose();
+
+        System.out.println(String.format("%8d %12.2f %12.2f", count, objectTime / 1e3 / STEPS, storeTime / 1e3 / STEPS));
+    }
+
+    /**
+     * A mob's state as Character kept it, with the update Character did.
+     */
+    private static class ObjectMob {
+        TextureSet.Facing facing = TextureSet.Facing.FRONT;
+        float stateTime = 0;
+        int maximumHealth = 100, currentHealth = 100;
+        float rangedAttackTimer = 0, meleeAttackTimer = 0;
+        float dementedOffset = 0, dementedLerpTimer = 0, dementedLerpValue = 0, dementedTimer = 0;
+        float velocityX, velocityY;
+
+        void update(float delta) {
+            meleeAttackTimer += delta;
+            rangedAttackTimer += delta;
+
+            if (dementedTimer > 0) {
+                dementedTimer -= delta;
+                dementedLerpTimer += delta;
+                if (dementedLerpTimer > 1f) {
+                    dementedLerpTimer = 0f;
+                    dementedLerpValue = (float) ((Math.random() - 0.5) * 2 * (Math.PI * 1.5f * Character.dementedFactor(dementedTimer)));
+                }
+                dementedOffset = (dementedLerpValue - dementedOffset) * dementedLerpTimer;
+            }
+
+            if (Math.abs(velocityY) > Math.abs(velocityX))
+                facing = velocityY > 0 ? TextureSet.Facing.BACK : TextureSet.Facing.FRONT;
+            else if (Math.abs(velocityY) < Math.abs(velocityX))
+                facing = velocityX > 0 ? TextureSet.Facing.RIGHT : TextureSet.Facing.LEFT;
+
+            if (Vector2.len2(velocityX, velocityY) >= 0.1f) {
+                stateTime += delta;
+            } else {
+                stateTime = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.superduckinvaders.game.desktop.benchmark;
+
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TmxMapLoader;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.superduckinvaders.game.Round;
+import com.superduckinvaders.game.ai.AI;
+import com.superduckinvaders.game.ai.FlowFieldAI;
+import com.superduckinvaders.game.ai.PathScheduler;
+import com.superduckinvaders.game.ai.PathfindingAI;
+import com.superduckinvaders.game.entity.PhysicsEntity;
+import com.superduckinvaders.game.entity.mob.MeleeMob;
+import com.superduckinvaders.game.entity.mob.Mob;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the time spent in AI updates for mobs chasing the player with PathfindingAI and with FlowFieldAI.
+ * PathfindingAI is run on the game thread with an unlimited path scheduler budget and with the default one,
+ * and on the worker threads. Only time spent and memory allocated on the game thread is counted.
+ * The player walks in a circle so that paths go stale and the flow field gets rebuilt.
+ * Needs Assets to be loaded for the mob textures.
+ */
+public class PathfindingBenchmark {
+
+    /**
+     * The mob counts to measure.
+     */
+    private static final int[] MOB_COUNTS = {20, 200, 2000};
+
+    /**
+     * How many ticks to simulate at 60 per second.
+     */
+    private static final int TICKS = 300;
+
+    /**
+     * How far from the player the mobs are spawned, in pixels, so they are all close enough to follow.
+     */
+    private static final float SPAWN_RADIUS = 300;
+
+    private final String mapPath;
+
+    public PathfindingBenchmark(String mapPath) {
+        this.mapPath = mapPath;
+    }
+
+    public void run() {
+        System.out.println("== Pathfinding: PathfindingAI vs FlowFieldAI on " + mapPath);
+        System.out.println(String.format("%-14s %10s %6s %6s %12s %10s %10s %10s %10s", "ai", "budget us", "async", "mobs", "ai ms/tick", "worst ms", "KB/tick", "queue", "wait ms"));
+
+        TiledMap map = new TmxMapLoader().load(mapPath);
+        for (int mobCount : MOB_COUNTS) {
+            report(map, mobCount, false, Integer.MAX_VALUE, false);
+            report(map, mobCount, false, PathScheduler.DEFAULT_BUDGET, false);
+            report(map, mobCount, false, PathScheduler.DEFAULT_BUDGET, true);
+            report(map, mobCount, true, PathScheduler.DEFAULT_BUDGET, true);
+        }
+        map.dispose();
+    }
+
+    private void report(TiledMap map, int mobCount, boolean flowField, int budget, boolean async) {
+        MathUtils.random.setSeed(mobCount);
+        Round round = new Round(null, map, 0, false);
+        PathScheduler scheduler = round.getPathScheduler();
+        scheduler.setBudget(budget);
+        scheduler.setAsync(async);
+        Vector2 start = round.getPlayer().getCentre();
+
+        List<Mob> mobs = new ArrayList<>();
+        while (mobs.size() < mobCount) {
+            float x = start.x + MathUtils.random(-SPAWN_RADIUS, SPAWN_RADIUS);
+            float y = start.y + MathUtils.random(-SPAWN_RADIUS, SPAWN_RADIUS);
+            if (!round.collidePoint(x, y) && start.dst(x, y) < SPAWN_RADIUS) {
+                Mob mob = new MeleeMob(round, x, y, 100, 100, 15);
+                AI ai = flowField ? new FlowFieldAI(round, 0) : new PathfindingAI(round, 0);
+                mob.setAI(ai);
+                mobs.add(mob);
+            }
+        }
+
+        long total = 0, worst = 0, queued = 0;
+        long allocatedBefore = allocatedBytes();
+        for (int tick = 0; tick < TICKS; tick++) {
+            float angle = tick / 60f;
+            round.getPlayer().body.setTransform(
+                    (start.x + MathUtils.cos(angle) * 48) * PhysicsEntity.METRES_PER_PIXEL,
+                    (start.y + MathUtils.sin(angle) * 48) * PhysicsEntity.METRES_PER_PIXEL, 0);
+            round.getPlayer().updateSnapshot();
+
+            long tickStart = System.nanoTime();
+            for (Mob mob : mobs) {
+                mob.getAI().update(mob, Round.STEP_TIME);
+            }
+            scheduler.update();
+            long tickTime = System.nanoTime() - tickStart;
+            long allocatedAfter = allocatedBytes();
+            total += tickTime;
+            worst = Math.max(worst, tickTime);
+            queued += scheduler.getQueueDepth();
+
+            round.world.step(Round.STEP_TIME, 6, 2);
+            for (Mob mob : mobs) {
+                mob.updateSnapshot();
+            }
+            allocatedBefore += allocatedBytes() - allocatedAfter;
+        }
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        System.out.println(String.format("%-14s %10s %6s %6d %12.3f %10.3f %10.1f %10.1f %10.2f", flowField ? "FlowFieldAI" : "PathfindingAI",
+                budget == Integer.MAX_VALUE ? "none" : budget, async, mobCount, total / 1e6 / TICKS, worst / 1e6,
+                allocated / 1024f / TICKS,
+                (float) queued / TICKS, scheduler.getAverageWait()));
+        round.world.dispose();
+    }
+
+    /**
+     * @return how many bytes this thread has allocated so far
+     */
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
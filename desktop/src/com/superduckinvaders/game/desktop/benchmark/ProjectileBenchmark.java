@@ -0,0 +1,143 @@
+package com.superduckinvaders.game.desktop.benchmark;
+
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TmxMapLoader;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.superduckinvaders.game.Round;
+import com.superduckinvaders.game.entity.PhysicsEntity;
+import com.superduckinvaders.game.entity.Player;
+import com.superduckinvaders.game.entity.Projectile;
+import com.superduckinvaders.game.entity.RaycastProjectiles;
+import com.superduckinvaders.game.util.TrackedPool;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Compares firing projectiles from the Round's pool against making a new Projectile and body for every shot and
+ * destroying the body on impact, and against raycast projectiles with no bodies at all. The player fires a burst in
+ * every direction each step, as with the rate of fire powerup or a boss burst, and the projectiles fly until they hit
+ * a wall.
+ * Reports the time and memory per step, counting firing, the world step, moving raycast projectiles and clearing up
+ * after impacts, and the pool's statistics. Needs Assets to be loaded for the projectile texture.
+ */
+public class ProjectileBenchmark {
+
+    private enum Mode { NEW, POOLED, RAYCAST }
+
+    /**
+     * The burst sizes to measure, in projectiles per step.
+     */
+    private static final int[] BURSTS = {5, 20};
+
+    /**
+     * How many steps to time, after the warm up steps.
+     */
+    private static final int STEPS = 600, WARM_UP_STEPS = 120;
+
+    /**
+     * How fast the projectiles fly, in pixels per second.
+     */
+    private static final float SPEED = 500;
+
+    /**
+     * How far from the player the projectiles start, in pixels.
+     */
+    private static final float SPAWN_RADIUS = 40;
+
+    private final String mapPath;
+
+    public ProjectileBenchmark(String mapPath) {
+        this.mapPath = mapPath;
+    }
+
+    public void run() {
+        System.out.println("== Projectiles: pooled vs new bodies vs raycast on " + mapPath);
+        System.out.println(String.format("%-8s %6s %10s %10s %8s %8s %8s %8s",
+                "mode", "burst", "ms/step", "KB/step", "live", "hits", "misses", "peak"));
+
+        TiledMap map = new TmxMapLoader().load(mapPath);
+        for (int burst : BURSTS) {
+            for (Mode mode : Mode.values()) {
+                report(map, burst, mode);
+            }
+        }
+        map.dispose();
+    }
+
+    private void report(TiledMap map, int burst, Mode mode) {
+        MathUtils.random.setSeed(burst);
+        Round round = new Round(null, map, 0, false);
+        Player player = round.getPlayer();
+        TrackedPool<Projectile> pool = round.getProjectilePool();
+        RaycastProjectiles raycast = round.getRaycastProjectiles();
+        List<Projectile> live = new ArrayList<>();
+        Vector2 origin = new Vector2(), velocity = new Vector2();
+
+        long total = 0, allocated = 0;
+        for (int step = 0; step < WARM_UP_STEPS + STEPS; step++) {
+            long allocatedBefore = allocatedBytes();
+            long stepStart = System.nanoTime();
+
+            float angle = MathUtils.random(360f);
+            for (int i = 0; i < burst; i++) {
+                velocity.set(SPEED, 0).rotate(angle + 360f * i / burst);
+                origin.set(velocity).setLength(SPAWN_RADIUS).add(player.getX(), player.getY());
+                if (mode == Mode.RAYCAST) {
+                    raycast.fire(origin, velocity, 0, player);
+                    continue;
+                }
+                Projectile projectile;
+                if (mode == Mode.POOLED) {
+                    projectile = pool.obtain();
+                    projectile.init(origin, velocity, 0, player);
+                } else {
+                    projectile = new Projectile(round, origin, velocity, 0, player);
+                }
+                // Keep projectiles from hitting each other, so both modes fly the same paths.
+                projectile.setMaskBits((short) (projectile.getMaskBits() & ~PhysicsEntity.PROJECTILE_BITS));
+                live.add(projectile);
+            }
+
+            round.world.step(Round.STEP_TIME, 6, 2);
+            raycast.update(Round.STEP_TIME);
+
+            Iterator<Projectile> iterator = live.iterator();
+            while (iterator.hasNext()) {
+                Projectile projectile = iterator.next();
+                projectile.updateSnapshot();
+                if (projectile.isRemoved()) {
+                    if (mode == Mode.POOLED) {
+                        projectile.dispose();
+                    } else {
+                        round.world.destroyBody(projectile.body);
+                    }
+                    iterator.remove();
+                }
+            }
+
+            if (step >= WARM_UP_STEPS) {
+                total += System.nanoTime() - stepStart;
+                allocated += allocatedBytes() - allocatedBefore;
+            }
+        }
+
+        System.out.println(String.format("%-8s %6d %10.3f %10.1f %8d %8s %8s %8s",
+                mode.name().toLowerCase(), burst, total / 1e6 / STEPS, allocated / 1024f / STEPS,
+                mode == Mode.RAYCAST ? raycast.getCount() : live.size(),
+                mode == Mode.POOLED ? pool.getHits() : "-", mode == Mode.POOLED ? pool.getMisses() : "-",
+                mode == Mode.POOLED ? pool.getHighWater() : "-"));
+        round.world.dispose();
+    }
+
+    /**
+     * @return how many bytes this thread has allocated so far
+     */
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
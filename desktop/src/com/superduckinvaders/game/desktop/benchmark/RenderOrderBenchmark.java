@@ -0,0 +1,120 @@
+package com.superduckinvaders.game.desktop.benchmark;
+
+import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.MathUtils;
+import com.superduckinvaders.game.entity.Entity;
+import com.superduckinvaders.game.util.RenderOrder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Compares keeping entities in render order with RenderOrder against sorting the whole list with EntityComparator every
+ * frame, as Round used to. Every frame each entity moves up or down by up to a couple of pixels, as a mob walking at
+ * full speed does in one step, and one in a hundred is replaced by a new entity added to the end of the list.
+ * Entities work out their y the way a Mob does, from their centre and the height of their animation's first frame.
+ * Reports the time per frame of each and checks both lists come out in order.
+ */
+public class RenderOrderBenchmark {
+
+    /**
+     * How many entities to measure with.
+     */
+    private static final int[] COUNTS = {100, 1000, 10000};
+
+    /**
+     * How many frames to time, after the warm up frames.
+     */
+    private static final int FRAMES = 500, WARM_UP_FRAMES = 100;
+
+    /**
+     * The height of the area the entities are spread over, and how far one can move in a frame, in pixels.
+     */
+    private static final float HEIGHT = 960, MAX_MOVE = 2;
+
+    public void run() {
+        System.out.println("== Render order: full sort vs insertion sort on cached keys, us per frame");
+        System.out.println(String.format("%8s %12s %12s %8s", "entities", "full sort", "RenderOrder", "sorted"));
+        for (int count : COUNTS) {
+            report(count);
+        }
+    }
+
+    private void report(int count) {
+        MathUtils.random.setSeed(count);
+        List<Entity> full = new ArrayList<>(), incremental = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Box box = new Box(MathUtils.random(HEIGHT));
+            full.add(box);
+            incremental.add(box);
+        }
+        Comparator<Entity> comparator = new Entity.EntityComparator();
+        RenderOrder<Entity> renderOrder = new RenderOrder<>(Entity::getY);
+        full.sort(comparator);
+        renderOrder.sort(incremental);
+
+        long fullTime = 0, incrementalTime = 0;
+        for (int frame = 0; frame < WARM_UP_FRAMES + FRAMES; frame++) {
+            for (Entity entity : full) {
+                ((Box) entity).move(MathUtils.random(-MAX_MOVE, MAX_MOVE));
+            }
+            for (int i = 0; i < Math.max(1, count / 100); i++) {
+                Entity removed = full.remove(MathUtils.random(full.size() - 1));
+                incremental.remove(removed);
+                Box added = new Box(MathUtils.random(HEIGHT));
+                full.add(added);
+                incremental.add(added);
+            }
+
+            long start = System.nanoTime();
+            full.sort(comparator);
+            long fullEnd = System.nanoTime();
+            renderOrder.sort(incremental);
+            long incrementalEnd = System.nanoTime();
+
+            if (frame >= WARM_UP_FRAMES) {
+                fullTime += fullEnd - start;
+                incrementalTime += incrementalEnd - fullEnd;
+            }
+        }
+
+        boolean sorted = true;
+        for (int i = 1; i < count; i++) {
+            sorted &= incremental.get(i - 1).getY() <= incremental.get(i).getY();
+        }
+        System.out.println(String.format("%8d %12.2f %12.2f %8s",
+                count, fullTime / 1e3 / FRAMES, incrementalTime / 1e3 / FRAMES, sorted ? "yes" : "NO"));
+    }
+
+    /**
+     * An entity that can be moved up and down.
+     */
+    private static class Box extends Entity {
+        private static final Animation ANIMATION = new Animation(0.1f, new TextureRegion(), new TextureRegion());
+
+        Box(float y) {
+            super(null, 0, y);
+        }
+
+        void move(float dy) {
+            y += dy;
+        }
+
+        @Override
+        public float getY() {
+            return y - getHeight() / 2f;
+        }
+
+        @Override
+        public float getHeight() {
+            return ANIMATION.getKeyFrame(0).getRegionHeight() * 3 / 4;
+        }
+
+        @Override
+        public void render(SpriteBatch spriteBatch) {
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.superduckinvaders.game.desktop.benchmark;
+
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.MathUtils;
+import com.superduckinvaders.game.DuckGame;
+import com.superduckinvaders.game.Round;
+import com.superduckinvaders.game.entity.Entity;
+import com.superduckinvaders.game.util.SpatialHash;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares finding entities by looking at every one against asking the spatial hash, with mob sized entities spread
+ * evenly over a map the size of RoadMap and one the size of 4 by 4 copies of it.
+ * Reports per step how long filling the hash takes, and how long a full scan and the hash take to find the entities
+ * to update near the player, the mobs on screen for health bars, and the enemies in melee range of one in ten mobs.
+ */
+public class SpatialHashBenchmark {
+
+    /**
+     * How many entities to measure with.
+     */
+    private static final int[] COUNTS = {1000, 5000, 20000};
+
+    /**
+     * The map sizes to measure on, in tiles, and the size of a tile and of an entity in pixels.
+     */
+    private static final int[][] MAP_SIZES = {{200, 60}, {800, 240}};
+    private static final int TILE_SIZE = 16, ENTITY_SIZE = 16;
+
+    /**
+     * The melee range to search, as the player's.
+     */
+    private static final float MELEE_RANGE = 40;
+
+    /**
+     * How many steps to time, after the warm up steps.
+     */
+    private static final int STEPS = 200, WARM_UP_STEPS = 50;
+
+    /**
+     * Collects what a query finds.
+     */
+    private final List<Entity> found = new ArrayList<>();
+    private final SpatialHash.Visitor<Entity> collect = found::add;
+
+    /**
+     * Collects what a melee range query finds, other than the attacker.
+     */
+    private Entity attacker;
+    private final SpatialHash.Visitor<Entity> collectEnemies = entity -> {
+        if (entity != attacker) {
+            found.add(entity);
+        }
+    };
+
+    public void run() {
+        System.out.println("== Spatial hash vs full scans, ms per step");
+        System.out.println(String.format("%-10s %8s %8s %10s %10s %10s %10s %10s %10s",
+                "map", "entities", "build", "scan upd", "hash upd", "scan scr", "hash scr", "scan mel", "hash mel"));
+        for (int[] size : MAP_SIZES) {
+            for (int count : COUNTS) {
+                report(size[0] * TILE_SIZE, size[1] * TILE_SIZE, count);
+            }
+        }
+    }
+
+    private void report(float mapWidth, float mapHeight, int count) {
+        MathUtils.random.setSeed(count);
+        List<Entity> entities = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            entities.add(new Box(MathUtils.random(mapWidth - ENTITY_SIZE), MathUtils.random(mapHeight - ENTITY_SIZE)));
+        }
+        SpatialHash<Entity> hash = new SpatialHash<>(mapWidth, mapHeight, SpatialHash.DEFAULT_CELL_SIZE);
+        float playerX = mapWidth / 2, playerY = mapHeight / 2;
+        float screenWidth = DuckGame.GAME_WIDTH / 4f, screenHeight = DuckGame.GAME_HEIGHT / 4f;
+
+        long[] times = new long[7];
+        long checksum = 0;
+        for (int step = 0; step < WARM_UP_STEPS + STEPS; step++) {
+            boolean timed = step >= WARM_UP_STEPS;
+
+            long start = System.nanoTime();
+            hash.clear();
+            for (Entity entity : entities) {
+                hash.insert(entity);
+            }
+            times[0] += timed ? System.nanoTime() - start : 0;
+
+            // Entities to update, near the player.
+            start = System.nanoTime();
+            found.clear();
+            for (Entity entity : entities) {
+                if (entity.getX() <= playerX + Round.UPDATE_DISTANCE_X && entity.getX() + ENTITY_SIZE >= playerX - Round.UPDATE_DISTANCE_X
+                        && entity.getY() <= playerY + Round.UPDATE_DISTANCE_Y && entity.getY() + ENTITY_SIZE >= playerY - Round.UPDATE_DISTANCE_Y) {
+                    found.add(entity);
+                }
+            }
+            times[1] += timed ? System.nanoTime() - start : 0;
+            checksum += found.size();
+
+            start = System.nanoTime();
+            found.clear();
+            hash.queryRect(playerX - Round.UPDATE_DISTANCE_X, playerY - Round.UPDATE_DISTANCE_Y,
+                    playerX + Round.UPDATE_DISTANCE_X, playerY + Round.UPDATE_DISTANCE_Y, collect);
+            times[2] += timed ? System.nanoTime() - start : 0;
+            checksum -= found.size();
+
+            // Mobs on screen, for health bars.
+            start = System.nanoTime();
+            found.clear();
+            for (Entity entity : entities) {
+                if (entity.intersects(playerX - screenWidth, playerY - screenHeight, screenWidth * 2, screenHeight * 2)) {
+                    found.add(entity);
+                }
+            }
+            times[3] += timed ? System.nanoTime() - start : 0;
+
+            start = System.nanoTime();
+            found.clear();
+            hash.queryRect(playerX - screenWidth, playerY - screenHeight, playerX + screenWidth, playerY + screenHeight, collect);
+            times[4] += timed ? System.nanoTime() - start : 0;
+
+            // Enemies in melee range of one in ten mobs.
+            start = System.nanoTime();
+            found.clear();
+            for (int i = 0; i < count; i += 10) {
+                attacker = entities.get(i);
+                for (Entity entity : entities) {
+                    float dx = Math.max(0, Math.max(entity.getX() - attacker.getCentreX(), attacker.getCentreX() - entity.getX() - ENTITY_SIZE));
+                    float dy = Math.max(0, Math.max(entity.getY() - attacker.getCentreY(), attacker.getCentreY() - entity.getY() - ENTITY_SIZE));
+                    if (entity != attacker && dx * dx + dy * dy <= MELEE_RANGE * MELEE_RANGE) {
+                        found.add(entity);
+                    }
+                }
+            }
+            times[5] += timed ? System.nanoTime() - start : 0;
+            checksum += found.size();
+
+            start = System.nanoTime();
+            found.clear();
+            for (int i = 0; i < count; i += 10) {
+                attacker = entities.get(i);
+                hash.queryRadius(attacker.getCentreX(), attacker.getCentreY(), MELEE_RANGE, collectEnemies);
+            }
+            times[6] += timed ? System.nanoTime() - start : 0;
+            checksum -= found.size();
+        }
+
+        System.out.println(String.format("%-10s %8d %8.3f %10.3f %10.3f %10.3f %10.3f %10.3f %10.3f%s",
+                (int) mapWidth / TILE_SIZE + "x" + (int) mapHeight / TILE_SIZE, count,
+                times[0] / 1e6 / STEPS, times[1] / 1e6 / STEPS, times[2] / 1e6 / STEPS, times[3] / 1e6 / STEPS,
+                times[4] / 1e6 / STEPS, times[5] / 1e6 / STEPS, times[6] / 1e6 / STEPS,
+                checksum == 0 ? "" : "  (results differ)"));
+    }
+
+    /**
+     * A mob sized entity that stays still.
+     */
+    private static class Box extends Entity {
+        Box(float x, float y) {
+            super(null, x, y);
+            width = height = ENTITY_SIZE;
+        }
+
+        @Override
+        public void render(SpriteBatch spriteBatch) {
+        }
+    }
+}
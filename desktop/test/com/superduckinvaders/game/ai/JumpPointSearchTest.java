@@ -0,0 +1,175 @@
+package com.superduckinvaders.game.ai;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.TmxMapLoader;
+import com.badlogic.gdx.math.RandomXS128;
+import com.superduckinvaders.game.util.LineOfSight;
+import com.superduckinvaders.game.util.OccupancyGrid;
+import com.superduckinvaders.game.util.TileGrid;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks JumpPointSearch against GridSearch on every map in FinalMaps, with each obstacles layer a round can choose,
+ * for random start and goal pairs: it must find paths as short as 8 direction A*, reach the same corners as the
+ * 4 direction search PathfindingAI uses by default, and only find paths a mob can walk.
+ * Runs from core/assets, as the game does.
+ */
+public class JumpPointSearchTest {
+
+    /**
+     * How many random start and goal pairs to search between on each map, for each mob size.
+     */
+    private static final int PAIRS = 200;
+
+    /**
+     * The mob sizes to search for, in pixels.
+     */
+    private static final int[] MOB_SIZES = {16, 32};
+
+    /**
+     * The most by which two path costs can differ and still be counted as the same.
+     */
+    private static final float TOLERANCE = 0.001f;
+
+    private static HeadlessApplication application;
+
+    /**
+     * The occupancy grid of each map and obstacles layer, and their names.
+     */
+    private static final List<OccupancyGrid> grids = new ArrayList<>();
+    private static final List<String> names = new ArrayList<>();
+
+    @BeforeClass
+    public static void loadMaps() {
+        application = new HeadlessApplication(new ApplicationAdapter() {});
+        // Loading a map loads its tileset textures, which only need GL calls to do nothing here.
+        Gdx.gl = Gdx.gl20 = (GL20) Proxy.newProxyInstance(GL20.class.getClassLoader(), new Class[]{GL20.class},
+                (proxy, method, args) -> {
+                    Class<?> type = method.getReturnType();
+                    return type == int.class ? 1 : type == boolean.class ? false : type == float.class ? 0f
+                            : type == String.class ? "" : null;
+                });
+
+        TmxMapLoader loader = new TmxMapLoader();
+        for (FileHandle file : Gdx.files.internal("FinalMaps").list(".tmx")) {
+            TiledMap map = loader.load(file.path());
+            TiledMapTileLayer base = (TiledMapTileLayer) map.getLayers().get("Base");
+            for (int layer = 0; layer == 0 || map.getLayers().get("Obstacles" + layer) != null; layer++) {
+                TileGrid solid = TileGrid.fromLayers(base.getWidth(), base.getHeight(), TileGrid.ANY_CELL,
+                        (TiledMapTileLayer) map.getLayers().get("Collision"),
+                        (TiledMapTileLayer) map.getLayers().get("Obstacles" + layer));
+                grids.add(new OccupancyGrid(solid, (int) base.getTileWidth(), (int) base.getTileHeight()));
+                names.add(file.name() + " Obstacles" + layer);
+            }
+            map.dispose();
+        }
+        assertFalse("no maps found in FinalMaps", grids.isEmpty());
+    }
+
+    @AfterClass
+    public static void exit() {
+        application.exit();
+    }
+
+    @Test
+    public void jumpPointCostMatchesEightDirectionAStar() {
+        forEachPair((name, sight, clearance, startX, startY, goalX, goalY) -> {
+            GridSearch aStar8 = new GridSearch(clearance.getWidth(), clearance.getHeight());
+            aStar8.setDiagonal(true);
+            JumpPointSearch jps = new JumpPointSearch(clearance.getWidth(), clearance.getHeight());
+
+            boolean found8 = aStar8.search(sight, clearance, startX, startY, goalX, goalY, Float.MAX_VALUE, false);
+            boolean foundJps = jps.search(sight, clearance, startX, startY, goalX, goalY, Float.MAX_VALUE, false);
+            assertEquals(name + ": whether a path was found", found8, foundJps);
+            if (found8) {
+                assertEquals(name + ": path cost", aStar8.getPathCost(), jps.getPathCost(), TOLERANCE);
+            }
+        });
+    }
+
+    @Test
+    public void jumpPointReachesTheSameCornersAsFourDirectionSearch() {
+        forEachPair((name, sight, clearance, startX, startY, goalX, goalY) -> {
+            GridSearch aStar4 = new GridSearch(clearance.getWidth(), clearance.getHeight());
+            JumpPointSearch jps = new JumpPointSearch(clearance.getWidth(), clearance.getHeight());
+
+            assertEquals(name + ": whether a path was found",
+                    aStar4.search(sight, clearance, startX, startY, goalX, goalY, Float.MAX_VALUE, false),
+                    jps.search(sight, clearance, startX, startY, goalX, goalY, Float.MAX_VALUE, false));
+        });
+    }
+
+    @Test
+    public void jumpPointPathsCanBeWalked() {
+        forEachPair((name, sight, clearance, startX, startY, goalX, goalY) -> {
+            JumpPointSearch jps = new JumpPointSearch(clearance.getWidth(), clearance.getHeight());
+            if (!jps.search(sight, clearance, startX, startY, goalX, goalY, Float.MAX_VALUE, false)) {
+                return;
+            }
+
+            int last = jps.getPathLength() - 1;
+            assertEquals(name + ": path ends at the goal", goalX, jps.getPathX(0));
+            assertEquals(name + ": path ends at the goal", goalY, jps.getPathY(0));
+            assertEquals(name + ": path starts at the start", startX, jps.getPathX(last));
+            assertEquals(name + ": path starts at the start", startY, jps.getPathY(last));
+            for (int i = 0; i < last; i++) {
+                int x = jps.getPathX(i), y = jps.getPathY(i);
+                int dx = jps.getPathX(i + 1) - x, dy = jps.getPathY(i + 1) - y;
+                String step = name + ": step " + i + " from " + x + "," + y + " by " + dx + "," + dy;
+                assertTrue(step + " is more than one corner", Math.abs(dx) <= 1 && Math.abs(dy) <= 1);
+                assertTrue(step + " ends where the mob cannot stand", clearance.canStand(x + dx, y + dy));
+                assertTrue(step + " cuts a corner", clearance.canStand(x + dx, y) && clearance.canStand(x, y + dy));
+            }
+        });
+    }
+
+    /**
+     * Something to check for one start and goal pair.
+     */
+    private interface PairCheck {
+        void check(String name, LineOfSight sight, OccupancyGrid.Clearance clearance, int startX, int startY, int goalX, int goalY);
+    }
+
+    /**
+     * Runs a check on random start and goal pairs, the same ones every run, that a mob can stand on, for every map and
+     * mob size.
+     */
+    private static void forEachPair(PairCheck check) {
+        for (int i = 0; i < grids.size(); i++) {
+            OccupancyGrid grid = grids.get(i);
+            LineOfSight sight = new LineOfSight(grid);
+            for (int size : MOB_SIZES) {
+                OccupancyGrid.Clearance clearance = grid.getClearance(size, size);
+                RandomXS128 random = new RandomXS128(names.get(i).hashCode() + size);
+                for (int pair = 0; pair < PAIRS; pair++) {
+                    int startX, startY, goalX, goalY;
+                    do {
+                        startX = random.nextInt(clearance.getWidth());
+                        startY = random.nextInt(clearance.getHeight());
+                    } while (!clearance.canStand(startX, startY));
+                    do {
+                        goalX = random.nextInt(clearance.getWidth());
+                        goalY = random.nextInt(clearance.getHeight());
+                    } while (!clearance.canStand(goalX, goalY));
+
+                    String name = names.get(i) + " " + size + "px, " + startX + "," + startY + " to " + goalX + "," + goalY;
+                    check.check(name, sight, clearance, startX, startY, goalX, goalY);
+                }
+            }
+        }
+    }
+}